@@ -1,11 +1,17 @@
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import model.AnimationModelImpl;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import model.AnimationModelColumnar;
 import model.AnimationModelView;
+import model.CompiledAnimation;
+import model.MappedAnimation;
 import util.AnimationBuilderModel;
 import util.AnimationReader;
+import util.ProgressiveAnimation;
 import view.View;
 import view.ViewFactory;
 
@@ -17,7 +23,10 @@ public class Main {
   /**
    * Runs the animation from the given input to the given output.
    *
-   * @param args the animation input, output and speed
+   * @param args the animation input, output, speed, the number of threads to read it on, whether
+   *             to play it while it is read, the file and the format to compile it to, and the
+   *             tick of a single frame to output, or the directory or the file the png and gif
+   *             views write their images to, and the form of the frames of the rawvideo view
    * @throws IllegalStateException when there is an error outputting the file
    */
   public static void main(String[] args) throws IllegalStateException {
@@ -27,12 +36,20 @@ public class Main {
       return;
     }
 
-    Readable in = null;
+    Path in = null;
+    Path compile = null;
+    boolean mapped = false;
+    boolean progressive = false;
+    String video = null;
     View view = null;
     String viewString = null;
     int speed = 1;
-    Appendable out = System.out;
-    AnimationModelView model = new AnimationModelImpl();
+    int threads = 1;
+    Integer at = null;
+    Path outPath = null;
+    // the output is buffered, as the views write it in many small pieces
+    Writer out = null;
+    AnimationModelView model;
 
     for (int i = 0; i < args.length; i += 2) {
       String first = args[i];
@@ -40,26 +57,23 @@ public class Main {
       
       switch (first) {
         case "-in":
-          try {
-            in = new FileReader(second);
-          } catch (FileNotFoundException e) {
-            System.out.println(e.getMessage());
+          in = Paths.get(second);
+          if (!Files.isRegularFile(in) || !Files.isReadable(in)) {
+            System.out.println(second + " (No such file or directory)");
             return;
           }
           break;
         case "-out":
-          try {
-            out = new FileWriter(second);
-          } catch (IOException e) {
-            System.out.println(e.getMessage());
-            return;
-          }
+          outPath = Paths.get(second);
           break;
         case "-view":
-          if (second.equals("visual") || second.equals("svg") || second.equals("text")) {
+          if (second.equals("visual") || second.equals("svg") || second.equals("text")
+              || second.equals("svgframe") || second.equals("png") || second.equals("gif")
+              || second.equals("rawvideo")) {
             viewString = second;
           } else {
-            System.out.println("A view can be visual / svg / text");
+            System.out.println(
+                "A view can be visual / svg / svgframe / png / gif / rawvideo / text");
           }
           break;
         case "-speed":
@@ -74,6 +88,53 @@ public class Main {
             return;
           }
           break;
+        case "-at":
+          try {
+            at = Integer.parseInt(second);
+          } catch (NumberFormatException e) {
+            System.out.println(e.getMessage());
+            return;
+          }
+          break;
+        case "-compile":
+          compile = Paths.get(second);
+          break;
+        case "-format":
+          if (second.equals("compact") || second.equals("mapped")) {
+            mapped = second.equals("mapped");
+          } else {
+            System.out.println("A format can be compact / mapped");
+            return;
+          }
+          break;
+        case "-load":
+          if (second.equals("full") || second.equals("progressive")) {
+            progressive = second.equals("progressive");
+          } else {
+            System.out.println("Loading can be full / progressive");
+            return;
+          }
+          break;
+        case "-video":
+          if (second.equals("y4m") || second.equals("rgb")) {
+            video = second;
+          } else {
+            System.out.println("A video can be y4m / rgb");
+            return;
+          }
+          break;
+        case "-threads":
+          try {
+            threads = Integer.parseInt(second);
+          } catch (NumberFormatException e) {
+            System.out.println(e.getMessage());
+            return;
+          }
+          if (threads < 1) {
+            System.out.println("Threads cannot be less than 1");
+            return;
+          }
+          break;
         default:
           System.out.println("Incorrect argument");
           return;
@@ -85,19 +146,89 @@ public class Main {
       return;
     }
 
-    if (viewString == null) {
+    if (viewString == null && compile == null) {
       System.out.println("Must provide the target view");
       return;
     }
 
-    model = (AnimationModelView) AnimationReader.parseFile(in, new AnimationBuilderModel());
+    if ("svgframe".equals(viewString) && at == null) {
+      System.out.println("Must provide the tick of the frame with -at");
+      return;
+    }
+
+    if ("png".equals(viewString) && outPath == null) {
+      System.out.println("Must provide the directory of the frames with -out");
+      return;
+    }
+
+    if ("gif".equals(viewString) && outPath == null) {
+      System.out.println("Must provide the file of the image with -out");
+      return;
+    }
+
+    if (!"visual".equals(viewString)) {
+      // the other views draw nothing on the screen, so they run on machines without a display
+      System.setProperty("java.awt.headless", "true");
+    }
+
     try {
-      view = ViewFactory.make(viewString, model);
+      // only the visual view waits for the frames to be read, the other views write all the
+      // frames up to the length, which has to be known before they start, so they read in full
+      if (progressive && "visual".equals(viewString) && compile == null
+          && !MappedAnimation.isMapped(in) && !CompiledAnimation.isCompiled(in)) {
+        model = ProgressiveAnimation.load(in, threads);
+      } else if (MappedAnimation.isMapped(in)) {
+        model = MappedAnimation.open(in);
+      } else if (CompiledAnimation.isCompiled(in)) {
+        model = CompiledAnimation.read(in);
+      } else {
+        // the motions are kept in primitive columns, so reading creates no objects per motion
+        model = (AnimationModelView) AnimationReader.parseFile(in,
+            new AnimationBuilderModel(new AnimationModelColumnar()), threads);
+      }
+      if (compile != null && !(model instanceof AnimationModelColumnar)) {
+        System.out.println("A mapped animation cannot be compiled again");
+        return;
+      } else if (compile != null && mapped) {
+        MappedAnimation.write((AnimationModelColumnar) model, compile);
+      } else if (compile != null) {
+        CompiledAnimation.write((AnimationModelColumnar) model, compile);
+      }
+    } catch (IOException e) {
+      System.out.println(e.getMessage());
+      return;
+    }
+    if (viewString == null) {
+      return;
+    }
+    try {
+      view = ViewFactory.make(viewString, model, at == null ? 0 : at, outPath, video);
     } catch (IllegalArgumentException | NullPointerException e) {
       System.out.println(e.getMessage());
       return;
     }
+    boolean toFile = outPath != null && !"png".equals(viewString) && !"gif".equals(viewString)
+        && !"rawvideo".equals(viewString);
+    if (toFile) {
+      try {
+        out = Files.newBufferedWriter(outPath);
+      } catch (IOException e) {
+        System.out.println(e.getMessage());
+        return;
+      }
+    } else {
+      out = new BufferedWriter(new OutputStreamWriter(System.out));
+    }
     view.run(out, speed);
+    try {
+      if (toFile) {
+        out.close();
+      } else {
+        out.flush();
+      }
+    } catch (IOException e) {
+      System.out.println(e.getMessage());
+    }
 
   }
 
@@ -0,0 +1,101 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Represents the set of shapes that are visible at the current tick of a sweep through an
+ * animation. Shapes enter the set at the time they appear at and leave it after the time they
+ * disappear at, so a tick only costs as much as the shapes that are visible at it, or that appear
+ * or disappear by it. The shapes are identified by their position in the order of their
+ * declaration, and the set is kept in that order.
+ */
+final class ActiveShapes {
+
+  private final int[] appearsAt;
+  private final int[] disappearsAt;
+  private final int[] byAppearance;
+  private final IntList active;
+  private int next;
+
+  /**
+   * Instantiates an empty set over the shapes with the given lifetimes. The arrays are not copied.
+   *
+   * @param appearsAt    the time each shape appears at
+   * @param disappearsAt the time each shape disappears at, which is before the time it appears at
+   *                     if the shape is never visible
+   */
+  ActiveShapes(int[] appearsAt, int[] disappearsAt) {
+    this.appearsAt = appearsAt;
+    this.disappearsAt = disappearsAt;
+    long[] keys = new long[appearsAt.length];
+    int count = 0;
+    for (int shape = 0; shape < appearsAt.length; shape++) {
+      if (appearsAt[shape] <= disappearsAt[shape]) {
+        keys[count++] = (long) appearsAt[shape] << 32 | shape;
+      }
+    }
+    Arrays.sort(keys, 0, count);
+    this.byAppearance = new int[count];
+    for (int i = 0; i < count; i++) {
+      this.byAppearance[i] = (int) keys[i];
+    }
+    this.active = new IntList();
+    this.next = 0;
+  }
+
+  /**
+   * Moves the sweep to the given tick, which must not be before the previous one.
+   *
+   * @param tick a tick to move to
+   */
+  void enter(int tick) {
+    int kept = 0;
+    for (int i = 0; i < this.active.size(); i++) {
+      int shape = this.active.get(i);
+      if (this.disappearsAt[shape] >= tick) {
+        this.active.set(kept++, shape);
+      }
+    }
+    this.active.truncate(kept);
+
+    while (this.next < this.byAppearance.length
+        && this.appearsAt[this.byAppearance[this.next]] <= tick) {
+      int shape = this.byAppearance[this.next++];
+      if (this.disappearsAt[shape] >= tick) {
+        insert(shape);
+      }
+    }
+  }
+
+  /*
+  Helper method that inserts the shape into the set, keeping it in the order of declaration.
+   */
+  private void insert(int shape) {
+    this.active.add(shape);
+    int i = this.active.size() - 1;
+    while (i > 0 && this.active.get(i - 1) > shape) {
+      this.active.set(i, this.active.get(i - 1));
+      i--;
+    }
+    this.active.set(i, shape);
+  }
+
+  /**
+   * Returns the number of shapes visible at the current tick.
+   *
+   * @return the number of visible shapes
+   */
+  int size() {
+    return this.active.size();
+  }
+
+  /**
+   * Returns the visible shape at the given position in the order of declaration.
+   *
+   * @param index a position in the set
+   * @return the shape at the given position
+   */
+  int get(int index) {
+    return this.active.get(index);
+  }
+}
@@ -2,6 +2,7 @@ package model;
 
 import java.util.List;
 import model.motion.Motion;
+import model.motion.Motions;
 import model.shape.Shape;
 
 /**
@@ -11,7 +12,9 @@ import model.shape.Shape;
 public interface AnimatedShape extends Shape {
 
   /**
-   * Adds a motion to the sequence of motions of this animated shape.
+   * Adds a motion to the sequence of motions of this animated shape. The motion is split into a
+   * {@link Motion} of each kind that changes the shape, or a single freeze if nothing changes, and
+   * either all of them are added or none is.
    *
    * @param start      a starting time of the motion added
    * @param end        an end time of the motion added
@@ -25,8 +28,9 @@ public interface AnimatedShape extends Shape {
    *                                  withing the given timeframe
    * @throws IllegalStateException    if there is a FREEZE motion happening during given timeframe
    *                                  to the shape with this name
+   * @return the motions added to the sequence
    */
-  void addMotion(int start, int end, Shape startShape, Shape endShape);
+  List<Motion> addMotion(int start, int end, Shape startShape, Shape endShape);
 
   /**
    * Returns the name of this animated shape.
@@ -42,4 +46,43 @@ public interface AnimatedShape extends Shape {
    */
   List<Motion> getSequence();
 
+  /**
+   * Returns the motion of the given kind that is in progress at the given timestamp. If two motions
+   * of this kind meet at the timestamp, returns the one that starts later.
+   *
+   * @param kind      a kind of the motion to look up
+   * @param timestamp a time to look the motion up at
+   * @return the motion of the given kind in progress at the given timestamp, or null if there is
+   *     none
+   */
+  Motion getMotionInProgress(Motions kind, int timestamp);
+
+  /**
+   * Returns the motion that has most recently finished at the given timestamp, i.e. the motion with
+   * the latest end time that is not after the timestamp. If several motions end at that time,
+   * returns the one added first.
+   *
+   * @param timestamp a time to look the motion up at
+   * @return the motion that has most recently finished at the given timestamp, or null if no motion
+   *     has finished yet
+   */
+  Motion getLastFinishedMotion(int timestamp);
+
+  /**
+   * Returns the time this animated shape appears at, i.e. the start of its earliest motion. The
+   * shape is visible from this time to the time it disappears at, both inclusive, and takes the form
+   * it has at the start of its earliest motion until a motion changes it.
+   *
+   * @return the time this animated shape appears at
+   */
+  int getAppearsAt();
+
+  /**
+   * Returns the time this animated shape disappears at, i.e. the end of its latest motion. If the
+   * shape has no motions, this is before the time it appears at, so it is never visible.
+   *
+   * @return the time this animated shape disappears at
+   */
+  int getDisappearsAt();
+
 }
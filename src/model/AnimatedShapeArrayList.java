@@ -1,8 +1,12 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.ToIntFunction;
 import model.motion.ColorChange;
 import model.motion.Freeze;
 import model.motion.Motion;
@@ -17,13 +21,20 @@ import model.shape.properties.Position;
 
 /**
  * Represents. Implements all the operations of the {@link AnimatedShape}. Uses a list to store the
- * sequence of motions.
+ * sequence of motions, and keeps the motions of each kind sorted by time, so the motions at a given
+ * timestamp are found with a binary search.
  */
 class AnimatedShapeArrayList implements AnimatedShape {
 
+  private static final Comparator<Motion> BY_TIMEFRAME =
+      Comparator.comparingInt(Motion::getStart).thenComparingInt(Motion::getEnd);
+  private static final Comparator<Motion> BY_END = Comparator.comparingInt(Motion::getEnd);
+
   private final String name;
   private final Shapes kind;
   private final List<Motion> sequence;
+  private final Map<Motions, List<Motion>> timelines;
+  private final List<Motion> byEnd;
   private Shape initialShape;
   private int appearsAt;
   private int disappearsAt;
@@ -42,9 +53,14 @@ class AnimatedShapeArrayList implements AnimatedShape {
     this.name = name;
     this.kind = kind;
     this.sequence = new ArrayList<>();
+    this.timelines = new EnumMap<>(Motions.class);
+    for (Motions motion : Motions.values()) {
+      this.timelines.put(motion, new ArrayList<>());
+    }
+    this.byEnd = new ArrayList<>();
     this.initialShape = null;
     this.appearsAt = 0;
-    this.disappearsAt = 0;
+    this.disappearsAt = -1;
   }
 
   @Override
@@ -58,39 +74,118 @@ class AnimatedShapeArrayList implements AnimatedShape {
   }
 
   @Override
-  public void addMotion(int start, int end, Shape startShape, Shape endShape)
-      throws NullPointerException, IllegalArgumentException {
+  public Motion getMotionInProgress(Motions kind, int timestamp) {
+    // the motions of one kind never overlap, so their ends are sorted as well as their starts
+    List<Motion> timeline = this.timelines.get(kind);
+    int last = upperBound(timeline, timestamp, Motion::getStart) - 1;
+    if (last < 0 || timeline.get(last).getEnd() < timestamp) {
+      return null;
+    }
+    return timeline.get(last);
+  }
 
-    if (this.appearsAt == 0) {
-      this.appearsAt = start;
+  @Override
+  public Motion getLastFinishedMotion(int timestamp) {
+    int last = upperBound(this.byEnd, timestamp, Motion::getEnd) - 1;
+    if (last < 0) {
+      return null;
     }
-    if (this.disappearsAt < end) {
-      this.disappearsAt = end;
+    int first = upperBound(this.byEnd, this.byEnd.get(last).getEnd() - 1, Motion::getEnd);
+    return this.byEnd.get(first);
+  }
+
+  @Override
+  public int getAppearsAt() {
+    return this.appearsAt;
+  }
+
+  @Override
+  public int getDisappearsAt() {
+    return this.disappearsAt;
+  }
+
+  /*
+  Helper method that returns the index of the first motion in the given list whose property is
+  greater than the given key. The list must be sorted by that property.
+   */
+  private static int upperBound(List<Motion> list, int key, ToIntFunction<Motion> property) {
+    int low = 0;
+    int high = list.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (property.applyAsInt(list.get(mid)) <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
     }
-    if (this.initialShape == null) {
-      this.initialShape = startShape;
+    return low;
+  }
+
+  /*
+  Helper method that returns the index of the first motion in the given list that comes after the
+  given motion in the given order. The list must be sorted in that order.
+   */
+  private static int upperBound(List<Motion> list, Motion m, Comparator<Motion> order) {
+    int low = 0;
+    int high = list.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (order.compare(list.get(mid), m) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
     }
+    return low;
+  }
+
+  /*
+  Helper method that inserts the motion into the given sorted list after all the motions that
+  compare equal to it, so motions added earlier stay first.
+   */
+  private static void insertSorted(List<Motion> list, Motion m, Comparator<Motion> order) {
+    list.add(upperBound(list, m, order), m);
+  }
+
+  @Override
+  public List<Motion> addMotion(int start, int end, Shape startShape, Shape endShape)
+      throws NullPointerException, IllegalArgumentException {
 
+    List<Motion> added = new ArrayList<>();
     if (!endShape.getPosition().equals(startShape.getPosition())) {
-      tryAddMotion(new Move(this, start, end, startShape, endShape));
+      added.add(new Move(this, start, end, startShape, endShape));
     }
     if (!endShape.getDimensions().equals(startShape.getDimensions())) {
-      tryAddMotion(new Scale(this, start, end, startShape, endShape));
+      added.add(new Scale(this, start, end, startShape, endShape));
     }
     if (!endShape.getColor().equals(startShape.getColor())) {
-      tryAddMotion(new ColorChange(this, start, end, startShape, endShape));
+      added.add(new ColorChange(this, start, end, startShape, endShape));
     }
 
     if (endShape.getDimensions().equals(startShape.getDimensions()) &&
         endShape.getPosition().equals(startShape.getPosition()) &&
         endShape.getColor().equals(startShape.getColor())) {
-      tryAddMotion(new Freeze(this, start, end, startShape, endShape));
+      added.add(new Freeze(this, start, end, startShape, endShape));
     }
 
+    // the motions of one call are all of different kinds, so each only has to be checked against
+    // the motions already in the sequence
+    added.forEach(this::checkCanAdd);
+
+    if (this.sequence.isEmpty() || start < this.appearsAt) {
+      this.appearsAt = start;
+      this.initialShape = startShape;
+    }
+    if (this.disappearsAt < end) {
+      this.disappearsAt = end;
+    }
+    added.forEach(this::add);
+    return added;
   }
 
   /*
-   * Checks if the provided kind of motion can be added to the sequence, and adds it if possible.
+   * Checks if the provided kind of motion can be added to the sequence.
    *
    * @throws IllegalArgumentException if the start time is less than 1
    * @throws IllegalArgumentException if the end time is before the start time
@@ -99,27 +194,52 @@ class AnimatedShapeArrayList implements AnimatedShape {
    * @throws IllegalStateException    if there is a FREEZE motion happening during given timeframe
    *                                  to the shape with this name
    */
-  private void tryAddMotion(Motion m) throws IllegalArgumentException, NullPointerException {
+  private void checkCanAdd(Motion m) throws IllegalStateException {
 
-    if (this.sequence.stream().anyMatch(other -> (
-        other.getKind() == m.getKind() || other.getKind() == Motions.FREEZE)
-        && checkTimeOverlap(other, m))) {
+    if (overlapsAny(this.timelines.get(m.getKind()), m)
+        || overlapsAny(this.timelines.get(Motions.FREEZE), m)) {
       throw new IllegalStateException(
           "There is another motion of the same kind or a freeze in progress");
     }
 
-    if (this.sequence.stream().anyMatch(other ->
-        m.getKind() == Motions.FREEZE && checkTimeOverlap(other, m))) {
-      throw new IllegalStateException("Cannot freeze shape when there is a motion in progress");
+    if (m.getKind() == Motions.FREEZE) {
+      for (List<Motion> timeline : this.timelines.values()) {
+        if (overlapsAny(timeline, m)) {
+          throw new IllegalStateException(
+              "Cannot freeze shape when there is a motion in progress");
+        }
+      }
     }
+  }
 
+  /*
+  Helper method to check if the motion timeframe overlaps with any motion of the given timeline.
+  The motions of a timeline do not overlap, so their ends are sorted as well as their starts, and
+  the only motions that can overlap the given one are the ones after the first that ends after it
+  starts. Apart from motions with the very same timeframe, which do not overlap it, the first of
+  them overlaps the given motion if any does, so a binary search is enough.
+   */
+  private static boolean overlapsAny(List<Motion> timeline, Motion m) {
+    int first = upperBound(timeline, m.getStart(), Motion::getEnd);
+    if (first < timeline.size() && BY_TIMEFRAME.compare(timeline.get(first), m) == 0) {
+      first = upperBound(timeline, m, BY_TIMEFRAME);
+    }
+    return first < timeline.size() && checkTimeOverlap(timeline.get(first), m);
+  }
+
+  /*
+  Helper method that adds the motion to the sequence and to the sorted timelines.
+   */
+  private void add(Motion m) {
     this.sequence.add(m);
+    insertSorted(this.timelines.get(m.getKind()), m, BY_TIMEFRAME);
+    insertSorted(this.byEnd, m, BY_END);
   }
 
   /*
   Helper method to check if the motion timeframe overlaps.
    */
-  private boolean checkTimeOverlap(Motion other, Motion m) {
+  private static boolean checkTimeOverlap(Motion other, Motion m) {
     return m.getStart() < other.getEnd() && other.getEnd() < m.getEnd() ||
         m.getStart() < other.getStart() && other.getStart() < m.getEnd() ||
         other.getStart() < m.getEnd() && m.getEnd() < other.getEnd() ||
@@ -134,7 +254,7 @@ class AnimatedShapeArrayList implements AnimatedShape {
             (this.initialShape != null ?
                 "\n" + this.initialShape
                 : "") +
-            (this.appearsAt > 0 ?
+            (!this.sequence.isEmpty() ?
                 "\n" + "Appears at t=" + this.appearsAt
                     + "\n" + "Disappears at t=" + this.disappearsAt
                 : "");
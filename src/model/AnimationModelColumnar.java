@@ -0,0 +1,1033 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import model.motion.Interpolation;
+import model.shape.Shape;
+import model.shape.Shapes;
+
+/**
+ * Represents an animation model that stores its motions column by column in primitive arrays
+ * instead of as objects. Every call of {@link #addMotion} takes one row, made of the id of the
+ * shape, the start and end times, the seven properties of the shape at the start and the seven at
+ * the end, and the order of the row's addition. Before the state is computed, the rows are sorted by
+ * their start, so a cursor plays the frames by a single sweep over the columns. A frame computed at
+ * a given timestamp instead looks up the shapes visible at it in an interval index over their
+ * lifetimes, and the rows of each of them with a binary search over its timelines, so it only costs
+ * as much as the shapes that are visible.
+ *
+ * <p>The model follows the same rules and computes the same frames as {@link AnimationModelImpl}:
+ * a row acts as a move, a scale and a color change for each of the properties it changes, or as a
+ * freeze if it changes none of them.
+ */
+public final class AnimationModelColumnar implements AnimationModel, AnimationModelView {
+
+  private static final int SHAPE = 0;
+  private static final int START = 1;
+  private static final int END = 2;
+  // the properties at the start of the motion take columns FROM to FROM + 6, in the order x, y,
+  // width, height, r, g, b, and the properties at the end take columns TO to TO + 6
+  private static final int FROM = 3;
+  private static final int TO = 10;
+  private static final int ORDER = 17;
+  private static final int COLUMNS = 18;
+  // the number of values every motion is saved with: the id of the shape, the start and end times,
+  // and the seven properties at the start and the seven at the end
+  static final int VALUES = ORDER;
+
+  private static final int MOVE = 1;
+  private static final int SCALE = 2;
+  private static final int COLOR_CHANGE = 4;
+  private static final int FREEZE = 8;
+  private static final int[] KINDS = {MOVE, SCALE, COLOR_CHANGE, FREEZE};
+
+  private final SymbolTable names;
+  private final List<Shapes> kinds;
+  // the rows of every shape acting as each of the kinds of motion, sorted by their timeframe
+  private final List<IntList[]> timelines;
+  // the lifetime of every shape, and the row of its earliest motion, or -1 if it has no motions
+  private final IntList appearsAt;
+  private final IntList disappearsAt;
+  private final IntList firstRow;
+  // the index over the lifetimes of the shapes, made by the first call of .getStateAt() and kept
+  // up to date after it
+  private IntervalIndex lifetimes;
+  private int[][] columns;
+  private int rows;
+  private boolean sorted;
+  private Canvas canvas;
+  private int length;
+
+  /**
+   * Initiates an empty columnar model of the animation.
+   */
+  public AnimationModelColumnar() {
+    this.names = new SymbolTable();
+    this.kinds = new ArrayList<>();
+    this.timelines = new ArrayList<>();
+    this.appearsAt = new IntList();
+    this.disappearsAt = new IntList();
+    this.firstRow = new IntList();
+    this.lifetimes = null;
+    this.columns = new int[COLUMNS][16];
+    this.rows = 0;
+    this.sorted = true;
+    this.canvas = null;
+  }
+
+  @Override
+  public void setCanvas(int x, int y, int width, int height) {
+    if (this.canvas != null) {
+      throw new IllegalStateException("Canvas cannot be reset");
+    }
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Width and height must be a non-negative number");
+    }
+
+    this.canvas = new Canvas(x, y, width, height);
+  }
+
+  @Override
+  public Canvas getCanvas() {
+    return this.canvas;
+  }
+
+  @Override
+  public int getLength() {
+    return this.length;
+  }
+
+  @Override
+  public void addShape(String name, Shapes kind)
+      throws IllegalArgumentException, NullPointerException {
+    Objects.requireNonNull(name, "A name of the animated shape can't be null");
+    Objects.requireNonNull(kind, "A kind of the animated shape can't be null");
+    this.names.add(name);
+    this.kinds.add(kind);
+    this.timelines.add(new IntList[]{new IntList(), new IntList(), new IntList(), new IntList()});
+    this.appearsAt.add(0);
+    this.disappearsAt.add(-1);
+    this.firstRow.add(-1);
+  }
+
+  @Override
+  public void addMotion(String name, int start, int end,
+      int xPositionStart, int yPositionStart,
+      int xDimensionStart, int yDimensionStart,
+      int rStart, int gStart, int bStart,
+      int xPositionEnd, int yPositionEnd,
+      int xDimensionEnd, int yDimensionEnd,
+      int rEnd, int gEnd, int bEnd) throws NullPointerException, IllegalArgumentException,
+      IllegalStateException {
+
+    Objects.requireNonNull(name, "The shape's name cannot be null");
+    int id = this.names.idOf(name);
+    if (id < 0) {
+      throw new IllegalArgumentException("There is no shape with such name. Add it "
+          + "first.");
+    }
+    checkColor(rStart, gStart, bStart);
+    checkColor(rEnd, gEnd, bEnd);
+    if (start < 0) {
+      throw new IllegalArgumentException("The start time cannot be less than 0");
+    }
+    if (end < start) {
+      throw new IllegalArgumentException("The end time cannot be before the start time");
+    }
+
+    if (this.rows == this.columns[0].length) {
+      for (int c = 0; c < COLUMNS; c++) {
+        this.columns[c] = Arrays.copyOf(this.columns[c], this.rows * 2);
+      }
+    }
+    // the values are written straight into the columns, so adding a motion allocates nothing
+    // until the columns have to grow
+    int row = this.rows;
+    int[][] c = this.columns;
+    c[SHAPE][row] = id;
+    c[START][row] = start;
+    c[END][row] = end;
+    c[FROM][row] = xPositionStart;
+    c[FROM + 1][row] = yPositionStart;
+    c[FROM + 2][row] = xDimensionStart;
+    c[FROM + 3][row] = yDimensionStart;
+    c[FROM + 4][row] = rStart;
+    c[FROM + 5][row] = gStart;
+    c[FROM + 6][row] = bStart;
+    c[TO][row] = xPositionEnd;
+    c[TO + 1][row] = yPositionEnd;
+    c[TO + 2][row] = xDimensionEnd;
+    c[TO + 3][row] = yDimensionEnd;
+    c[TO + 4][row] = rEnd;
+    c[TO + 5][row] = gEnd;
+    c[TO + 6][row] = bEnd;
+    c[ORDER][row] = row;
+    checkCanAdd(row);
+
+    this.rows++;
+    record(row);
+    if (this.sorted && row > 0 && this.columns[START][row - 1] > start) {
+      this.sorted = false;
+    }
+  }
+
+  /*
+  Helper method that adds the given row, which must be the last one, to the timelines of its shape,
+  and extends the lifetime of the shape and the length of the animation to it.
+   */
+  private void record(int row) {
+    int id = this.columns[SHAPE][row];
+    int start = this.columns[START][row];
+    int end = this.columns[END][row];
+    int appears = this.appearsAt.get(id);
+    int disappears = this.disappearsAt.get(id);
+    IntList[] shapeTimelines = this.timelines.get(id);
+    int kinds = kindsOf(row);
+    for (int k = 0; k < KINDS.length; k++) {
+      if ((kinds & KINDS[k]) != 0) {
+        shapeTimelines[k].insert(upperBound(shapeTimelines[k], row), row);
+      }
+    }
+    if (this.firstRow.get(id) == -1 || start < this.appearsAt.get(id)) {
+      this.appearsAt.set(id, start);
+      this.firstRow.set(id, row);
+    }
+    if (this.disappearsAt.get(id) < end) {
+      this.disappearsAt.set(id, end);
+    }
+    if (this.length < end) {
+      this.length = end;
+    }
+
+    if (this.lifetimes != null
+        && (this.appearsAt.get(id) != appears || this.disappearsAt.get(id) != disappears)) {
+      // lifetimes only grow, so the outdated one is contained in the new one and only makes the
+      // shape reported twice, until there are enough outdated lifetimes to rebuild the index
+      this.lifetimes.add(this.appearsAt.get(id), this.disappearsAt.get(id), id);
+      if (this.lifetimes.size() > 2 * this.names.size()) {
+        generateLifetimes();
+      }
+    }
+  }
+
+  /*
+  Helper method that checks that the color values are within the 0-255 range.
+   */
+  private static void checkColor(int r, int g, int b) throws IllegalArgumentException {
+    if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
+      throw new IllegalArgumentException("A color value must be within 0 and 255.");
+    }
+  }
+
+  /*
+  Helper method that returns the kinds of motion the row acts as, as a combination of the MOVE,
+  SCALE, COLOR_CHANGE and FREEZE flags.
+   */
+  private int kindsOf(int row) {
+    int kinds = 0;
+    if (changes(this.columns, row, 0, 2)) {
+      kinds |= MOVE;
+    }
+    if (changes(this.columns, row, 2, 4)) {
+      kinds |= SCALE;
+    }
+    if (changes(this.columns, row, 4, 7)) {
+      kinds |= COLOR_CHANGE;
+    }
+    return kinds == 0 ? FREEZE : kinds;
+  }
+
+  /*
+  Helper method that checks if the row changes any of the properties from the first given one,
+  inclusive, to the last given one, exclusive.
+   */
+  private static boolean changes(int[][] columns, int row, int first, int last) {
+    for (int p = first; p < last; p++) {
+      if (columns[FROM + p][row] != columns[TO + p][row]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Checks if the motions of the given row can be added to the motions of its shape, in the same
+   * order and with the same messages as AnimatedShapeArrayList.
+   *
+   * @throws IllegalStateException    if another motion of the same kind exists in the sequence
+   *                                  within the given timeframe
+   * @throws IllegalStateException    if there is a FREEZE motion happening during given timeframe
+   *                                  to the shape with this name
+   */
+  private void checkCanAdd(int row) throws IllegalStateException {
+    IntList[] shapeTimelines = this.timelines.get(this.columns[SHAPE][row]);
+    IntList freezes = shapeTimelines[KINDS.length - 1];
+    int kinds = kindsOf(row);
+    for (int k = 0; k < KINDS.length; k++) {
+      if ((kinds & KINDS[k]) == 0) {
+        continue;
+      }
+      if (overlapsAny(shapeTimelines[k], row) || overlapsAny(freezes, row)) {
+        throw new IllegalStateException(
+            "There is another motion of the same kind or a freeze in progress");
+      }
+      if (KINDS[k] == FREEZE) {
+        for (IntList timeline : shapeTimelines) {
+          if (overlapsAny(timeline, row)) {
+            throw new IllegalStateException(
+                "Cannot freeze shape when there is a motion in progress");
+          }
+        }
+      }
+    }
+  }
+
+  /*
+  Helper method that checks if the row overlaps any row of the given timeline, in the same way as
+  AnimatedShapeArrayList does. The rows of a timeline do not overlap each other, so their ends are
+  sorted too, and only the first row ending after the start of the given row can overlap it, unless
+  it has the very same timeframe, which never overlaps.
+   */
+  private boolean overlapsAny(IntList timeline, int row) {
+    int[] start = this.columns[START];
+    int[] end = this.columns[END];
+    int low = 0;
+    int high = timeline.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (end[timeline.get(middle)] <= start[row]) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    int first = low;
+    if (first < timeline.size() && start[timeline.get(first)] == start[row]
+        && end[timeline.get(first)] == end[row]) {
+      first = upperBound(timeline, row);
+    }
+    return first < timeline.size() && checkTimeOverlap(timeline.get(first), row);
+  }
+
+  /*
+  Helper method that returns the index of the first row of the timeline with a later timeframe than
+  the given row, comparing by the start and then by the end.
+   */
+  private int upperBound(IntList timeline, int row) {
+    int[] start = this.columns[START];
+    int[] end = this.columns[END];
+    int low = 0;
+    int high = timeline.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int other = timeline.get(middle);
+      if (start[other] < start[row] || start[other] == start[row] && end[other] <= end[row]) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /*
+  Helper method to check if the timeframes of the rows overlap.
+   */
+  private boolean checkTimeOverlap(int other, int m) {
+    int[] start = this.columns[START];
+    int[] end = this.columns[END];
+    return start[m] < end[other] && end[other] < end[m] ||
+        start[m] < start[other] && start[other] < end[m] ||
+        start[other] < end[m] && end[m] < end[other] ||
+        start[other] < start[m] && start[m] < end[other];
+  }
+
+  /*
+  Helper method that sorts the rows by their start, keeping rows with the same start in the order of
+  their addition. The columns are replaced rather than changed in place, so the cursors created
+  before keep seeing the rows they were created with.
+   */
+  private void sortRows() {
+    if (this.sorted) {
+      return;
+    }
+    long[] keys = new long[this.rows];
+    for (int row = 0; row < this.rows; row++) {
+      keys[row] = (long) this.columns[START][row] << 32 | row;
+    }
+    Arrays.sort(keys);
+
+    int[][] sortedColumns = new int[COLUMNS][Math.max(this.rows, 16)];
+    int[] position = new int[this.rows];
+    for (int i = 0; i < this.rows; i++) {
+      int row = (int) keys[i];
+      position[row] = i;
+      for (int c = 0; c < COLUMNS; c++) {
+        sortedColumns[c][i] = this.columns[c][row];
+      }
+    }
+    this.columns = sortedColumns;
+
+    // the rows keep their order in the timelines, as they are sorted by their timeframe
+    for (IntList[] shapeTimelines : this.timelines) {
+      for (IntList timeline : shapeTimelines) {
+        for (int i = 0; i < timeline.size(); i++) {
+          timeline.set(i, position[timeline.get(i)]);
+        }
+      }
+    }
+    for (int shape = 0; shape < this.firstRow.size(); shape++) {
+      if (this.firstRow.get(shape) != -1) {
+        this.firstRow.set(shape, position[this.firstRow.get(shape)]);
+      }
+    }
+    this.sorted = true;
+  }
+
+  /*
+  Generates an interval index over the lifetimes of all the shapes that have motions, in which the
+  id of a shape is its position in the order of declaration.
+   */
+  private void generateLifetimes() {
+    int count = this.names.size();
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int[] ids = new int[count];
+    int visible = 0;
+    for (int shape = 0; shape < count; shape++) {
+      if (this.appearsAt.get(shape) <= this.disappearsAt.get(shape)) {
+        starts[visible] = this.appearsAt.get(shape);
+        ends[visible] = this.disappearsAt.get(shape);
+        ids[visible++] = shape;
+      }
+    }
+    this.lifetimes = new IntervalIndex();
+    this.lifetimes.addAll(starts, ends, ids, visible);
+  }
+
+  @Override
+  public List<Shape> getStateAt(int timestamp) {
+    Frame frame = new Frame();
+    getStateAt(timestamp, frame);
+    List<Shape> state = new ArrayList<>(frame.size());
+    for (int slot = 0; slot < frame.size(); slot++) {
+      state.add(frame.toShape(slot));
+    }
+    return state;
+  }
+
+  @Override
+  public void getStateAt(int timestamp, Frame frame) {
+    sortRows();
+    if (this.lifetimes == null) {
+      generateLifetimes();
+    }
+    int[][] columns = this.columns;
+    int shapes = this.names.size();
+
+    // the visible shapes are marked in a set of bits, which puts them in the order of their
+    // declaration and drops the repetitions of the outdated lifetimes without sorting them
+    IntList visible = frame.visible;
+    visible.clear();
+    this.lifetimes.stab(timestamp, visible);
+    int words = (shapes + 63) >>> 6;
+    if (frame.order.length < words) {
+      frame.order = new long[Math.max(words, frame.order.length * 2)];
+    }
+    long[] marks = frame.order;
+    Arrays.fill(marks, 0, words, 0);
+    for (int i = 0; i < visible.size(); i++) {
+      marks[visible.get(i) >>> 6] |= 1L << visible.get(i);
+    }
+
+    frame.clear();
+    IntList rowsInProgress = frame.inProgress;
+    for (int word = 0; word < words; word++) {
+      long bits = marks[word];
+      while (bits != 0) {
+        int shape = word << 6 | Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        int slot = frame.add(this.kinds.get(shape));
+        rowsInProgress.clear();
+        int latest = lookUp(shape, timestamp, rowsInProgress);
+        setToBase(columns, latest, this.firstRow.get(shape), frame, slot);
+        for (int i = 0; i < rowsInProgress.size(); i++) {
+          apply(columns, rowsInProgress.get(i), frame, slot, timestamp);
+        }
+      }
+    }
+  }
+
+  /*
+  Helper method that puts the rows of the given shape in progress at the given timestamp into the
+  given list, in the order they are applied in, and returns the latest row of the shape that has
+  finished by the timestamp, and of the rows finished at the same time the one added first, or -1 if
+  none has finished. The rows of a timeline do not overlap, so their ends are sorted as well as
+  their starts, and a binary search finds the rows of every one of the timelines of the shape.
+   */
+  private int lookUp(int shape, int timestamp, IntList rowsInProgress) {
+    int[] start = this.columns[START];
+    int[] end = this.columns[END];
+    int[] order = this.columns[ORDER];
+    int latest = -1;
+    for (IntList timeline : this.timelines.get(shape)) {
+      int low = 0;
+      int high = timeline.size();
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (start[timeline.get(middle)] <= timestamp) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      // going back from the last row that has started, the rows in progress come first, and the
+      // rows that finish at the timestamp are both in progress and finished
+      for (int i = low - 1; i >= 0; i--) {
+        int row = timeline.get(i);
+        if (end[row] >= timestamp) {
+          insert(rowsInProgress, row);
+        }
+        if (end[row] <= timestamp) {
+          if (latest != -1 && end[row] < end[latest]) {
+            break;
+          }
+          if (latest == -1 || end[row] > end[latest] || order[row] < order[latest]) {
+            latest = row;
+          }
+        }
+      }
+    }
+    return latest;
+  }
+
+  /*
+  Helper method that inserts the row into the given sorted list of rows unless it is there, as a
+  row that acts as more than one kind of motion is in more than one timeline.
+   */
+  private static void insert(IntList rows, int row) {
+    int i = rows.size();
+    while (i > 0 && rows.get(i - 1) > row) {
+      i--;
+    }
+    if (i > 0 && rows.get(i - 1) == row) {
+      return;
+    }
+    rows.insert(i, row);
+  }
+
+  /*
+  Helper method that sets the shape in the given slot to the form it has at the end of its latest
+  finished row, or at the start of its first row if no row has finished yet.
+   */
+  private static void setToBase(int[][] columns, int latest, int first, Frame frame, int slot) {
+    if (latest != -1) {
+      setToEnd(columns, latest, frame, slot);
+    } else {
+      frame.setPosition(slot, columns[FROM][first], columns[FROM + 1][first]);
+      frame.setDimensions(slot, columns[FROM + 2][first], columns[FROM + 3][first]);
+      frame.setColor(slot, columns[FROM + 4][first], columns[FROM + 5][first],
+          columns[FROM + 6][first]);
+    }
+  }
+
+  /*
+  Helper method that sets the shape in the given slot to the form it has at the end of the row.
+   */
+  private static void setToEnd(int[][] columns, int row, Frame frame, int slot) {
+    frame.setPosition(slot, columns[TO][row], columns[TO + 1][row]);
+    frame.setDimensions(slot, columns[TO + 2][row], columns[TO + 3][row]);
+    frame.setColor(slot, columns[TO + 4][row], columns[TO + 5][row], columns[TO + 6][row]);
+  }
+
+  /*
+  Helper method that transforms the shape in the given slot according to the motions of the row at
+  the given timestamp: sets every property the row changes to its interpolated value, or the whole
+  shape to the form it has at the end of the row if the row changes nothing.
+   */
+  private static void apply(int[][] columns, int row, Frame frame, int slot, int timestamp) {
+    int start = columns[START][row];
+    int end = columns[END][row];
+    boolean moves = changes(columns, row, 0, 2);
+    boolean scales = changes(columns, row, 2, 4);
+    boolean changesColor = changes(columns, row, 4, 7);
+    if (!moves && !scales && !changesColor) {
+      setToEnd(columns, row, frame, slot);
+      return;
+    }
+    if (moves) {
+      frame.setPosition(slot,
+          interpolate(timestamp, start, end, columns[FROM][row], columns[TO][row]),
+          interpolate(timestamp, start, end, columns[FROM + 1][row], columns[TO + 1][row]));
+    }
+    if (scales) {
+      frame.setDimensions(slot,
+          interpolate(timestamp, start, end, columns[FROM + 2][row], columns[TO + 2][row]),
+          interpolate(timestamp, start, end, columns[FROM + 3][row], columns[TO + 3][row]));
+    }
+    if (changesColor) {
+      frame.setColor(slot,
+          interpolate(timestamp, start, end, columns[FROM + 4][row], columns[TO + 4][row]),
+          interpolate(timestamp, start, end, columns[FROM + 5][row], columns[TO + 5][row]),
+          interpolate(timestamp, start, end, columns[FROM + 6][row], columns[TO + 6][row]));
+    }
+  }
+
+  /*
+  Helper method that interpolates the between two values of the given property between the start
+  time and the end time, in the same way the motions of AnimationModelImpl do.
+  */
+  private static int interpolate(int timestamp, int start, int end, int init, int fin) {
+    return Interpolation.valueAt(timestamp, start, end, init, fin,
+        Interpolation.slope(start, end, init, fin));
+  }
+
+  @Override
+  public FrameCursor cursor(int startTick) {
+    sortRows();
+    int[] appears = new int[this.names.size()];
+    int[] disappears = new int[this.names.size()];
+    int[] first = new int[this.names.size()];
+    for (int shape = 0; shape < appears.length; shape++) {
+      appears[shape] = this.appearsAt.get(shape);
+      disappears[shape] = this.disappearsAt.get(shape);
+      first[shape] = this.firstRow.get(shape);
+    }
+    return new Cursor(this.columns, this.rows, new ArrayList<>(this.kinds),
+        new ActiveShapes(appears, disappears), first, startTick);
+  }
+
+  /*
+  A cursor that sweeps through the rows in the order of their start. It keeps the rows that have
+  started and not yet finished at the previous tick, the shapes visible at it, and the latest
+  finished row of every shape.
+   */
+  private static final class Cursor implements FrameCursor {
+
+    private final int[][] columns;
+    private final int rows;
+    private final List<Shapes> kinds;
+    private final ActiveShapes active;
+    private final int[] first;
+    private final int[] latest;
+    private final int[] slots;
+    private final IntList inProgress;
+    private int nextRow;
+    private int tick;
+
+    private Cursor(int[][] columns, int rows, List<Shapes> kinds, ActiveShapes active, int[] first,
+        int startTick) {
+      this.columns = columns;
+      this.rows = rows;
+      this.kinds = kinds;
+      this.active = active;
+      this.first = first;
+      this.slots = new int[kinds.size()];
+      this.latest = new int[kinds.size()];
+      Arrays.fill(this.latest, -1);
+      this.inProgress = new IntList();
+      this.nextRow = 0;
+      this.tick = startTick;
+      enter(startTick);
+    }
+
+    /*
+    Helper method that takes in the rows starting by the given tick, updates the latest finished
+    row of the shapes whose rows finish by it, and drops the rows that have finished before it.
+     */
+    private void enter(int tick) {
+      this.active.enter(tick);
+      while (this.nextRow < this.rows && this.columns[START][this.nextRow] <= tick) {
+        this.inProgress.add(this.nextRow++);
+      }
+      finish(this.columns, this.inProgress, this.latest, tick);
+    }
+
+    @Override
+    public int getTick() {
+      return this.tick;
+    }
+
+    @Override
+    public List<Shape> getState() {
+      Frame frame = new Frame();
+      getState(frame);
+      List<Shape> state = new ArrayList<>(frame.size());
+      for (int slot = 0; slot < frame.size(); slot++) {
+        state.add(frame.toShape(slot));
+      }
+      return state;
+    }
+
+    @Override
+    public void getState(Frame frame) {
+      frame.clear();
+      for (int i = 0; i < this.active.size(); i++) {
+        int shape = this.active.get(i);
+        int slot = frame.add(this.kinds.get(shape));
+        this.slots[shape] = slot;
+        setToBase(this.columns, this.latest[shape], this.first[shape], frame, slot);
+      }
+      for (int i = 0; i < this.inProgress.size(); i++) {
+        int row = this.inProgress.get(i);
+        apply(this.columns, row, frame, this.slots[this.columns[SHAPE][row]], this.tick);
+      }
+    }
+
+    @Override
+    public void advance() {
+      this.tick++;
+      enter(this.tick);
+    }
+  }
+
+  /*
+  Helper method that updates the latest finished row of the shapes whose rows in progress finish by
+  the given tick, and drops the rows that have finished before it from the rows in progress.
+   */
+  private static void finish(int[][] columns, IntList inProgress, int[] latest, int tick) {
+    int kept = 0;
+    for (int i = 0; i < inProgress.size(); i++) {
+      int row = inProgress.get(i);
+      int end = columns[END][row];
+      if (end <= tick) {
+        int shape = columns[SHAPE][row];
+        int last = latest[shape];
+        if (last == -1 || end > columns[END][last]
+            || end == columns[END][last] && columns[ORDER][row] < columns[ORDER][last]) {
+          latest[shape] = row;
+        }
+      }
+      if (end >= tick) {
+        inProgress.set(kept++, row);
+      }
+    }
+    inProgress.truncate(kept);
+  }
+
+  /**
+   * Returns a cursor that plays this animation forward starting from the given tick while motions
+   * are still being added to it, as they are to an animation played while it is read. The cursor
+   * takes in the motions added after it was created as it moves, which only works as long as the
+   * motions are added in the order of their start, and every motion that starts by a tick is added
+   * before the cursor moves to that tick.
+   *
+   * <p>Creating the cursor and moving it read this model, so they must not happen at the same time
+   * as adding a motion. Computing a frame only reads what the cursor took in when it last moved, so
+   * it can. A shape whose motions added so far all end before the tick of the cursor is kept in
+   * the frames at its last state, as it may be resting until a motion not added yet, and the cursor
+   * is not settled until such a motion is added.
+   *
+   * @param startTick a tick to start playing from
+   * @return a cursor at the given tick
+   * @throws IllegalStateException if the motions have not been added in the order of their start
+   */
+  public GrowingFrameCursor growingCursor(int startTick) throws IllegalStateException {
+    return new GrowingCursor(startTick);
+  }
+
+  /*
+  A cursor that sweeps through the rows in the order of their start as they are added. It keeps
+  the same state as the cursor over all the rows, and copies the kinds of the shapes it has seen, so
+  a frame is computed from the state alone. A shape stays visible once it has appeared, and the
+  shapes whose motions added so far end before the tick are kept aside until a later motion comes.
+   */
+  private final class GrowingCursor implements GrowingFrameCursor {
+
+    private final List<Shapes> seenKinds;
+    private final IntList active;
+    private final IntList inProgress;
+    private final IntList unsettled;
+    private int[][] seenColumns;
+    private int[] first;
+    private int[] latest;
+    private int[] slots;
+    private int nextRow;
+    private int tick;
+
+    private GrowingCursor(int startTick) throws IllegalStateException {
+      this.seenKinds = new ArrayList<>();
+      this.active = new IntList();
+      this.inProgress = new IntList();
+      this.unsettled = new IntList();
+      this.first = new int[0];
+      this.latest = new int[0];
+      this.slots = new int[0];
+      this.nextRow = 0;
+      this.tick = startTick;
+      enter(startTick);
+    }
+
+    /*
+    Helper method that takes in the shapes declared and the rows added since the cursor last moved,
+    up to the rows starting by the given tick, and moves the sweep to that tick.
+     */
+    private void enter(int tick) throws IllegalStateException {
+      if (!sorted) {
+        throw new IllegalStateException("The motions have not been added in the order of their "
+            + "start");
+      }
+      this.seenColumns = columns;
+      int shapes = names.size();
+      if (this.seenKinds.size() < shapes) {
+        int seen = this.seenKinds.size();
+        this.seenKinds.addAll(kinds.subList(seen, shapes));
+        this.first = Arrays.copyOf(this.first, shapes);
+        this.latest = Arrays.copyOf(this.latest, shapes);
+        this.slots = Arrays.copyOf(this.slots, shapes);
+        Arrays.fill(this.first, seen, shapes, -1);
+        Arrays.fill(this.latest, seen, shapes, -1);
+      }
+
+      while (this.nextRow < rows && this.seenColumns[START][this.nextRow] <= tick) {
+        int row = this.nextRow++;
+        int shape = this.seenColumns[SHAPE][row];
+        if (this.first[shape] == -1) {
+          this.first[shape] = row;
+          insert(shape);
+        }
+        this.inProgress.add(row);
+      }
+      finish(this.seenColumns, this.inProgress, this.latest, tick);
+
+      this.unsettled.truncate(0);
+      for (int i = 0; i < this.active.size(); i++) {
+        int shape = this.active.get(i);
+        if (disappearsAt.get(shape) < tick) {
+          this.unsettled.add(shape);
+        }
+      }
+    }
+
+    /*
+    Helper method that inserts the shape into the visible shapes, keeping them in the order of
+    declaration.
+     */
+    private void insert(int shape) {
+      this.active.add(shape);
+      int i = this.active.size() - 1;
+      while (i > 0 && this.active.get(i - 1) > shape) {
+        this.active.set(i, this.active.get(i - 1));
+        i--;
+      }
+      this.active.set(i, shape);
+    }
+
+    @Override
+    public int getTick() {
+      return this.tick;
+    }
+
+    /**
+     * Returns whether the frame at the tick of this cursor is the frame of the whole animation.
+     * Like moving the cursor, this reads the model, so it must not happen at the same time as
+     * adding a motion.
+     *
+     * @return true if no motion still to be added can change the frame at the current tick
+     */
+    @Override
+    public boolean isSettled() {
+      int kept = 0;
+      for (int i = 0; i < this.unsettled.size(); i++) {
+        int shape = this.unsettled.get(i);
+        if (disappearsAt.get(shape) < this.tick) {
+          this.unsettled.set(kept++, shape);
+        }
+      }
+      this.unsettled.truncate(kept);
+      return kept == 0;
+    }
+
+    @Override
+    public List<Shape> getState() {
+      Frame frame = new Frame();
+      getState(frame);
+      List<Shape> state = new ArrayList<>(frame.size());
+      for (int slot = 0; slot < frame.size(); slot++) {
+        state.add(frame.toShape(slot));
+      }
+      return state;
+    }
+
+    @Override
+    public void getState(Frame frame) {
+      frame.clear();
+      for (int i = 0; i < this.active.size(); i++) {
+        int shape = this.active.get(i);
+        int slot = frame.add(this.seenKinds.get(shape));
+        this.slots[shape] = slot;
+        setToBase(this.seenColumns, this.latest[shape], this.first[shape], frame, slot);
+      }
+      for (int i = 0; i < this.inProgress.size(); i++) {
+        int row = this.inProgress.get(i);
+        apply(this.seenColumns, row, frame, this.slots[this.seenColumns[SHAPE][row]], this.tick);
+      }
+    }
+
+    /**
+     * Moves this cursor to the next tick, taking in what was added to the model since it last
+     * moved.
+     *
+     * @throws IllegalStateException if a motion has been added out of the order of their start
+     */
+    @Override
+    public void advance() throws IllegalStateException {
+      this.tick++;
+      enter(this.tick);
+    }
+  }
+
+  @Override
+  public void accept(AnimationVisitor visitor) {
+    sortRows();
+    int shapes = this.names.size();
+    // the rows are sorted by their start and order, which a counting sort by shape keeps
+    int[] offsets = new int[shapes + 1];
+    for (int row = 0; row < this.rows; row++) {
+      offsets[this.columns[SHAPE][row] + 1]++;
+    }
+    for (int shape = 0; shape < shapes; shape++) {
+      offsets[shape + 1] += offsets[shape];
+    }
+    int[] byShape = new int[this.rows];
+    int[] next = Arrays.copyOf(offsets, shapes);
+    for (int row = 0; row < this.rows; row++) {
+      byShape[next[this.columns[SHAPE][row]]++] = row;
+    }
+    int[][] c = this.columns;
+    for (int shape = 0; shape < shapes; shape++) {
+      visitor.visitShape(this.names.nameOf(shape), this.kinds.get(shape));
+      for (int i = offsets[shape]; i < offsets[shape + 1]; i++) {
+        int row = byShape[i];
+        visitor.visitMotion(c[START][row], c[END][row],
+            c[FROM][row], c[FROM + 1][row], c[FROM + 2][row], c[FROM + 3][row],
+            c[FROM + 4][row], c[FROM + 5][row], c[FROM + 6][row],
+            c[TO][row], c[TO + 1][row], c[TO + 2][row], c[TO + 3][row],
+            c[TO + 4][row], c[TO + 5][row], c[TO + 6][row]);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of motions stored in this model, i.e. the number of successful calls of
+   * {@link #addMotion}.
+   *
+   * @return the number of motions stored in this model
+   */
+  public int getMotionCount() {
+    return this.rows;
+  }
+
+  /**
+   * Returns a copy of the motions of this model, in the order of their addition, as {@link #VALUES}
+   * columns of the given number of rows, in the order the values are passed to {@link #addMotion},
+   * except that the id of the shape comes first. Shapes are identified by the order of their
+   * declaration.
+   *
+   * @return the columns of the motions
+   */
+  int[][] exportColumns() {
+    int[][] exported = new int[VALUES][this.rows];
+    for (int row = 0; row < this.rows; row++) {
+      int order = this.columns[ORDER][row];
+      for (int c = 0; c < VALUES; c++) {
+        exported[c][order] = this.columns[c][row];
+      }
+    }
+    return exported;
+  }
+
+  /**
+   * Returns the names of the shapes of this model, in the order of their declaration.
+   *
+   * @return the names of the shapes
+   */
+  List<String> getNames() {
+    return this.names.names();
+  }
+
+  /**
+   * Returns the kinds of the shapes of this model, in the order of their declaration.
+   *
+   * @return the kinds of the shapes
+   */
+  List<Shapes> getKinds() {
+    return new ArrayList<>(this.kinds);
+  }
+
+  /**
+   * Creates a model from shapes and motions that are known to be valid, such as the ones of a model
+   * that was saved before, without checking them again. The motions are given as by {@link
+   * #exportColumns}, and the columns are taken over by the model.
+   *
+   * @param canvas  the canvas of the animation, or null if it has none
+   * @param names   the names of the shapes, in the order of their declaration
+   * @param kinds   the kinds of the shapes, in the order of their declaration
+   * @param columns the columns of the motions, in the order of their addition
+   * @param rows    the number of motions
+   * @return a model of the given animation
+   */
+  static AnimationModelColumnar importColumns(Canvas canvas, List<String> names,
+      List<Shapes> kinds, int[][] columns, int rows) {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.canvas = canvas;
+    for (int shape = 0; shape < names.size(); shape++) {
+      model.addShape(names.get(shape), kinds.get(shape));
+    }
+    model.columns = new int[COLUMNS][];
+    for (int c = 0; c < VALUES; c++) {
+      model.columns[c] = columns[c].length < 16 ? Arrays.copyOf(columns[c], 16) : columns[c];
+    }
+    model.columns[ORDER] = new int[model.columns[0].length];
+    int[] starts = model.columns[START];
+    for (int row = 0; row < rows; row++) {
+      model.columns[ORDER][row] = row;
+      model.rows = row + 1;
+      model.record(row);
+      if (model.sorted && row > 0 && starts[row - 1] > starts[row]) {
+        model.sorted = false;
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Returns an object model of this animation, with {@link model.motion.Motion} objects for all
+   * the motions of this model. The objects are only created by this method, so a model filled
+   * straight from a file holds nothing but the columns until they are asked for.
+   *
+   * @return a new object model of the same animation
+   */
+  public AnimationModel toObjectModel() {
+    AnimationModel objects = new AnimationModelImpl();
+    if (this.canvas != null) {
+      objects.setCanvas(this.canvas.getX(), this.canvas.getY(), this.canvas.getWidth(),
+          this.canvas.getHeight());
+    }
+    for (int shape = 0; shape < this.names.size(); shape++) {
+      objects.addShape(this.names.nameOf(shape), this.kinds.get(shape));
+    }
+    int[] byOrder = new int[this.rows];
+    for (int row = 0; row < this.rows; row++) {
+      byOrder[this.columns[ORDER][row]] = row;
+    }
+    for (int row : byOrder) {
+      int[] v = new int[COLUMNS];
+      for (int c = 0; c < COLUMNS; c++) {
+        v[c] = this.columns[c][row];
+      }
+      objects.addMotion(this.names.nameOf(v[SHAPE]), v[START], v[END],
+          v[FROM], v[FROM + 1], v[FROM + 2], v[FROM + 3], v[FROM + 4], v[FROM + 5], v[FROM + 6],
+          v[TO], v[TO + 1], v[TO + 2], v[TO + 3], v[TO + 4], v[TO + 5], v[TO + 6]);
+    }
+    return objects;
+  }
+
+  @Override
+  public String toString() {
+    // the description is produced by the object model, so both describe an animation alike
+    return toObjectModel().toString();
+  }
+}
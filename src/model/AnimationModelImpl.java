@@ -1,10 +1,9 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import model.motion.Motion;
@@ -20,8 +19,13 @@ import model.shape.properties.Position;
  */
 public final class AnimationModelImpl implements AnimationModel, AnimationModelView {
 
-  private final Map<String, AnimatedShape> scene;
-  private List<Motion> completeSequence;
+  private final SymbolTable names;
+  private final List<AnimatedShape> shapes;
+  private final List<Motion> indexedMotions;
+  // the number of the shape of every indexed motion
+  private final IntList indexedShapes;
+  private IntervalIndex index;
+  private IntervalIndex lifetimes;
   private Canvas canvas;
   private int length;
 
@@ -29,8 +33,12 @@ public final class AnimationModelImpl implements AnimationModel, AnimationModelV
    * Initiates a model of the animation.
    */
   public AnimationModelImpl() {
-    this.scene = new HashMap<>();
-    this.completeSequence = null;
+    this.names = new SymbolTable();
+    this.shapes = new ArrayList<>();
+    this.indexedMotions = new ArrayList<>();
+    this.indexedShapes = new IntList();
+    this.index = null;
+    this.lifetimes = null;
     this.canvas = null;
   }
 
@@ -57,10 +65,9 @@ public final class AnimationModelImpl implements AnimationModel, AnimationModelV
   @Override
   public void addShape(String name, Shapes kind)
       throws IllegalArgumentException, NullPointerException {
-    if (this.scene.containsKey(name)) {
-      throw new IllegalArgumentException("A shape with this name already exists. Can't add twice.");
-    }
-    this.scene.put(name, new AnimatedShapeArrayList(name, kind));
+    AnimatedShape shape = new AnimatedShapeArrayList(name, kind);
+    this.names.add(name);
+    this.shapes.add(shape);
   }
 
   @Override
@@ -74,15 +81,18 @@ public final class AnimationModelImpl implements AnimationModel, AnimationModelV
       IllegalStateException {
 
     Objects.requireNonNull(name, "The shape's name cannot be null");
-    if (!this.scene.containsKey(name)) {
+    int id = this.names.idOf(name);
+    if (id < 0) {
       throw new IllegalArgumentException("There is no shape with such name. Add it "
           + "first.");
     }
 
-    AnimatedShape shape = this.scene.get(name);
+    AnimatedShape shape = this.shapes.get(id);
 
     Shapes kind = shape.getKind();
-    shape.addMotion(start, end,
+    int appearsAt = shape.getAppearsAt();
+    int disappearsAt = shape.getDisappearsAt();
+    List<Motion> added = shape.addMotion(start, end,
         ShapeFactory.make(kind,
             new Position(xPositionStart, yPositionStart),
             new Dimensions(xDimensionStart, yDimensionStart),
@@ -97,33 +107,109 @@ public final class AnimationModelImpl implements AnimationModel, AnimationModelV
       this.length = end;
     }
 
-    if (this.completeSequence != null) {
-      this.completeSequence = generateSequence();
+    if (this.index != null) {
+      for (Motion m : added) {
+        this.index.add(m.getStart(), m.getEnd(), this.indexedMotions.size());
+        this.indexedMotions.add(m);
+        this.indexedShapes.add(id);
+      }
+      if (shape.getAppearsAt() != appearsAt || shape.getDisappearsAt() != disappearsAt) {
+        // lifetimes only grow, so the outdated one is contained in the new one and only makes the
+        // shape reported twice, until there are enough outdated lifetimes to rebuild the index
+        this.lifetimes.add(shape.getAppearsAt(), shape.getDisappearsAt(), id);
+        if (this.lifetimes.size() > 2 * this.shapes.size()) {
+          generateLifetimes();
+        }
+      }
     }
   }
 
   /*
   Generates a complete sequence of all motions of all shapes in order in anticipation of further
-  calls of the .getStateAt() method.
+  calls of the .getStateAt() method, and puts the number of the shape of every motion into the given
+  list, in the same order. Motions that start at the same time are in the order the names of their
+  shapes are hashed in, which keeps the outputs as they have always been, and the motions of one
+  shape in the order they were added in.
+  */
+  private List<Motion> generateSequence(IntList shapeIds) {
+    List<Motion> sequence = new ArrayList<>();
+    IntList owners = new IntList();
+    for (int id : this.names.hashOrder()) {
+      for (Motion m : this.shapes.get(id).getSequence()) {
+        sequence.add(m);
+        owners.add(id);
+      }
+    }
+    // sorting by the start and then the position keeps the motions of a shape in their order
+    long[] order = new long[sequence.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = (long) sequence.get(i).getStart() << 32 | i;
+    }
+    Arrays.sort(order);
+    List<Motion> sorted = new ArrayList<>(order.length);
+    for (long key : order) {
+      sorted.add(sequence.get((int) key));
+      shapeIds.add(owners.get((int) key));
+    }
+    return sorted;
+  }
+
+  /*
+  Generates an interval index over the timeframes of all the motions in anticipation of further
+  calls of the .getStateAt() method, which then only visits the motions in progress. Motions added
+  afterwards are inserted into the index as they come. The id of an indexed motion is its position
+  in the list of indexed motions.
   */
-  private List<Motion> generateSequence() {
-    return this.scene.values().stream().
-        flatMap(ani -> ani.getSequence().stream()).
-        sorted(Comparator.comparingInt(Motion::getStart)).
-        collect(
-            Collectors.toList());
+  private void generateIndex() {
+    this.indexedMotions.addAll(generateSequence(this.indexedShapes));
+    int count = this.indexedMotions.size();
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int[] ids = new int[count];
+    for (int i = 0; i < count; i++) {
+      Motion m = this.indexedMotions.get(i);
+      starts[i] = m.getStart();
+      ends[i] = m.getEnd();
+      ids[i] = i;
+    }
+    this.index = new IntervalIndex();
+    this.index.addAll(starts, ends, ids, count);
+    generateLifetimes();
+  }
+
+  /*
+  Generates an interval index over the lifetimes of all the shapes that have motions, in which the
+  id of a shape is its position in the order of declaration. The .getStateAt() method then only
+  visits the shapes that are visible.
+  */
+  private void generateLifetimes() {
+    int count = this.shapes.size();
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int[] ids = new int[count];
+    int visible = 0;
+    for (int i = 0; i < count; i++) {
+      AnimatedShape shape = this.shapes.get(i);
+      if (shape.getAppearsAt() <= shape.getDisappearsAt()) {
+        starts[visible] = shape.getAppearsAt();
+        ends[visible] = shape.getDisappearsAt();
+        ids[visible++] = i;
+      }
+    }
+    this.lifetimes = new IntervalIndex();
+    this.lifetimes.addAll(starts, ends, ids, visible);
   }
 
   @Override
   public String toString() {
 
-    List<Motion> sequence = generateSequence();
+    List<Motion> sequence = generateSequence(new IntList());
 
     return
         "Shapes:\n" +
-            this.scene.entrySet().stream()
-                .sorted((a, b) -> a.getKey().compareToIgnoreCase(b.getKey()))
-                .map(entry -> entry.getValue().toString())
+            this.shapes.stream()
+                .sorted((a, b) -> a.getName().compareToIgnoreCase(b.getName()))
+                .map(AnimatedShape::toString)
                 .collect(
                     Collectors.joining("\n\n")) +
             (sequence.isEmpty() ? "" : "\n\n" + sequence.stream().map(Motion::toString).
@@ -134,34 +220,190 @@ public final class AnimationModelImpl implements AnimationModel, AnimationModelV
   @Override
   public List<Shape> getStateAt(int timestamp) {
 
-    if (this.completeSequence == null) {
-      this.completeSequence = generateSequence();
+    if (this.index == null) {
+      generateIndex();
     }
 
-    List<Motion> filteredSequence =
-        this.completeSequence.stream()
-            .filter(m -> m.getStart() <= timestamp && timestamp <= m.getEnd())
-            .collect(Collectors.toList());
+    IntList visible = new IntList();
+    sortVisible(timestamp, visible, new long[0]);
+    Shape[] latestShapes = new Shape[this.shapes.size()];
+    for (int i = 0; i < visible.size(); i++) {
+      AnimatedShape ani = this.shapes.get(visible.get(i));
+      Motion finished = ani.getLastFinishedMotion(timestamp);
+      latestShapes[visible.get(i)] = finished != null ? finished.getEndShape() : ani;
+    }
 
-    Map<AnimatedShape, Shape> latestShapes = new HashMap<>();
-    this.scene.values().forEach(ani -> latestShapes.put(ani,
-        ani.getSequence().stream().anyMatch(m -> m.getEnd() <= timestamp) ?
-            (ani.getSequence().stream()
-                .filter(m -> m.getEnd() <= timestamp).
-                max(Comparator.comparingInt(Motion::getEnd)).get().getEndShape()) :
-            ShapeFactory.make(ani.getKind(),
-                new Position(0, 0),
-                new Dimensions(0, 0),
-                new Color(0, 0, 0))
-    ));
+    IntList active = new IntList();
+    long[] order = sortInProgress(timestamp, active, new long[0]);
+    for (int i = 0; i < active.size(); i++) {
+      Motion m = this.indexedMotions.get((int) order[i]);
+      int shape = this.indexedShapes.get((int) order[i]);
+      latestShapes[shape] = m.transform(latestShapes[shape], timestamp);
+    }
 
-    filteredSequence.forEach(m -> {
-      Shape intermediate = latestShapes.get(m.getShape());
-      latestShapes.put(m.getShape(), m.transform(intermediate, timestamp));
-    });
+    List<Shape> state = new ArrayList<>(visible.size());
+    for (int i = 0; i < visible.size(); i++) {
+      state.add(latestShapes[visible.get(i)]);
+    }
+    return state;
+  }
+
+  @Override
+  public void getStateAt(int timestamp, Frame frame) {
 
-    return new ArrayList<>(latestShapes.values());
+    if (this.index == null) {
+      generateIndex();
+    }
+
+    frame.clear();
+    frame.order = sortVisible(timestamp, frame.visible, frame.order);
+    if (frame.slots.length < this.shapes.size()) {
+      frame.slots = new int[Math.max(this.shapes.size(), frame.slots.length * 2)];
+    }
+    for (int i = 0; i < frame.visible.size(); i++) {
+      int shape = frame.visible.get(i);
+      AnimatedShape ani = this.shapes.get(shape);
+      int slot = frame.add(ani.getKind());
+      frame.slots[shape] = slot;
+      Motion finished = ani.getLastFinishedMotion(timestamp);
+      frame.set(slot, finished != null ? finished.getEndShape() : ani);
+    }
+
+    frame.order = sortInProgress(timestamp, frame.inProgress, frame.order);
+    for (int i = 0; i < frame.inProgress.size(); i++) {
+      int id = (int) frame.order[i];
+      this.indexedMotions.get(id).transform(frame, frame.slots[this.indexedShapes.get(id)],
+          timestamp);
+    }
   }
 
+  /*
+  Helper method that puts the positions of the shapes visible at the given timestamp into the given
+  list, in the order of their declaration and without repetitions, using the given buffer to sort
+  them. Returns the buffer, which is replaced by a larger one if it is too small.
+   */
+  private long[] sortVisible(int timestamp, IntList shapes, long[] order) {
+    shapes.clear();
+    this.lifetimes.stab(timestamp, shapes);
+    if (order.length < shapes.size()) {
+      order = new long[Math.max(shapes.size(), order.length * 2)];
+    }
+    for (int i = 0; i < shapes.size(); i++) {
+      order[i] = shapes.get(i);
+    }
+    heapSort(order, shapes.size());
+    int count = shapes.size();
+    shapes.clear();
+    for (int i = 0; i < count; i++) {
+      if (i == 0 || order[i] != order[i - 1]) {
+        shapes.add((int) order[i]);
+      }
+    }
+    return order;
+  }
+
+  /*
+  Helper method that puts the ids of the motions in progress at the given timestamp into the given
+  list, and their keys into the given buffer, sorted in the order the motions are applied in: by
+  their start, and then in the order of their addition. The id of a motion is the lower half of its
+  key. Returns the buffer, which is replaced by a larger one if it is too small.
+   */
+  private long[] sortInProgress(int timestamp, IntList ids, long[] order) {
+    ids.clear();
+    this.index.stab(timestamp, ids);
+    if (order.length < ids.size()) {
+      order = new long[Math.max(ids.size(), order.length * 2)];
+    }
+    for (int i = 0; i < ids.size(); i++) {
+      int id = ids.get(i);
+      order[i] = (long) this.indexedMotions.get(id).getStart() << 32 | id;
+    }
+    heapSort(order, ids.size());
+    return order;
+  }
+
+  /*
+  Helper method that sorts the first given number of keys in place. Unlike Arrays.sort, never
+  allocates a buffer, which keeps the frame path free of allocations.
+   */
+  private static void heapSort(long[] keys, int count) {
+    for (int i = count / 2 - 1; i >= 0; i--) {
+      siftDown(keys, i, count);
+    }
+    for (int end = count - 1; end > 0; end--) {
+      long max = keys[0];
+      keys[0] = keys[end];
+      keys[end] = max;
+      siftDown(keys, 0, end);
+    }
+  }
+
+  /*
+  Helper method that moves the key at the given position down the heap formed by the first given
+  number of keys, until it is not smaller than any of its children.
+   */
+  private static void siftDown(long[] keys, int position, int count) {
+    long key = keys[position];
+    int child = 2 * position + 1;
+    while (child < count) {
+      if (child + 1 < count && keys[child + 1] > keys[child]) {
+        child++;
+      }
+      if (key >= keys[child]) {
+        break;
+      }
+      keys[position] = keys[child];
+      position = child;
+      child = 2 * position + 1;
+    }
+    keys[position] = key;
+  }
+
+  @Override
+  public void accept(AnimationVisitor visitor) {
+    for (AnimatedShape shape : this.shapes) {
+      visitor.visitShape(shape.getName(), shape.getKind());
+      List<Motion> sequence = shape.getSequence();
+      sequence.sort(Comparator.comparingInt(Motion::getStart));
+      for (int i = 0; i < sequence.size(); i++) {
+        Motion m = sequence.get(i);
+        // the motions made of one motion that was added share its forms, and follow one another
+        if (i > 0 && sequence.get(i - 1).getStartShape() == m.getStartShape()
+            && sequence.get(i - 1).getEndShape() == m.getEndShape()) {
+          continue;
+        }
+        Shape from = m.getStartShape();
+        Shape to = m.getEndShape();
+        visitor.visitMotion(m.getStart(), m.getEnd(),
+            from.getPosition().getX(), from.getPosition().getY(),
+            from.getDimensions().getX(), from.getDimensions().getY(),
+            from.getColor().getR(), from.getColor().getG(), from.getColor().getB(),
+            to.getPosition().getX(), to.getPosition().getY(),
+            to.getDimensions().getX(), to.getDimensions().getY(),
+            to.getColor().getR(), to.getColor().getG(), to.getColor().getB());
+      }
+    }
+  }
 
+  @Override
+  public FrameCursor cursor(int startTick) {
+
+    if (this.index == null) {
+      generateIndex();
+    }
+
+    long[] order = new long[this.indexedMotions.size()];
+    for (int id = 0; id < order.length; id++) {
+      order[id] = (long) this.indexedMotions.get(id).getStart() << 32 | id;
+    }
+    Arrays.sort(order);
+    List<Motion> byStart = new ArrayList<>(order.length);
+    int[] shapeOf = new int[order.length];
+    for (int i = 0; i < order.length; i++) {
+      byStart.add(this.indexedMotions.get((int) order[i]));
+      shapeOf[i] = this.indexedShapes.get((int) order[i]);
+    }
+
+    return new SweepingFrameCursor(new ArrayList<>(this.shapes), byStart, shapeOf, startTick);
+  }
 }
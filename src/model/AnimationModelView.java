@@ -32,6 +32,36 @@ public interface AnimationModelView {
    */
   List<Shape> getStateAt(int timestamp);
 
+  /**
+   * Computes the state of the animation at the given timestamp and writes all the shapes present in
+   * the frame at the given timestamp into the given {@link Frame}, replacing its contents. Does not
+   * allocate any objects once the frame has grown to the number of shapes in the animation, so the
+   * same frame can be reused for every timestamp.
+   *
+   * @param timestamp a time to compute the state at
+   * @param frame     a frame to write the state into
+   */
+  void getStateAt(int timestamp, Frame frame);
+
+  /**
+   * Returns a cursor that plays this animation forward starting from the given tick. The cursor
+   * shows the animation as it is when the cursor is created.
+   *
+   * @param startTick a tick to start playing from
+   * @return a cursor at the given tick
+   */
+  FrameCursor cursor(int startTick);
+
+  /**
+   * Passes the shapes of this animation to the given visitor in the order of their declaration,
+   * each followed by all its motions in the order of their start, and the motions that start at the
+   * same time in the order of their addition. A motion is visited as it was added, with all the
+   * properties it changes.
+   *
+   * @param visitor a visitor to pass the shapes and the motions to
+   */
+  void accept(AnimationVisitor visitor);
+
 }
 
 
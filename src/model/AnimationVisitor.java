@@ -0,0 +1,49 @@
+package model;
+
+import model.shape.Shapes;
+
+/**
+ * Receives the shapes and the motions of an animation one at a time, as the animation passes them
+ * on with {@link AnimationModelView#accept}, so an animation can be written out without being
+ * copied anywhere first.
+ */
+public interface AnimationVisitor {
+
+  /**
+   * Visits a shape of the animation. The motions visited after it, up to the next shape, are the
+   * motions of this shape.
+   *
+   * @param name the name of the shape
+   * @param kind the kind of the shape
+   */
+  void visitShape(String name, Shapes kind);
+
+  /**
+   * Visits a motion of the shape visited last, with the properties of the shape at its start and at
+   * its end.
+   *
+   * @param start           the start time of the motion
+   * @param end             the end time of the motion
+   * @param xPositionStart  the x coordinate of the shape at the start of the motion
+   * @param yPositionStart  the y coordinate of the shape at the start of the motion
+   * @param xDimensionStart the width of the shape at the start of the motion
+   * @param yDimensionStart the height of the shape at the start of the motion
+   * @param rStart          the red value of the color of the shape at the start of the motion
+   * @param gStart          the green value of the color of the shape at the start of the motion
+   * @param bStart          the blue value of the color of the shape at the start of the motion
+   * @param xPositionEnd    the x coordinate of the shape at the end of the motion
+   * @param yPositionEnd    the y coordinate of the shape at the end of the motion
+   * @param xDimensionEnd   the width of the shape at the end of the motion
+   * @param yDimensionEnd   the height of the shape at the end of the motion
+   * @param rEnd            the red value of the color of the shape at the end of the motion
+   * @param gEnd            the green value of the color of the shape at the end of the motion
+   * @param bEnd            the blue value of the color of the shape at the end of the motion
+   */
+  void visitMotion(int start, int end,
+      int xPositionStart, int yPositionStart,
+      int xDimensionStart, int yDimensionStart,
+      int rStart, int gStart, int bStart,
+      int xPositionEnd, int yPositionEnd,
+      int xDimensionEnd, int yDimensionEnd,
+      int rEnd, int gEnd, int bEnd);
+}
@@ -0,0 +1,243 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import model.shape.Shape;
+import model.shape.Shapes;
+
+/**
+ * Represents an animation model that remembers the most recently computed frames of another model,
+ * so repeated queries for the same timestamps, such as when scrubbing back and forth, do not
+ * rebuild the frame every time. The cache is bounded either by a number of frames or by an
+ * estimated number of bytes, and the least recently used frames are evicted first. Adding a shape
+ * or a motion empties the cache.
+ *
+ * <p>The cache takes over the model it wraps: once wrapped, the model must only be changed through
+ * the cache. A shape or a motion added to the model directly does not empty the cache, so the
+ * frames remembered before it would still be returned.
+ */
+public final class CachingAnimationModel implements AnimationModel, AnimationModelView {
+
+  // rough size of a cached frame: the list and its map entry, plus a shape with its properties
+  private static final long FRAME_BYTES = 96;
+  private static final long SHAPE_BYTES = 112;
+
+  private final AnimationModel model;
+  private final AnimationModelView view;
+  private final LinkedHashMap<Integer, List<Shape>> frames;
+  private final boolean countsBytes;
+  private final long capacity;
+  private long used;
+  private long hits;
+  private long misses;
+
+  /*
+  Instantiates a cache around the given model, holding at most the given number of frames, or of
+  estimated bytes if countsBytes is true.
+   */
+  private <M extends AnimationModel & AnimationModelView> CachingAnimationModel(M model,
+      long capacity, boolean countsBytes) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(model, "The model to cache cannot be null");
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity of the cache must be positive");
+    }
+    this.model = model;
+    this.view = model;
+    this.frames = new LinkedHashMap<>(16, 0.75f, true);
+    this.countsBytes = countsBytes;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns a cache around the given model that holds at most the given number of frames. The model
+   * must not be changed directly from then on, only through the cache.
+   *
+   * @param model  a model to cache the frames of
+   * @param frames the maximum number of frames to remember
+   * @param <M>    the type of the model
+   * @return a caching model
+   * @throws NullPointerException     if the model is null
+   * @throws IllegalArgumentException if the number of frames is not positive
+   */
+  public static <M extends AnimationModel & AnimationModelView> CachingAnimationModel ofFrames(
+      M model, int frames) throws NullPointerException, IllegalArgumentException {
+    return new CachingAnimationModel(model, frames, false);
+  }
+
+  /**
+   * Returns a cache around the given model that holds frames up to the given estimated number of
+   * bytes. A frame that is larger than the whole cache is not remembered. The model must not be
+   * changed directly from then on, only through the cache.
+   *
+   * @param model a model to cache the frames of
+   * @param bytes the maximum estimated size of the remembered frames, in bytes
+   * @param <M>   the type of the model
+   * @return a caching model
+   * @throws NullPointerException     if the model is null
+   * @throws IllegalArgumentException if the number of bytes is not positive
+   */
+  public static <M extends AnimationModel & AnimationModelView> CachingAnimationModel ofBytes(
+      M model, long bytes) throws NullPointerException, IllegalArgumentException {
+    return new CachingAnimationModel(model, bytes, true);
+  }
+
+  @Override
+  public void setCanvas(int x, int y, int width, int height) {
+    this.model.setCanvas(x, y, width, height);
+  }
+
+  @Override
+  public void addMotion(String name, int start, int end,
+      int xPositionStart, int yPositionStart,
+      int xDimensionStart, int yDimensionStart,
+      int rStart, int gStart, int bStart,
+      int xPositionEnd, int yPositionEnd,
+      int xDimensionEnd, int yDimensionEnd,
+      int rEnd, int gEnd, int bEnd) throws NullPointerException, IllegalArgumentException,
+      IllegalStateException {
+    this.model.addMotion(name, start, end,
+        xPositionStart, yPositionStart, xDimensionStart, yDimensionStart, rStart, gStart, bStart,
+        xPositionEnd, yPositionEnd, xDimensionEnd, yDimensionEnd, rEnd, gEnd, bEnd);
+    invalidate();
+  }
+
+  @Override
+  public void addShape(String name, Shapes kind)
+      throws IllegalArgumentException, NullPointerException {
+    this.model.addShape(name, kind);
+    invalidate();
+  }
+
+  @Override
+  public int getLength() {
+    return this.view.getLength();
+  }
+
+  @Override
+  public Canvas getCanvas() {
+    return this.view.getCanvas();
+  }
+
+  /**
+   * Returns the state of the animation at the given timestamp, from the cache if the frame was
+   * computed recently. The returned list is a copy and can be modified by the caller.
+   *
+   * @param timestamp a timestamp to get the state at
+   * @return the list of shapes at the given timestamp
+   */
+  @Override
+  public List<Shape> getStateAt(int timestamp) {
+    List<Shape> state = this.frames.get(timestamp);
+    if (state != null) {
+      this.hits++;
+      return new ArrayList<>(state);
+    }
+    this.misses++;
+    state = this.view.getStateAt(timestamp);
+    remember(timestamp, new ArrayList<>(state));
+    return state;
+  }
+
+  /**
+   * Writes the state of the animation at the given timestamp into the given frame. Served from the
+   * cache if the frame was computed recently, otherwise computed by the cached model without
+   * remembering it, since this path is meant not to allocate.
+   *
+   * @param timestamp a timestamp to get the state at
+   * @param frame     a frame to write the state into
+   */
+  @Override
+  public void getStateAt(int timestamp, Frame frame) {
+    List<Shape> state = this.frames.get(timestamp);
+    if (state == null) {
+      this.misses++;
+      this.view.getStateAt(timestamp, frame);
+      return;
+    }
+    this.hits++;
+    frame.clear();
+    for (int i = 0; i < state.size(); i++) {
+      Shape shape = state.get(i);
+      frame.set(frame.add(shape.getKind()), shape);
+    }
+  }
+
+  @Override
+  public FrameCursor cursor(int startTick) {
+    return this.view.cursor(startTick);
+  }
+
+  @Override
+  public void accept(AnimationVisitor visitor) {
+    this.view.accept(visitor);
+  }
+
+  /**
+   * Returns the number of queries that were answered from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of queries that had to be computed by the cached model.
+   *
+   * @return the number of cache misses
+   */
+  public long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Returns the number of frames currently remembered.
+   *
+   * @return the number of cached frames
+   */
+  public int size() {
+    return this.frames.size();
+  }
+
+  /**
+   * Forgets all the remembered frames. The hit and miss counters are kept.
+   */
+  public void invalidate() {
+    this.frames.clear();
+    this.used = 0;
+  }
+
+  /*
+  Helper method that adds the given frame to the cache and evicts the least recently used frames
+  until the cache is within its capacity again.
+   */
+  private void remember(int timestamp, List<Shape> state) {
+    long weight = weigh(state);
+    if (weight > this.capacity) {
+      return;
+    }
+    this.frames.put(timestamp, state);
+    this.used += weight;
+    Iterator<Map.Entry<Integer, List<Shape>>> eldest = this.frames.entrySet().iterator();
+    while (this.used > this.capacity) {
+      this.used -= weigh(eldest.next().getValue());
+      eldest.remove();
+    }
+  }
+
+  /*
+  Helper method that returns how much of the capacity the given frame takes.
+   */
+  private long weigh(List<Shape> state) {
+    return this.countsBytes ? FRAME_BYTES + SHAPE_BYTES * state.size() : 1;
+  }
+
+  @Override
+  public String toString() {
+    return this.model.toString();
+  }
+}
@@ -0,0 +1,336 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import model.shape.Shapes;
+
+/**
+ * Saves animations in a compact binary form and loads them back, so an animation is read and
+ * checked as text only once. A loaded animation is not checked again: its motions are taken over
+ * by an {@link AnimationModelColumnar} as they were saved.
+ *
+ * <p>A compiled animation starts with the bytes {@code EANM} and a version byte, followed by a
+ * flag telling whether the animation has a canvas and, if it has one, its x, y, width and height.
+ * Then come the number of shapes, and the name and kind of every shape, in the order of their
+ * declaration. The rest holds the number of motions and their values column by column, in the order
+ * of their addition: the ids of the shapes, the start times, each as the difference from the
+ * previous one, the durations, the seven properties at the start, and the seven properties at the
+ * end, each as the difference from the same property at the start. All the integers are written as
+ * variable-length quantities of seven bits per byte, the signed ones zigzag-encoded first, so the
+ * small differences most motions have take a single byte.
+ */
+public final class CompiledAnimation {
+
+  private static final byte[] MAGIC = {'E', 'A', 'N', 'M'};
+  private static final int VERSION = 1;
+  private static final int PROPERTIES = 7;
+  private static final int SHAPE = 0;
+  private static final int START = 1;
+  private static final int END = 2;
+  private static final int FROM = 3;
+  private static final int TO = FROM + PROPERTIES;
+
+  private CompiledAnimation() {
+  }
+
+  /**
+   * Writes the given animation in the compiled form to the given stream, which is left open.
+   *
+   * @param model the animation to write
+   * @param out   the stream to write to
+   * @throws IOException          if the stream cannot be written
+   * @throws NullPointerException if the model or the stream is null
+   */
+  public static void write(AnimationModelColumnar model, OutputStream out) throws IOException {
+    Objects.requireNonNull(model, "The animation to compile cannot be null");
+    Objects.requireNonNull(out, "The stream to compile to cannot be null");
+    Writer writer = new Writer(new BufferedOutputStream(out, 1 << 16));
+    writer.out.write(MAGIC);
+    writer.out.write(VERSION);
+
+    Canvas canvas = model.getCanvas();
+    writer.out.write(canvas == null ? 0 : 1);
+    if (canvas != null) {
+      writer.writeSigned(canvas.getX());
+      writer.writeSigned(canvas.getY());
+      writer.writeSigned(canvas.getWidth());
+      writer.writeSigned(canvas.getHeight());
+    }
+
+    List<String> names = model.getNames();
+    List<Shapes> kinds = model.getKinds();
+    writer.writeUnsigned(names.size());
+    for (int shape = 0; shape < names.size(); shape++) {
+      byte[] name = names.get(shape).getBytes(StandardCharsets.UTF_8);
+      writer.writeUnsigned(name.length);
+      writer.out.write(name);
+      writer.out.write(kinds.get(shape).ordinal());
+    }
+
+    int[][] columns = model.exportColumns();
+    int rows = columns[SHAPE].length;
+    writer.writeUnsigned(rows);
+    for (int row = 0; row < rows; row++) {
+      writer.writeUnsigned(columns[SHAPE][row]);
+    }
+    int previous = 0;
+    for (int row = 0; row < rows; row++) {
+      writer.writeSigned(columns[START][row] - previous);
+      previous = columns[START][row];
+    }
+    for (int row = 0; row < rows; row++) {
+      writer.writeUnsigned(columns[END][row] - columns[START][row]);
+    }
+    for (int p = 0; p < PROPERTIES; p++) {
+      for (int row = 0; row < rows; row++) {
+        writer.writeSigned(columns[FROM + p][row]);
+      }
+    }
+    for (int p = 0; p < PROPERTIES; p++) {
+      for (int row = 0; row < rows; row++) {
+        writer.writeSigned(columns[TO + p][row] - columns[FROM + p][row]);
+      }
+    }
+    writer.out.flush();
+  }
+
+  /**
+   * Writes the given animation in the compiled form to the given file, replacing it if it exists.
+   *
+   * @param model the animation to write
+   * @param path  the file to write to
+   * @throws IOException          if the file cannot be written
+   * @throws NullPointerException if the model or the path is null
+   */
+  public static void write(AnimationModelColumnar model, Path path) throws IOException {
+    Objects.requireNonNull(path, "The file to compile to cannot be null");
+    try (OutputStream out = Files.newOutputStream(path)) {
+      write(model, out);
+    }
+  }
+
+  /**
+   * Returns whether the given file starts like a compiled animation. A file that cannot be read is
+   * not a compiled animation.
+   *
+   * @param path the file to check
+   * @return true if the file starts with the bytes of a compiled animation
+   */
+  public static boolean isCompiled(Path path) {
+    return startsWith(path, MAGIC);
+  }
+
+  /**
+   * Returns whether the given file starts with the given bytes. A file that cannot be read starts
+   * with no bytes.
+   *
+   * @param path  the file to check
+   * @param magic the bytes the file should start with
+   * @return true if the file starts with the given bytes
+   */
+  static boolean startsWith(Path path, byte[] magic) {
+    try (InputStream in = Files.newInputStream(path)) {
+      byte[] start = new byte[magic.length];
+      int read = 0;
+      while (read < start.length) {
+        int count = in.read(start, read, start.length - read);
+        if (count < 0) {
+          return false;
+        }
+        read += count;
+      }
+      for (int i = 0; i < magic.length; i++) {
+        if (start[i] != magic[i]) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Loads the compiled animation in the given file, which is memory-mapped for the reading.
+   *
+   * @param path the file to load
+   * @return the model of the animation
+   * @throws IOException           if the file cannot be read
+   * @throws IllegalStateException if the file is not a compiled animation
+   */
+  public static AnimationModelColumnar read(Path path) throws IOException {
+    Objects.requireNonNull(path, "The file to load cannot be null");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Loads the compiled animation in the remaining bytes of the given buffer. The model is built
+   * without checking the motions again, so only the structure of the bytes is checked.
+   *
+   * @param bytes the bytes of the animation
+   * @return the model of the animation
+   * @throws IllegalStateException if the bytes are not a compiled animation
+   */
+  public static AnimationModelColumnar read(ByteBuffer bytes) throws IllegalStateException {
+    Objects.requireNonNull(bytes, "The bytes to load cannot be null");
+    try {
+      return decode(bytes);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("The compiled animation ends too early");
+    }
+  }
+
+  /*
+  Helper method that decodes the animation in the given bytes.
+   */
+  private static AnimationModelColumnar decode(ByteBuffer bytes) {
+    for (byte b : MAGIC) {
+      if (bytes.get() != b) {
+        throw new IllegalStateException("This is not a compiled animation");
+      }
+    }
+    int version = bytes.get();
+    if (version != VERSION) {
+      throw new IllegalStateException("Unsupported version of the compiled animation: " + version);
+    }
+
+    Canvas canvas = null;
+    if (bytes.get() != 0) {
+      canvas = new Canvas(readSigned(bytes), readSigned(bytes), readSigned(bytes),
+          readSigned(bytes));
+    }
+
+    int shapes = readCount(bytes, 2);
+    Shapes[] allKinds = Shapes.values();
+    List<String> names = new ArrayList<>(shapes);
+    List<Shapes> kinds = new ArrayList<>(shapes);
+    for (int shape = 0; shape < shapes; shape++) {
+      byte[] name = new byte[readCount(bytes, 1)];
+      bytes.get(name);
+      names.add(new String(name, StandardCharsets.UTF_8));
+      int kind = bytes.get();
+      if (kind < 0 || kind >= allKinds.length) {
+        throw new IllegalStateException("Unknown kind of shape: " + kind);
+      }
+      kinds.add(allKinds[kind]);
+    }
+
+    // every motion takes at least a byte for each of its values
+    int rows = readCount(bytes, AnimationModelColumnar.VALUES);
+    int[][] columns = new int[AnimationModelColumnar.VALUES][rows];
+    for (int row = 0; row < rows; row++) {
+      int shape = readUnsigned(bytes);
+      if (shape < 0 || shape >= shapes) {
+        throw new IllegalStateException("A motion refers to an unknown shape: " + shape);
+      }
+      columns[SHAPE][row] = shape;
+    }
+    int previous = 0;
+    for (int row = 0; row < rows; row++) {
+      previous += readSigned(bytes);
+      columns[START][row] = previous;
+    }
+    for (int row = 0; row < rows; row++) {
+      int duration = readUnsigned(bytes);
+      if (duration < 0) {
+        throw new IllegalStateException("A motion ends before it starts");
+      }
+      columns[END][row] = columns[START][row] + duration;
+    }
+    for (int p = 0; p < PROPERTIES; p++) {
+      int[] from = columns[FROM + p];
+      for (int row = 0; row < rows; row++) {
+        from[row] = readSigned(bytes);
+      }
+    }
+    for (int p = 0; p < PROPERTIES; p++) {
+      int[] from = columns[FROM + p];
+      int[] to = columns[TO + p];
+      for (int row = 0; row < rows; row++) {
+        to[row] = from[row] + readSigned(bytes);
+      }
+    }
+    return AnimationModelColumnar.importColumns(canvas, names, kinds, columns, rows);
+  }
+
+  /*
+  Helper method that reads a count of things that take at least the given number of bytes each,
+  checking that the rest of the bytes can hold them.
+   */
+  private static int readCount(ByteBuffer bytes, int size) {
+    int count = readUnsigned(bytes);
+    if (count < 0 || (long) count * size > bytes.remaining()) {
+      throw new IllegalStateException("The compiled animation ends too early");
+    }
+    return count;
+  }
+
+  /*
+  Helper method that reads an integer written as a variable-length quantity.
+   */
+  private static int readUnsigned(ByteBuffer bytes) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = bytes.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("An integer of the compiled animation is too long");
+  }
+
+  /*
+  Helper method that reads a signed integer written as a zigzag-encoded variable-length quantity.
+   */
+  private static int readSigned(ByteBuffer bytes) {
+    int value = readUnsigned(bytes);
+    return value >>> 1 ^ -(value & 1);
+  }
+
+  /*
+  Writes the integers of a compiled animation to a stream.
+   */
+  private static final class Writer {
+
+    private final OutputStream out;
+
+    private Writer(OutputStream out) {
+      this.out = out;
+    }
+
+    /*
+    Helper method that writes the given integer as a variable-length quantity.
+     */
+    private void writeUnsigned(int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+        this.out.write(value & 0x7F | 0x80);
+        value >>>= 7;
+      }
+      this.out.write(value);
+    }
+
+    /*
+    Helper method that writes the given signed integer zigzag-encoded as a variable-length
+    quantity.
+     */
+    private void writeSigned(int value) throws IOException {
+      writeUnsigned(value << 1 ^ value >> 31);
+    }
+  }
+}
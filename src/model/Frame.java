@@ -0,0 +1,240 @@
+package model;
+
+import java.util.Arrays;
+import model.shape.Shape;
+import model.shape.ShapeFactory;
+import model.shape.Shapes;
+import model.shape.properties.Color;
+import model.shape.properties.Dimensions;
+import model.shape.properties.Position;
+
+/**
+ * Represents a reusable buffer holding the state of the animation at one timestamp. Every shape in
+ * the frame takes a slot, and the properties of the shapes are stored in primitive arrays, so a
+ * frame can be filled over and over again without allocating any objects once it has grown to the
+ * number of shapes in the animation.
+ */
+public final class Frame {
+
+  private Shapes[] kinds;
+  private int[] x;
+  private int[] y;
+  private int[] width;
+  private int[] height;
+  private int[] r;
+  private int[] g;
+  private int[] b;
+  private int size;
+
+  // buffers reused by the model when looking up the shapes and motions in progress for this frame
+  final IntList visible;
+  final IntList inProgress;
+  long[] order;
+  int[] slots;
+
+  /**
+   * Instantiates an empty frame.
+   */
+  public Frame() {
+    this.kinds = new Shapes[16];
+    this.x = new int[16];
+    this.y = new int[16];
+    this.width = new int[16];
+    this.height = new int[16];
+    this.r = new int[16];
+    this.g = new int[16];
+    this.b = new int[16];
+    this.size = 0;
+    this.visible = new IntList();
+    this.inProgress = new IntList();
+    this.order = new long[16];
+    this.slots = new int[16];
+  }
+
+  /**
+   * Returns the number of shapes in this frame.
+   *
+   * @return the number of shapes in this frame
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Removes all the shapes from this frame, keeping the buffers for reuse.
+   */
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Adds a slot for a shape of the given kind to this frame. All the properties of the new shape are
+   * set to 0.
+   *
+   * @param kind a kind of the shape
+   * @return the slot of the added shape
+   */
+  public int add(Shapes kind) {
+    if (this.size == this.kinds.length) {
+      int capacity = this.size * 2;
+      this.kinds = Arrays.copyOf(this.kinds, capacity);
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.width = Arrays.copyOf(this.width, capacity);
+      this.height = Arrays.copyOf(this.height, capacity);
+      this.r = Arrays.copyOf(this.r, capacity);
+      this.g = Arrays.copyOf(this.g, capacity);
+      this.b = Arrays.copyOf(this.b, capacity);
+    }
+    int slot = this.size++;
+    this.kinds[slot] = kind;
+    setPosition(slot, 0, 0);
+    setDimensions(slot, 0, 0);
+    setColor(slot, 0, 0, 0);
+    return slot;
+  }
+
+  /**
+   * Sets all the properties of the shape in the given slot to the properties of the given shape.
+   *
+   * @param slot  a slot of the shape
+   * @param shape a shape to copy the properties from
+   */
+  public void set(int slot, Shape shape) {
+    setPosition(slot, shape.getPosition().getX(), shape.getPosition().getY());
+    setDimensions(slot, shape.getDimensions().getX(), shape.getDimensions().getY());
+    setColor(slot, shape.getColor().getR(), shape.getColor().getG(), shape.getColor().getB());
+  }
+
+  /**
+   * Sets the position of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @param x    the coordinate on the x-axis
+   * @param y    the coordinate on the y-axis
+   */
+  public void setPosition(int slot, int x, int y) {
+    this.x[slot] = x;
+    this.y[slot] = y;
+  }
+
+  /**
+   * Sets the dimensions of the shape in the given slot.
+   *
+   * @param slot   a slot of the shape
+   * @param width  the length of the dimension along the x-axis
+   * @param height the length of the dimension along the y-axis
+   */
+  public void setDimensions(int slot, int width, int height) {
+    this.width[slot] = width;
+    this.height[slot] = height;
+  }
+
+  /**
+   * Sets the color of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @param r    the amount of red in the color
+   * @param g    the amount of green in the color
+   * @param b    the amount of blue in the color
+   */
+  public void setColor(int slot, int r, int g, int b) {
+    this.r[slot] = r;
+    this.g[slot] = g;
+    this.b[slot] = b;
+  }
+
+  /**
+   * Returns the kind of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the kind of the shape
+   */
+  public Shapes getKind(int slot) {
+    return this.kinds[slot];
+  }
+
+  /**
+   * Returns the x coordinate of the position of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the x coordinate of the position of the shape
+   */
+  public int getX(int slot) {
+    return this.x[slot];
+  }
+
+  /**
+   * Returns the y coordinate of the position of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the y coordinate of the position of the shape
+   */
+  public int getY(int slot) {
+    return this.y[slot];
+  }
+
+  /**
+   * Returns the length of the dimension along the x-axis of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the width of the shape
+   */
+  public int getWidth(int slot) {
+    return this.width[slot];
+  }
+
+  /**
+   * Returns the length of the dimension along the y-axis of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the height of the shape
+   */
+  public int getHeight(int slot) {
+    return this.height[slot];
+  }
+
+  /**
+   * Returns the amount of red in the color of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the amount of red in the color of the shape
+   */
+  public int getR(int slot) {
+    return this.r[slot];
+  }
+
+  /**
+   * Returns the amount of green in the color of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the amount of green in the color of the shape
+   */
+  public int getG(int slot) {
+    return this.g[slot];
+  }
+
+  /**
+   * Returns the amount of blue in the color of the shape in the given slot.
+   *
+   * @param slot a slot of the shape
+   * @return the amount of blue in the color of the shape
+   */
+  public int getB(int slot) {
+    return this.b[slot];
+  }
+
+  /**
+   * Returns the shape in the given slot as a new {@link Shape}.
+   *
+   * @param slot a slot of the shape
+   * @return the shape in the given slot
+   * @throws IllegalArgumentException if the color of the shape is not within the 0-255 range
+   */
+  public Shape toShape(int slot) throws IllegalArgumentException {
+    return ShapeFactory.make(this.kinds[slot],
+        new Position(this.x[slot], this.y[slot]),
+        new Dimensions(this.width[slot], this.height[slot]),
+        new Color(this.r[slot], this.g[slot], this.b[slot]));
+  }
+}
@@ -0,0 +1,43 @@
+package model;
+
+import java.util.List;
+import model.shape.Shape;
+
+/**
+ * Specifies a cursor that plays an animation forward one tick at a time. Moving to the next tick
+ * only costs the motions that start or finish at that tick, which makes a cursor the cheaper way to
+ * go through the frames in order compared to calling {@link AnimationModelView#getStateAt} for each
+ * of them.
+ */
+public interface FrameCursor {
+
+  /**
+   * Returns the tick this cursor is at.
+   *
+   * @return the tick this cursor is at
+   */
+  int getTick();
+
+  /**
+   * Returns a list of all the shapes present in the frame at the tick this cursor is at. The list
+   * is the same as the one returned by {@link AnimationModelView#getStateAt} for that tick.
+   *
+   * @return list of all the shapes present in the frame at the current tick
+   */
+  List<Shape> getState();
+
+  /**
+   * Writes all the shapes present in the frame at the tick this cursor is at into the given
+   * {@link Frame}, replacing its contents. Neither this method nor {@link #advance()} allocate any
+   * objects, so a player can reuse one frame for the whole animation.
+   *
+   * @param frame a frame to write the state into
+   */
+  void getState(Frame frame);
+
+  /**
+   * Moves this cursor to the next tick.
+   */
+  void advance();
+
+}
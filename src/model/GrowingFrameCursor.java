@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Specifies a cursor that plays an animation forward while motions are still being added to it, in
+ * the order of their start. Every motion starting by a tick is known once the cursor is at the
+ * tick, but a shape whose motions known so far all end before the tick may either have ended or be
+ * resting until a motion that has not been added yet. Until that is known, the cursor keeps such a
+ * shape in its frames at the state it was left in.
+ */
+public interface GrowingFrameCursor extends FrameCursor {
+
+  /**
+   * Returns whether the frame at the tick this cursor is at is the frame of the whole animation,
+   * that is whether every shape that has appeared by the tick has a motion known to end at or after
+   * it. Once every motion has been added, the shapes that are still not settled have ended.
+   *
+   * @return true if no motion still to be added can change the frame at the current tick
+   */
+  boolean isSettled();
+}
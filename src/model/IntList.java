@@ -0,0 +1,91 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Represents a growable list of primitive integers. Used by the indexes of the model to report
+ * query results without boxing.
+ */
+final class IntList {
+
+  private int[] values;
+  private int size;
+
+  /**
+   * Instantiates an empty list.
+   */
+  IntList() {
+    this.values = new int[16];
+    this.size = 0;
+  }
+
+  /**
+   * Appends the given value to the end of this list.
+   *
+   * @param value a value to append
+   */
+  void add(int value) {
+    if (this.size == this.values.length) {
+      this.values = Arrays.copyOf(this.values, this.size * 2);
+    }
+    this.values[this.size++] = value;
+  }
+
+  /**
+   * Inserts the given value at the given index, moving the values from that index onwards one place
+   * further.
+   *
+   * @param index an index to insert the value at
+   * @param value a value to insert
+   */
+  void insert(int index, int value) {
+    add(value);
+    System.arraycopy(this.values, index, this.values, index + 1, this.size - 1 - index);
+    this.values[index] = value;
+  }
+
+  /**
+   * Returns the value at the given index.
+   *
+   * @param index an index of the value
+   * @return the value at the given index
+   */
+  int get(int index) {
+    return this.values[index];
+  }
+
+  /**
+   * Replaces the value at the given index.
+   *
+   * @param index an index of the value
+   * @param value a new value
+   */
+  void set(int index, int value) {
+    this.values[index] = value;
+  }
+
+  /**
+   * Removes all the values from the given index onwards.
+   *
+   * @param size the number of values to keep
+   */
+  void truncate(int size) {
+    this.size = Math.min(this.size, size);
+  }
+
+  /**
+   * Returns the number of values in this list.
+   *
+   * @return the number of values in this list
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Removes all the values from this list, keeping its capacity.
+   */
+  void clear() {
+    this.size = 0;
+  }
+}
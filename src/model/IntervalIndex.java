@@ -0,0 +1,98 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a growing set of closed integer intervals, each labeled with an integer id, that can
+ * be searched for the intervals containing a point. Keeps the intervals in a stack of
+ * {@link IntervalTree}s of decreasing sizes, and merges the trees on top when a new one is at least
+ * as large as the one below it. Every interval is therefore rebuilt O(log n) times over the life
+ * of the index, and a search visits O(log n) trees.
+ */
+final class IntervalIndex {
+
+  private final List<IntervalTree> trees;
+
+  /**
+   * Instantiates an empty index.
+   */
+  IntervalIndex() {
+    this.trees = new ArrayList<>();
+  }
+
+  /**
+   * Adds a single interval to this index.
+   *
+   * @param start the start of the interval
+   * @param end   the end of the interval, inclusive
+   * @param id    the id the interval is reported with
+   * @throws IllegalArgumentException if the interval ends before it starts
+   */
+  void add(int start, int end, int id) throws IllegalArgumentException {
+    addAll(new int[]{start}, new int[]{end}, new int[]{id}, 1);
+  }
+
+  /**
+   * Adds the first {@code count} intervals of the given arrays to this index.
+   *
+   * @param starts the start of each interval
+   * @param ends   the end of each interval, inclusive
+   * @param ids    the id each interval is reported with
+   * @param count  the number of intervals to take from the arrays
+   * @throws IllegalArgumentException if any interval ends before it starts
+   */
+  void addAll(int[] starts, int[] ends, int[] ids, int count) throws IllegalArgumentException {
+    IntervalTree top = new IntervalTree(starts, ends, ids, count);
+    while (!this.trees.isEmpty()
+        && this.trees.get(this.trees.size() - 1).size() <= top.size()) {
+      top = merge(this.trees.remove(this.trees.size() - 1), top);
+    }
+    this.trees.add(top);
+  }
+
+  /*
+  Helper method that builds a single tree holding the intervals of both given trees.
+   */
+  private static IntervalTree merge(IntervalTree a, IntervalTree b) {
+    int count = a.size() + b.size();
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int[] ids = new int[count];
+    int i = 0;
+    for (IntervalTree tree : new IntervalTree[]{a, b}) {
+      for (int p = 0; p < tree.size(); p++, i++) {
+        starts[i] = tree.getStart(p);
+        ends[i] = tree.getEnd(p);
+        ids[i] = tree.getId(p);
+      }
+    }
+    return new IntervalTree(starts, ends, ids, count);
+  }
+
+  /**
+   * Appends the ids of all the intervals containing the given point to the given list, in no
+   * particular order.
+   *
+   * @param point a point to look up
+   * @param out   a list to append the ids to
+   */
+  void stab(int point, IntList out) {
+    for (int i = 0; i < this.trees.size(); i++) {
+      this.trees.get(i).stab(point, out);
+    }
+  }
+
+  /**
+   * Returns the number of intervals in this index.
+   *
+   * @return the number of intervals in this index
+   */
+  int size() {
+    int size = 0;
+    for (IntervalTree tree : this.trees) {
+      size += tree.size();
+    }
+    return size;
+  }
+}
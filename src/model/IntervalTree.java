@@ -0,0 +1,187 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Represents a centered interval tree over closed integer intervals, each labeled with an integer
+ * id. The tree is built once from the given intervals and answers which intervals contain a given
+ * point in O(log n + k) time, where k is the number of intervals reported.
+ */
+final class IntervalTree {
+
+  private final int[] starts;
+  private final int[] ends;
+  private final int[] ids;
+  private final Node root;
+
+  /*
+  A node of the tree, holding the intervals that contain its center twice: sorted by the start
+  ascending and sorted by the end descending. Intervals ending before the center are in the left
+  subtree, and intervals starting after the center are in the right one.
+   */
+  private static final class Node {
+
+    private final int center;
+    private final int[] byStart;
+    private final int[] byEnd;
+    private Node left;
+    private Node right;
+
+    private Node(int center, int[] byStart, int[] byEnd) {
+      this.center = center;
+      this.byStart = byStart;
+      this.byEnd = byEnd;
+    }
+  }
+
+  /**
+   * Builds a tree over the first {@code count} intervals of the given arrays. The arrays are copied
+   * and can be reused by the caller.
+   *
+   * @param starts the start of each interval
+   * @param ends   the end of each interval, inclusive
+   * @param ids    the id each interval is reported with
+   * @param count  the number of intervals to take from the arrays
+   * @throws IllegalArgumentException if any interval ends before it starts
+   */
+  IntervalTree(int[] starts, int[] ends, int[] ids, int count) throws IllegalArgumentException {
+    this.starts = Arrays.copyOf(starts, count);
+    this.ends = Arrays.copyOf(ends, count);
+    this.ids = Arrays.copyOf(ids, count);
+    for (int i = 0; i < count; i++) {
+      if (this.ends[i] < this.starts[i]) {
+        throw new IllegalArgumentException("An interval cannot end before it starts");
+      }
+    }
+
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingInt(i -> this.starts[i]));
+    int[] sorted = new int[count];
+    for (int i = 0; i < count; i++) {
+      sorted[i] = order[i];
+    }
+    this.root = build(sorted, count);
+  }
+
+  /*
+  Recursively builds a subtree over the given entries, which must be sorted by their start. The
+  center is the start of the median entry, so each subtree holds at most half of the entries.
+   */
+  private Node build(int[] entries, int count) {
+    if (count == 0) {
+      return null;
+    }
+    int center = this.starts[entries[count / 2]];
+
+    int[] left = new int[count];
+    int[] right = new int[count];
+    int[] here = new int[count];
+    int leftCount = 0;
+    int rightCount = 0;
+    int hereCount = 0;
+    for (int i = 0; i < count; i++) {
+      int e = entries[i];
+      if (this.ends[e] < center) {
+        left[leftCount++] = e;
+      } else if (this.starts[e] > center) {
+        right[rightCount++] = e;
+      } else {
+        here[hereCount++] = e;
+      }
+    }
+
+    int[] byStart = Arrays.copyOf(here, hereCount);
+    Integer[] descending = new Integer[hereCount];
+    for (int i = 0; i < hereCount; i++) {
+      descending[i] = here[i];
+    }
+    Arrays.sort(descending, (a, b) -> Integer.compare(this.ends[b], this.ends[a]));
+    int[] byEnd = new int[hereCount];
+    for (int i = 0; i < hereCount; i++) {
+      byEnd[i] = descending[i];
+    }
+
+    Node node = new Node(center, byStart, byEnd);
+    node.left = build(left, leftCount);
+    node.right = build(right, rightCount);
+    return node;
+  }
+
+  /**
+   * Appends the ids of all the intervals containing the given point to the given list, in no
+   * particular order.
+   *
+   * @param point a point to look up
+   * @param out   a list to append the ids to
+   */
+  void stab(int point, IntList out) {
+    Node node = this.root;
+    while (node != null) {
+      if (point < node.center) {
+        for (int e : node.byStart) {
+          if (this.starts[e] > point) {
+            break;
+          }
+          out.add(this.ids[e]);
+        }
+        node = node.left;
+      } else if (point > node.center) {
+        for (int e : node.byEnd) {
+          if (this.ends[e] < point) {
+            break;
+          }
+          out.add(this.ids[e]);
+        }
+        node = node.right;
+      } else {
+        for (int e : node.byStart) {
+          out.add(this.ids[e]);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the start of the interval at the given position in this tree.
+   *
+   * @param position a position of the interval, from 0 to the size of this tree
+   * @return the start of the interval
+   */
+  int getStart(int position) {
+    return this.starts[position];
+  }
+
+  /**
+   * Returns the end of the interval at the given position in this tree.
+   *
+   * @param position a position of the interval, from 0 to the size of this tree
+   * @return the end of the interval
+   */
+  int getEnd(int position) {
+    return this.ends[position];
+  }
+
+  /**
+   * Returns the id of the interval at the given position in this tree.
+   *
+   * @param position a position of the interval, from 0 to the size of this tree
+   * @return the id of the interval
+   */
+  int getId(int position) {
+    return this.ids[position];
+  }
+
+  /**
+   * Returns the number of intervals in this tree.
+   *
+   * @return the number of intervals in this tree
+   */
+  int size() {
+    return this.ids.length;
+  }
+}
@@ -0,0 +1,858 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import model.motion.Interpolation;
+import model.shape.Shape;
+import model.shape.Shapes;
+
+/**
+ * Represents an animation that is read straight from a memory-mapped file instead of being loaded
+ * into the heap. The file holds the motions as fixed-width columns sorted by their start, together
+ * with an index that finds the motions in progress and the latest finished motion of every shape at
+ * any timestamp, so a frame is computed by reading only the parts of the file it needs. Animations
+ * larger than the heap can be played this way, and every process that maps the same file shares the
+ * one copy of it in the page cache.
+ *
+ * <p>The file starts with the bytes {@code EANF} and a header of integers: the version, whether
+ * the animation has a canvas, its x, y, width and height, the number of shapes, the number of
+ * motions, the length of the animation, the interval between the checkpoints of the index, the
+ * number of checkpoints, the number of entries in the index, the number of bytes of the names, the
+ * number of shapes that have motions, and the number of entries in the index of the shapes. The
+ * sections that follow are, in this order:
+ * <ul>
+ *   <li>the kind, the first and last tick, and the first motion of every shape;</li>
+ *   <li>the motions of every shape sorted by their end, as offsets into a list of motions;</li>
+ *   <li>the columns of the motions sorted by their start: the id of the shape, the start and end
+ *   times, the seven properties at the start, the seven at the end, and the order of addition;</li>
+ *   <li>for every checkpoint, the motions in progress at its tick, as offsets into a list of
+ *   motions, and the first motion starting at or after its tick;</li>
+ *   <li>the shapes that have motions sorted by their first tick, and for every checkpoint the
+ *   first of them appearing at or after its tick, and the shapes visible at its tick that appeared
+ *   before it, in the order of their declaration, as offsets into a list of shapes;</li>
+ *   <li>the names of the shapes in UTF-8, as offsets into a list of bytes.</li>
+ * </ul>
+ * All the integers are written with four bytes, with the most significant byte first.
+ */
+public final class MappedAnimation implements AnimationModelView {
+
+  private static final byte[] MAGIC = {'E', 'A', 'N', 'F'};
+  private static final int VERSION = 2;
+  private static final int HEADER = 16;
+  // the motions in progress at a checkpoint that a frame has to look at, on average
+  private static final int ROWS_PER_CHECKPOINT = 8;
+
+  private static final int SHAPE = 0;
+  private static final int START = 1;
+  private static final int END = 2;
+  private static final int FROM = 3;
+  private static final int TO = 10;
+  private static final int ORDER = 17;
+  private static final int COLUMNS = 18;
+
+  private final Canvas canvas;
+  private final int shapes;
+  private final int rows;
+  private final int length;
+  private final int interval;
+  private final int checkpoints;
+  private final Shapes[] kinds;
+  private final IntBuffer shapeTable;
+  private final IntBuffer byEndOffsets;
+  private final IntBuffer byEnd;
+  private final IntBuffer[] columns;
+  private final IntBuffer checkpointOffsets;
+  private final IntBuffer checkpointFirst;
+  private final IntBuffer checkpointRows;
+  private final int appearing;
+  private final IntBuffer byAppearance;
+  private final IntBuffer checkpointNextShape;
+  private final IntBuffer checkpointShapeOffsets;
+  private final IntBuffer checkpointShapes;
+  private final IntBuffer nameOffsets;
+  private final ByteBuffer names;
+
+  /*
+  Instantiates an animation reading the given file, which must have been checked to be one.
+   */
+  private MappedAnimation(FileChannel channel, IntBuffer header) throws IOException {
+    this.canvas = header.get(2) == 0 ? null
+        : new Canvas(header.get(3), header.get(4), header.get(5), header.get(6));
+    this.shapes = header.get(7);
+    this.rows = header.get(8);
+    this.length = header.get(9);
+    this.interval = header.get(10);
+    this.checkpoints = header.get(11);
+    int entries = header.get(12);
+    int nameBytes = header.get(13);
+    this.appearing = header.get(14);
+    int shapeEntries = header.get(15);
+
+    long position = HEADER * 4L;
+    this.shapeTable = ints(channel, position, 4 * this.shapes);
+    position += 16L * this.shapes;
+    this.byEndOffsets = ints(channel, position, this.shapes + 1);
+    position += 4L * (this.shapes + 1);
+    this.byEnd = ints(channel, position, this.rows);
+    position += 4L * this.rows;
+    this.columns = new IntBuffer[COLUMNS];
+    for (int c = 0; c < COLUMNS; c++) {
+      this.columns[c] = ints(channel, position, this.rows);
+      position += 4L * this.rows;
+    }
+    this.checkpointOffsets = ints(channel, position, this.checkpoints + 1);
+    position += 4L * (this.checkpoints + 1);
+    this.checkpointFirst = ints(channel, position, this.checkpoints);
+    position += 4L * this.checkpoints;
+    this.checkpointRows = ints(channel, position, entries);
+    position += 4L * entries;
+    this.byAppearance = ints(channel, position, this.appearing);
+    position += 4L * this.appearing;
+    this.checkpointNextShape = ints(channel, position, this.checkpoints);
+    position += 4L * this.checkpoints;
+    this.checkpointShapeOffsets = ints(channel, position, this.checkpoints + 1);
+    position += 4L * (this.checkpoints + 1);
+    this.checkpointShapes = ints(channel, position, shapeEntries);
+    position += 4L * shapeEntries;
+    this.nameOffsets = ints(channel, position, this.shapes + 1);
+    position += 4L * (this.shapes + 1);
+    this.names = channel.map(MapMode.READ_ONLY, position, nameBytes);
+
+    Shapes[] allKinds = Shapes.values();
+    this.kinds = new Shapes[this.shapes];
+    for (int shape = 0; shape < this.shapes; shape++) {
+      int kind = this.shapeTable.get(4 * shape);
+      if (kind < 0 || kind >= allKinds.length) {
+        throw new IllegalStateException("Unknown kind of shape: " + kind);
+      }
+      this.kinds[shape] = allKinds[kind];
+    }
+  }
+
+  /*
+  Helper method that maps the given number of integers of the file starting at the given position.
+   */
+  private static IntBuffer ints(FileChannel channel, long position, int count) throws IOException {
+    return channel.map(MapMode.READ_ONLY, position, 4L * count).asIntBuffer();
+  }
+
+  /**
+   * Opens the animation in the given file, which is mapped and not read into the heap. The mapping
+   * stays valid after the file is closed, until the animation is no longer used. Only the header
+   * and the size of the file are checked, not the motions.
+   *
+   * @param path the file to open
+   * @return the animation in the file
+   * @throws IOException           if the file cannot be read
+   * @throws IllegalStateException if the file is not a mapped animation
+   */
+  public static MappedAnimation open(Path path) throws IOException {
+    Objects.requireNonNull(path, "The file to open cannot be null");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER * 4L) {
+        throw new IllegalStateException("This is not a mapped animation");
+      }
+      ByteBuffer start = channel.map(MapMode.READ_ONLY, 0, HEADER * 4L);
+      for (byte b : MAGIC) {
+        if (start.get() != b) {
+          throw new IllegalStateException("This is not a mapped animation");
+        }
+      }
+      start.rewind();
+      IntBuffer header = start.asIntBuffer();
+      if (header.get(1) != VERSION) {
+        throw new IllegalStateException(
+            "Unsupported version of the mapped animation: " + header.get(1));
+      }
+      for (int i = 7; i < HEADER; i++) {
+        if (header.get(i) < 0) {
+          throw new IllegalStateException("The header of the mapped animation is corrupt");
+        }
+      }
+      long shapes = header.get(7);
+      long rows = header.get(8);
+      long checkpoints = header.get(11);
+      long expected = 4 * (HEADER + 4 * shapes + (shapes + 1) + rows + COLUMNS * rows
+          + (checkpoints + 1) + checkpoints + header.get(12) + header.get(14) + checkpoints
+          + (checkpoints + 1) + header.get(15) + (shapes + 1)) + header.get(13);
+      if (channel.size() != expected || checkpoints < 1 || header.get(10) < 1
+          || header.get(14) > shapes) {
+        throw new IllegalStateException("The size of the mapped animation does not match it");
+      }
+      return new MappedAnimation(channel, header);
+    }
+  }
+
+  /**
+   * Returns whether the given file starts like a mapped animation. A file that cannot be read is
+   * not a mapped animation.
+   *
+   * @param path the file to check
+   * @return true if the file starts with the bytes of a mapped animation
+   */
+  public static boolean isMapped(Path path) {
+    return CompiledAnimation.startsWith(path, MAGIC);
+  }
+
+  /**
+   * Writes the given animation to the given file in the form that can be opened with {@link
+   * #open}, replacing the file if it exists.
+   *
+   * @param model the animation to write
+   * @param path  the file to write to
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if the animation is too large for its index to be mapped
+   * @throws NullPointerException     if the model or the path is null
+   */
+  public static void write(AnimationModelColumnar model, Path path) throws IOException {
+    Objects.requireNonNull(model, "The animation to write cannot be null");
+    Objects.requireNonNull(path, "The file to write to cannot be null");
+    int[][] added = model.exportColumns();
+    List<String> shapeNames = model.getNames();
+    List<Shapes> shapeKinds = model.getKinds();
+    int shapes = shapeNames.size();
+    int rows = added[SHAPE].length;
+    int length = model.getLength();
+
+    // the rows sorted by their start, and then by their order, as the columnar model sorts them
+    long[] keys = new long[rows];
+    for (int order = 0; order < rows; order++) {
+      keys[order] = (long) added[START][order] << 32 | order;
+    }
+    Arrays.sort(keys);
+    int[] rowOfOrder = new int[rows];
+    int[][] sorted = new int[COLUMNS][rows];
+    for (int row = 0; row < rows; row++) {
+      int order = (int) keys[row];
+      rowOfOrder[order] = row;
+      for (int c = 0; c < ORDER; c++) {
+        sorted[c][row] = added[c][order];
+      }
+      sorted[ORDER][row] = order;
+    }
+
+    int[] table = new int[4 * shapes];
+    int[] byEndOffsets = new int[shapes + 1];
+    for (int shape = 0; shape < shapes; shape++) {
+      table[4 * shape] = shapeKinds.get(shape).ordinal();
+      table[4 * shape + 2] = -1;
+      table[4 * shape + 3] = -1;
+    }
+    for (int row = 0; row < rows; row++) {
+      int shape = sorted[SHAPE][row];
+      if (table[4 * shape + 3] == -1) {
+        table[4 * shape + 1] = sorted[START][row];
+        table[4 * shape + 3] = row;
+      }
+      table[4 * shape + 2] = Math.max(table[4 * shape + 2], sorted[END][row]);
+      byEndOffsets[shape + 1]++;
+    }
+    for (int shape = 0; shape < shapes; shape++) {
+      byEndOffsets[shape + 1] += byEndOffsets[shape];
+    }
+
+    // the rows of every shape sorted by their end, and the earliest added last among equal ends,
+    // so the last one that has finished is the one the columnar model takes, the earliest added
+    long[] byEndKeys = new long[rows];
+    int[] filled = Arrays.copyOf(byEndOffsets, shapes);
+    for (int row = 0; row < rows; row++) {
+      byEndKeys[filled[sorted[SHAPE][row]]++] =
+          (long) sorted[END][row] << 32 | Integer.MAX_VALUE - sorted[ORDER][row];
+    }
+    int[] byEnd = new int[rows];
+    for (int shape = 0; shape < shapes; shape++) {
+      Arrays.sort(byEndKeys, byEndOffsets[shape], byEndOffsets[shape + 1]);
+    }
+    for (int i = 0; i < rows; i++) {
+      byEnd[i] = rowOfOrder[Integer.MAX_VALUE - (int) byEndKeys[i]];
+    }
+
+    int interval = (int) Math.min(Integer.MAX_VALUE,
+        Math.max(1, (length + 1L) * ROWS_PER_CHECKPOINT / Math.max(rows, 1)));
+    int checkpoints = length / interval + 1;
+    int[] checkpointOffsets = new int[checkpoints + 1];
+    int[] checkpointFirst = new int[checkpoints];
+    for (int row = 0; row < rows; row++) {
+      for (long c = firstCheckpointAfter(sorted[START][row], interval);
+          c < checkpoints && c * interval <= sorted[END][row]; c++) {
+        checkpointOffsets[(int) c + 1]++;
+      }
+    }
+    accumulate(checkpointOffsets);
+    int[] checkpointRows = new int[checkpointOffsets[checkpoints]];
+    filled = Arrays.copyOf(checkpointOffsets, checkpoints);
+    int first = 0;
+    for (int c = 0; c < checkpoints; c++) {
+      while (first < rows && sorted[START][first] < (long) c * interval) {
+        first++;
+      }
+      checkpointFirst[c] = first;
+    }
+    for (int row = 0; row < rows; row++) {
+      for (long c = firstCheckpointAfter(sorted[START][row], interval);
+          c < checkpoints && c * interval <= sorted[END][row]; c++) {
+        checkpointRows[filled[(int) c]++] = row;
+      }
+    }
+
+    // the shapes are indexed like the rows, by the checkpoints their lifetimes span and by the
+    // time they appear at, so a frame only looks at the shapes visible around it
+    long[] appearanceKeys = new long[shapes];
+    int appearing = 0;
+    int[] checkpointShapeOffsets = new int[checkpoints + 1];
+    for (int shape = 0; shape < shapes; shape++) {
+      if (table[4 * shape + 3] == -1) {
+        continue;
+      }
+      appearanceKeys[appearing++] = (long) table[4 * shape + 1] << 32 | shape;
+      for (long c = firstCheckpointAfter(table[4 * shape + 1], interval);
+          c < checkpoints && c * interval <= table[4 * shape + 2]; c++) {
+        checkpointShapeOffsets[(int) c + 1]++;
+      }
+    }
+    Arrays.sort(appearanceKeys, 0, appearing);
+    int[] byAppearance = new int[appearing];
+    for (int i = 0; i < appearing; i++) {
+      byAppearance[i] = (int) appearanceKeys[i];
+    }
+    accumulate(checkpointShapeOffsets);
+    int[] checkpointShapes = new int[checkpointShapeOffsets[checkpoints]];
+    filled = Arrays.copyOf(checkpointShapeOffsets, checkpoints);
+    for (int shape = 0; shape < shapes; shape++) {
+      if (table[4 * shape + 3] == -1) {
+        continue;
+      }
+      for (long c = firstCheckpointAfter(table[4 * shape + 1], interval);
+          c < checkpoints && c * interval <= table[4 * shape + 2]; c++) {
+        checkpointShapes[filled[(int) c]++] = shape;
+      }
+    }
+    int[] checkpointNextShape = new int[checkpoints];
+    int next = 0;
+    for (int c = 0; c < checkpoints; c++) {
+      while (next < appearing && table[4 * byAppearance[next] + 1] < (long) c * interval) {
+        next++;
+      }
+      checkpointNextShape[c] = next;
+    }
+
+    byte[][] encodedNames = new byte[shapes][];
+    int[] nameOffsets = new int[shapes + 1];
+    for (int shape = 0; shape < shapes; shape++) {
+      encodedNames[shape] = shapeNames.get(shape).getBytes(StandardCharsets.UTF_8);
+      nameOffsets[shape + 1] = nameOffsets[shape] + encodedNames[shape].length;
+    }
+
+    Canvas canvas = model.getCanvas();
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+      out.write(MAGIC);
+      writeInts(out, VERSION, canvas == null ? 0 : 1,
+          canvas == null ? 0 : canvas.getX(), canvas == null ? 0 : canvas.getY(),
+          canvas == null ? 0 : canvas.getWidth(), canvas == null ? 0 : canvas.getHeight(),
+          shapes, rows, length, interval, checkpoints, checkpointRows.length, nameOffsets[shapes],
+          appearing, checkpointShapes.length);
+      writeInts(out, table);
+      writeInts(out, byEndOffsets);
+      writeInts(out, byEnd);
+      for (int[] column : sorted) {
+        writeInts(out, column);
+      }
+      writeInts(out, checkpointOffsets);
+      writeInts(out, checkpointFirst);
+      writeInts(out, checkpointRows);
+      writeInts(out, byAppearance);
+      writeInts(out, checkpointNextShape);
+      writeInts(out, checkpointShapeOffsets);
+      writeInts(out, checkpointShapes);
+      writeInts(out, nameOffsets);
+      for (byte[] name : encodedNames) {
+        out.write(name);
+      }
+    }
+  }
+
+  /*
+  Helper method that turns the counts of the entries of every checkpoint, each stored after the
+  offset of its checkpoint, into the offsets of the entries of every checkpoint.
+   */
+  private static void accumulate(int[] offsets) {
+    for (int c = 0; c + 1 < offsets.length; c++) {
+      if ((long) offsets[c] + offsets[c + 1] > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The animation is too large to be mapped");
+      }
+      offsets[c + 1] += offsets[c];
+    }
+  }
+
+  /*
+  Helper method that returns the first checkpoint strictly after the given tick.
+   */
+  private static long firstCheckpointAfter(int tick, int interval) {
+    return Math.max(0, Math.floorDiv(tick, interval) + 1);
+  }
+
+  /*
+  Helper method that writes the given integers to the given stream.
+   */
+  private static void writeInts(DataOutputStream out, int... values) throws IOException {
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  @Override
+  public int getLength() {
+    return this.length;
+  }
+
+  @Override
+  public Canvas getCanvas() {
+    return this.canvas;
+  }
+
+  @Override
+  public List<Shape> getStateAt(int timestamp) {
+    Frame frame = new Frame();
+    getStateAt(timestamp, frame);
+    List<Shape> state = new ArrayList<>(frame.size());
+    for (int slot = 0; slot < frame.size(); slot++) {
+      state.add(frame.toShape(slot));
+    }
+    return state;
+  }
+
+  @Override
+  public void getStateAt(int timestamp, Frame frame) {
+    int checkpoint = checkpointOf(timestamp);
+    collectInProgress(timestamp, checkpoint, frame.inProgress);
+    collectVisible(timestamp, checkpoint, frame);
+
+    if (frame.slots.length < this.shapes) {
+      frame.slots = new int[Math.max(this.shapes, frame.slots.length * 2)];
+    }
+    frame.clear();
+    for (int i = 0; i < frame.visible.size(); i++) {
+      int shape = frame.visible.get(i);
+      int slot = frame.add(this.kinds[shape]);
+      frame.slots[shape] = slot;
+      setToBase(shape, latestFinished(shape, timestamp), frame, slot);
+    }
+    for (int i = 0; i < frame.inProgress.size(); i++) {
+      int row = frame.inProgress.get(i);
+      apply(row, frame, frame.slots[this.columns[SHAPE].get(row)], timestamp);
+    }
+  }
+
+  /*
+  Helper method that returns the checkpoint the index is looked up from for the given timestamp,
+  which is the latest one not after it, if there is one.
+   */
+  private int checkpointOf(int timestamp) {
+    return Math.max(0, Math.min(this.checkpoints - 1, Math.floorDiv(timestamp, this.interval)));
+  }
+
+  /*
+  Helper method that puts the rows in progress at the given timestamp into the given list, and
+  returns the first row that starts after it. The rows are the ones in progress at the checkpoint
+  that have not finished yet, followed by the ones that started since, which keeps them in the
+  order they are applied in.
+   */
+  private int collectInProgress(int timestamp, int checkpoint, IntList inProgress) {
+    IntBuffer start = this.columns[START];
+    IntBuffer end = this.columns[END];
+    inProgress.clear();
+    for (int i = this.checkpointOffsets.get(checkpoint);
+        i < this.checkpointOffsets.get(checkpoint + 1); i++) {
+      int row = this.checkpointRows.get(i);
+      if (end.get(row) >= timestamp && start.get(row) <= timestamp) {
+        inProgress.add(row);
+      }
+    }
+    int row = this.checkpointFirst.get(checkpoint);
+    for (; row < this.rows && start.get(row) <= timestamp; row++) {
+      if (end.get(row) >= timestamp) {
+        inProgress.add(row);
+      }
+    }
+    return row;
+  }
+
+  /*
+  Helper method that puts the shapes visible at the given timestamp into the visible shapes of the
+  given frame, in the order of their declaration, and returns the position of the first shape in
+  the order of appearance that appears after it. The shapes are the ones visible at the checkpoint
+  that have not disappeared yet and the ones that appeared since, which are marked in a set of bits
+  to put them in the order of their declaration.
+   */
+  private int collectVisible(int timestamp, int checkpoint, Frame frame) {
+    int words = (this.shapes + 63) >>> 6;
+    if (frame.order.length < words) {
+      frame.order = new long[Math.max(words, frame.order.length * 2)];
+    }
+    long[] marks = frame.order;
+    Arrays.fill(marks, 0, words, 0);
+    for (int i = this.checkpointShapeOffsets.get(checkpoint);
+        i < this.checkpointShapeOffsets.get(checkpoint + 1); i++) {
+      int shape = this.checkpointShapes.get(i);
+      if (this.shapeTable.get(4 * shape + 1) <= timestamp
+          && this.shapeTable.get(4 * shape + 2) >= timestamp) {
+        marks[shape >>> 6] |= 1L << shape;
+      }
+    }
+    int next = this.checkpointNextShape.get(checkpoint);
+    for (; next < this.appearing
+        && this.shapeTable.get(4 * this.byAppearance.get(next) + 1) <= timestamp; next++) {
+      int shape = this.byAppearance.get(next);
+      if (this.shapeTable.get(4 * shape + 2) >= timestamp) {
+        marks[shape >>> 6] |= 1L << shape;
+      }
+    }
+
+    IntList visible = frame.visible;
+    visible.clear();
+    for (int word = 0; word < words; word++) {
+      long bits = marks[word];
+      while (bits != 0) {
+        visible.add(word << 6 | Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+    return next;
+  }
+
+  /*
+  Helper method that returns the latest row of the given shape that has finished by the given
+  timestamp, or -1 if none has, by a binary search over the rows of the shape sorted by their end.
+   */
+  private int latestFinished(int shape, int timestamp) {
+    IntBuffer end = this.columns[END];
+    int low = this.byEndOffsets.get(shape);
+    int high = this.byEndOffsets.get(shape + 1);
+    int first = low;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (end.get(this.byEnd.get(middle)) <= timestamp) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low == first ? -1 : this.byEnd.get(low - 1);
+  }
+
+  /*
+  Helper method that sets the given shape in the given slot to the form it has at the end of its
+  latest finished row, or at the start of its first row if none has finished.
+   */
+  private void setToBase(int shape, int latest, Frame frame, int slot) {
+    if (latest != -1) {
+      setToEnd(latest, frame, slot);
+      return;
+    }
+    int first = this.shapeTable.get(4 * shape + 3);
+    IntBuffer[] c = this.columns;
+    frame.setPosition(slot, c[FROM].get(first), c[FROM + 1].get(first));
+    frame.setDimensions(slot, c[FROM + 2].get(first), c[FROM + 3].get(first));
+    frame.setColor(slot, c[FROM + 4].get(first), c[FROM + 5].get(first), c[FROM + 6].get(first));
+  }
+
+  /*
+  Helper method that sets the shape in the given slot to the form it has at the end of the row.
+   */
+  private void setToEnd(int row, Frame frame, int slot) {
+    IntBuffer[] c = this.columns;
+    frame.setPosition(slot, c[TO].get(row), c[TO + 1].get(row));
+    frame.setDimensions(slot, c[TO + 2].get(row), c[TO + 3].get(row));
+    frame.setColor(slot, c[TO + 4].get(row), c[TO + 5].get(row), c[TO + 6].get(row));
+  }
+
+  /*
+  Helper method that transforms the shape in the given slot according to the motions of the row at
+  the given timestamp, in the same way as the columnar model does.
+   */
+  private void apply(int row, Frame frame, int slot, int timestamp) {
+    int start = this.columns[START].get(row);
+    int end = this.columns[END].get(row);
+    boolean moves = changes(row, 0, 2);
+    boolean scales = changes(row, 2, 4);
+    boolean changesColor = changes(row, 4, 7);
+    if (!moves && !scales && !changesColor) {
+      setToEnd(row, frame, slot);
+      return;
+    }
+    if (moves) {
+      frame.setPosition(slot, interpolate(row, 0, timestamp, start, end),
+          interpolate(row, 1, timestamp, start, end));
+    }
+    if (scales) {
+      frame.setDimensions(slot, interpolate(row, 2, timestamp, start, end),
+          interpolate(row, 3, timestamp, start, end));
+    }
+    if (changesColor) {
+      frame.setColor(slot, interpolate(row, 4, timestamp, start, end),
+          interpolate(row, 5, timestamp, start, end), interpolate(row, 6, timestamp, start, end));
+    }
+  }
+
+  /*
+  Helper method that checks if the row changes any of the properties from first to last.
+   */
+  private boolean changes(int row, int first, int last) {
+    for (int p = first; p < last; p++) {
+      if (this.columns[FROM + p].get(row) != this.columns[TO + p].get(row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+  Helper method that interpolates the given property of the row at the given timestamp.
+   */
+  private int interpolate(int row, int property, int timestamp, int start, int end) {
+    int init = this.columns[FROM + property].get(row);
+    int fin = this.columns[TO + property].get(row);
+    return Interpolation.valueAt(timestamp, start, end, init, fin,
+        Interpolation.slope(start, end, init, fin));
+  }
+
+  /**
+   * Returns a cursor that plays this animation forward starting from the given tick. The cursor
+   * starts from the index of the file, as {@link #getStateAt(int, Frame)} does, and then sweeps
+   * through the motions in the order of their start, so moving it only reads the motions and the
+   * shapes that start or finish at the next tick.
+   *
+   * @param startTick a tick to start playing from
+   * @return a cursor at the given tick
+   */
+  @Override
+  public FrameCursor cursor(int startTick) {
+    return new Cursor(startTick);
+  }
+
+  /*
+  A cursor that sweeps through the rows in the order of their start and the shapes in the order of
+  their appearance. It keeps the rows that have started and not yet finished at the previous tick,
+  the shapes visible at it, and the latest finished row of every shape.
+   */
+  private final class Cursor implements FrameCursor {
+
+    private final IntList active;
+    private final IntList inProgress;
+    private final int[] latest;
+    private final int[] slots;
+    private int nextRow;
+    private int nextShape;
+    private int tick;
+
+    private Cursor(int startTick) {
+      this.latest = new int[shapes];
+      this.slots = new int[shapes];
+      Arrays.fill(this.latest, -1);
+      this.inProgress = new IntList();
+      this.tick = startTick;
+
+      int checkpoint = checkpointOf(startTick);
+      this.nextRow = collectInProgress(startTick, checkpoint, this.inProgress);
+      Frame seen = new Frame();
+      this.nextShape = collectVisible(startTick, checkpoint, seen);
+      this.active = seen.visible;
+      for (int i = 0; i < this.active.size(); i++) {
+        int shape = this.active.get(i);
+        this.latest[shape] = latestFinished(shape, startTick);
+      }
+    }
+
+    /*
+    Helper method that drops the shapes that disappeared before the given tick, takes in the shapes
+    appearing and the rows starting by it, and finishes the rows that finish by it.
+     */
+    private void enter(int tick) {
+      int kept = 0;
+      for (int i = 0; i < this.active.size(); i++) {
+        int shape = this.active.get(i);
+        if (shapeTable.get(4 * shape + 2) >= tick) {
+          this.active.set(kept++, shape);
+        }
+      }
+      this.active.truncate(kept);
+
+      while (this.nextShape < appearing
+          && shapeTable.get(4 * byAppearance.get(this.nextShape) + 1) <= tick) {
+        int shape = byAppearance.get(this.nextShape++);
+        if (shapeTable.get(4 * shape + 2) >= tick) {
+          insert(shape);
+        }
+      }
+      IntBuffer start = columns[START];
+      while (this.nextRow < rows && start.get(this.nextRow) <= tick) {
+        this.inProgress.add(this.nextRow++);
+      }
+      finish(tick);
+    }
+
+    /*
+    Helper method that inserts the shape into the visible shapes, keeping them in the order of
+    declaration.
+     */
+    private void insert(int shape) {
+      this.active.add(shape);
+      int i = this.active.size() - 1;
+      while (i > 0 && this.active.get(i - 1) > shape) {
+        this.active.set(i, this.active.get(i - 1));
+        i--;
+      }
+      this.active.set(i, shape);
+    }
+
+    /*
+    Helper method that updates the latest finished row of the shapes whose rows in progress finish
+    by the given tick, the earliest added winning among equal ends, and drops the rows that have
+    finished before it from the rows in progress.
+     */
+    private void finish(int tick) {
+      IntBuffer end = columns[END];
+      IntBuffer order = columns[ORDER];
+      int kept = 0;
+      for (int i = 0; i < this.inProgress.size(); i++) {
+        int row = this.inProgress.get(i);
+        int rowEnd = end.get(row);
+        if (rowEnd <= tick) {
+          int shape = columns[SHAPE].get(row);
+          int last = this.latest[shape];
+          if (last == -1 || rowEnd > end.get(last)
+              || rowEnd == end.get(last) && order.get(row) < order.get(last)) {
+            this.latest[shape] = row;
+          }
+        }
+        if (rowEnd >= tick) {
+          this.inProgress.set(kept++, row);
+        }
+      }
+      this.inProgress.truncate(kept);
+    }
+
+    @Override
+    public int getTick() {
+      return this.tick;
+    }
+
+    @Override
+    public List<Shape> getState() {
+      Frame frame = new Frame();
+      getState(frame);
+      List<Shape> state = new ArrayList<>(frame.size());
+      for (int slot = 0; slot < frame.size(); slot++) {
+        state.add(frame.toShape(slot));
+      }
+      return state;
+    }
+
+    @Override
+    public void getState(Frame frame) {
+      frame.clear();
+      for (int i = 0; i < this.active.size(); i++) {
+        int shape = this.active.get(i);
+        int slot = frame.add(kinds[shape]);
+        this.slots[shape] = slot;
+        setToBase(shape, this.latest[shape], frame, slot);
+      }
+      for (int i = 0; i < this.inProgress.size(); i++) {
+        int row = this.inProgress.get(i);
+        apply(row, frame, this.slots[columns[SHAPE].get(row)], this.tick);
+      }
+    }
+
+    @Override
+    public void advance() {
+      this.tick++;
+      enter(this.tick);
+    }
+  }
+
+  /**
+   * Passes the shapes and the motions of this animation to the given visitor, as described by
+   * {@link AnimationModelView#accept}. Only the motions of one shape at a time are held on the
+   * heap.
+   *
+   * @param visitor a visitor to pass the shapes and the motions to
+   */
+  @Override
+  public void accept(AnimationVisitor visitor) {
+    IntBuffer[] c = this.columns;
+    for (int shape = 0; shape < this.shapes; shape++) {
+      visitor.visitShape(nameOf(shape), this.kinds[shape]);
+      // the rows are sorted by their start and order, so the rows of the shape are put back in
+      // the order of their positions
+      int from = this.byEndOffsets.get(shape);
+      int[] rowsOfShape = new int[this.byEndOffsets.get(shape + 1) - from];
+      for (int i = 0; i < rowsOfShape.length; i++) {
+        rowsOfShape[i] = this.byEnd.get(from + i);
+      }
+      Arrays.sort(rowsOfShape);
+      for (int row : rowsOfShape) {
+        visitor.visitMotion(c[START].get(row), c[END].get(row),
+            c[FROM].get(row), c[FROM + 1].get(row), c[FROM + 2].get(row), c[FROM + 3].get(row),
+            c[FROM + 4].get(row), c[FROM + 5].get(row), c[FROM + 6].get(row),
+            c[TO].get(row), c[TO + 1].get(row), c[TO + 2].get(row), c[TO + 3].get(row),
+            c[TO + 4].get(row), c[TO + 5].get(row), c[TO + 6].get(row));
+      }
+    }
+  }
+
+  /*
+  Helper method that decodes the name of the given shape.
+   */
+  private String nameOf(int shape) {
+    int from = this.nameOffsets.get(shape);
+    byte[] name = new byte[this.nameOffsets.get(shape + 1) - from];
+    for (int i = 0; i < name.length; i++) {
+      name[i] = this.names.get(from + i);
+    }
+    return new String(name, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Describes this animation in the same way as the other models. Unlike the frames, the
+   * description is built on the heap.
+   *
+   * @return the description of this animation
+   */
+  @Override
+  public String toString() {
+    AnimationModel objects = new AnimationModelImpl();
+    String[] shapeNames = new String[this.shapes];
+    for (int shape = 0; shape < this.shapes; shape++) {
+      shapeNames[shape] = nameOf(shape);
+      objects.addShape(shapeNames[shape], this.kinds[shape]);
+    }
+    int[] byOrder = new int[this.rows];
+    for (int row = 0; row < this.rows; row++) {
+      byOrder[this.columns[ORDER].get(row)] = row;
+    }
+    for (int row : byOrder) {
+      int[] v = new int[ORDER];
+      for (int c = 0; c < ORDER; c++) {
+        v[c] = this.columns[c].get(row);
+      }
+      objects.addMotion(shapeNames[v[SHAPE]], v[START], v[END],
+          v[FROM], v[FROM + 1], v[FROM + 2], v[FROM + 3], v[FROM + 4], v[FROM + 5], v[FROM + 6],
+          v[TO], v[TO + 1], v[TO + 2], v[TO + 3], v[TO + 4], v[TO + 5], v[TO + 6]);
+    }
+    return objects.toString();
+  }
+}
@@ -0,0 +1,138 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.motion.Motion;
+import model.shape.Shape;
+
+/**
+ * Represents a {@link FrameCursor} that sweeps through the motions of an animation in the order of
+ * their start. It keeps the motions in progress at the current tick, the shapes visible at it, and
+ * the latest finished form of every shape, and updates them only for the motions that start or
+ * finish and the shapes that appear or disappear at each new tick.
+ */
+final class SweepingFrameCursor implements FrameCursor {
+
+  private final List<AnimatedShape> shapes;
+  private final Shape[] finished;
+  private final ActiveShapes active;
+  private final int[] positions;
+  private final List<Motion> byStart;
+  private final int[] shapeOf;
+  // the positions in the motions by start of the motions in progress
+  private final IntList inProgress;
+  private int nextStart;
+  private int tick;
+
+  /**
+   * Instantiates a cursor at the given tick.
+   *
+   * @param shapes    all the animated shapes of the animation, in the order of their declaration
+   * @param byStart   all the motions of the animation, sorted by their start and then in the order
+   *                  they are applied in
+   * @param shapeOf   the position among the shapes of the shape of every motion, in the same order
+   * @param startTick a tick to start at
+   */
+  SweepingFrameCursor(List<AnimatedShape> shapes, List<Motion> byStart, int[] shapeOf,
+      int startTick) {
+    this.shapes = shapes;
+    this.finished = new Shape[shapes.size()];
+    int[] appearsAt = new int[shapes.size()];
+    int[] disappearsAt = new int[shapes.size()];
+    for (int i = 0; i < shapes.size(); i++) {
+      AnimatedShape shape = shapes.get(i);
+      Motion last = shape.getLastFinishedMotion(startTick);
+      this.finished[i] = last == null ? null : last.getEndShape();
+      appearsAt[i] = shape.getAppearsAt();
+      disappearsAt[i] = shape.getDisappearsAt();
+    }
+    this.active = new ActiveShapes(appearsAt, disappearsAt);
+    this.positions = new int[shapes.size()];
+    this.byStart = byStart;
+    this.shapeOf = shapeOf;
+    this.inProgress = new IntList();
+    this.nextStart = 0;
+    this.tick = startTick;
+    enter(startTick);
+  }
+
+  /*
+  Helper method that updates the motions in progress and the finished forms of the shapes for the
+  given tick, which must follow the tick the cursor has been at.
+   */
+  private void enter(int tick) {
+    this.active.enter(tick);
+
+    int kept = 0;
+    for (int i = 0; i < this.inProgress.size(); i++) {
+      int motion = this.inProgress.get(i);
+      if (this.byStart.get(motion).getEnd() >= tick) {
+        this.inProgress.set(kept++, motion);
+      }
+    }
+    this.inProgress.truncate(kept);
+
+    while (this.nextStart < this.byStart.size()
+        && this.byStart.get(this.nextStart).getStart() <= tick) {
+      if (this.byStart.get(this.nextStart).getEnd() >= tick) {
+        this.inProgress.add(this.nextStart);
+      }
+      this.nextStart++;
+    }
+
+    for (int i = 0; i < this.inProgress.size(); i++) {
+      int motion = this.inProgress.get(i);
+      if (this.byStart.get(motion).getEnd() == tick) {
+        int shape = this.shapeOf[motion];
+        this.finished[shape] = this.shapes.get(shape).getLastFinishedMotion(tick).getEndShape();
+      }
+    }
+  }
+
+  @Override
+  public int getTick() {
+    return this.tick;
+  }
+
+  @Override
+  public List<Shape> getState() {
+    Shape[] current = new Shape[this.active.size()];
+    for (int i = 0; i < current.length; i++) {
+      int shape = this.active.get(i);
+      this.positions[shape] = i;
+      current[i] = this.finished[shape] != null ? this.finished[shape] : this.shapes.get(shape);
+    }
+    for (int i = 0; i < this.inProgress.size(); i++) {
+      int motion = this.inProgress.get(i);
+      int position = this.positions[this.shapeOf[motion]];
+      current[position] = this.byStart.get(motion).transform(current[position], this.tick);
+    }
+
+    List<Shape> state = new ArrayList<>(current.length);
+    for (Shape shape : current) {
+      state.add(shape);
+    }
+    return state;
+  }
+
+  @Override
+  public void getState(Frame frame) {
+    frame.clear();
+    for (int i = 0; i < this.active.size(); i++) {
+      int shape = this.active.get(i);
+      int slot = frame.add(this.shapes.get(shape).getKind());
+      this.positions[shape] = slot;
+      frame.set(slot, this.finished[shape] != null ? this.finished[shape] : this.shapes.get(shape));
+    }
+    for (int i = 0; i < this.inProgress.size(); i++) {
+      int motion = this.inProgress.get(i);
+      this.byStart.get(motion).transform(frame, this.positions[this.shapeOf[motion]], this.tick);
+    }
+  }
+
+  @Override
+  public void advance() {
+    this.tick++;
+    enter(this.tick);
+  }
+}
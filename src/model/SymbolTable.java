@@ -0,0 +1,113 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a table of the names of the shapes of a model, which numbers every name once, densely
+ * and in the order the names are added. The models keep everything else about a shape in lists and
+ * arrays indexed by its number, so a name is looked up only once per record read.
+ *
+ * <p>The reader returns the same String for every occurrence of a name, and the motions of a
+ * shape often follow one another, so the last name looked up is remembered and compared by identity
+ * before the names are hashed.
+ */
+final class SymbolTable {
+
+  private final Map<String, Integer> ids;
+  private final List<String> names;
+  private String lastName;
+  private int lastId;
+
+  /**
+   * Instantiates an empty table.
+   */
+  SymbolTable() {
+    this.ids = new HashMap<>();
+    this.names = new ArrayList<>();
+    this.lastName = null;
+    this.lastId = -1;
+  }
+
+  /**
+   * Adds the given name to this table and returns its number, which is the number of names added
+   * before it.
+   *
+   * @param name a name that is not in this table yet
+   * @return the number of the name
+   * @throws IllegalArgumentException if the name is already in this table
+   */
+  int add(String name) throws IllegalArgumentException {
+    int id = this.names.size();
+    if (this.ids.putIfAbsent(name, id) != null) {
+      throw new IllegalArgumentException("A shape with this name already exists. Can't add twice.");
+    }
+    this.names.add(name);
+    return id;
+  }
+
+  /**
+   * Returns the number of the given name, or -1 if it is not in this table.
+   *
+   * @param name a name to look up
+   * @return the number of the name, or -1 if it is not in this table
+   */
+  int idOf(String name) {
+    if (name == this.lastName) {
+      return this.lastId;
+    }
+    Integer id = this.ids.get(name);
+    if (id == null) {
+      return -1;
+    }
+    this.lastName = name;
+    this.lastId = id;
+    return id;
+  }
+
+  /**
+   * Returns the name with the given number.
+   *
+   * @param id the number of a name of this table
+   * @return the name
+   */
+  String nameOf(int id) {
+    return this.names.get(id);
+  }
+
+  /**
+   * Returns the number of names in this table.
+   *
+   * @return the number of names
+   */
+  int size() {
+    return this.names.size();
+  }
+
+  /**
+   * Returns the numbers of the names of this table, in the order the names are hashed in. This is
+   * the order the models have always listed the motions that start at the same time in, so the
+   * text and SVG outputs of an animation stay the same as they have always been.
+   *
+   * @return the numbers of all the names
+   */
+  int[] hashOrder() {
+    int[] order = new int[this.ids.size()];
+    int i = 0;
+    for (int id : this.ids.values()) {
+      order[i++] = id;
+    }
+    return order;
+  }
+
+  /**
+   * Returns the names of this table, in the order of their numbers.
+   *
+   * @return a copy of the names
+   */
+  List<String> names() {
+    return new ArrayList<>(this.names);
+  }
+}
@@ -59,15 +59,20 @@ abstract class AbstractMotion implements Motion {
   }
 
 
+  /*
+Helper method that returns the change per tick of a property going from the initial to the final
+value over this motion, so it is only computed once.
+*/
+  protected double slope(int init, int fin) {
+    return Interpolation.slope(this.start, this.end, init, fin);
+  }
+
   /*
 Helper method that interpolates the between two values of the given property between the start
-time and the end time.
+time and the end time, using the slope of the property.
 */
-  protected int interpolate(int timestamp, int start, int end, int init,
-      int fin) {
-    return (end - start) == 0 ? fin :
-        (init * ((end - timestamp) / (end - start)) +
-            fin * ((timestamp - start) / (end - start)));
+  protected int interpolate(int timestamp, int init, int fin, double slope) {
+    return Interpolation.valueAt(timestamp, this.start, this.end, init, fin, slope);
   }
 
   @Override
@@ -90,6 +95,7 @@ time and the end time.
     return this.shape;
   }
 
+  @Override
   public Shape getStartShape() {
     return this.startShape;
   }
@@ -1,6 +1,7 @@
 package model.motion;
 
 import model.AnimatedShape;
+import model.Frame;
 import model.shape.Shape;
 import model.shape.ShapeFactory;
 import model.shape.properties.Color;
@@ -10,6 +11,10 @@ import model.shape.properties.Color;
  */
 public class ColorChange extends AbstractMotion {
 
+  private final double slopeR;
+  private final double slopeG;
+  private final double slopeB;
+
   /**
    * Initializes this Color Change.
    *
@@ -30,6 +35,9 @@ public class ColorChange extends AbstractMotion {
   public ColorChange(AnimatedShape shape, int start, int end,
       Shape startShape, Shape endShape) {
     super(shape, Motions.COLOR_CHANGE, start, end, startShape, endShape);
+    this.slopeR = slope(startShape.getColor().getR(), endShape.getColor().getR());
+    this.slopeG = slope(startShape.getColor().getG(), endShape.getColor().getG());
+    this.slopeB = slope(startShape.getColor().getB(), endShape.getColor().getB());
   }
 
 
@@ -40,18 +48,26 @@ public class ColorChange extends AbstractMotion {
         intermediate.getPosition(),
         intermediate.getDimensions(),
         new Color(
-            interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getColor().getR(),
-                this.getEndShape().getColor().getR()),
-            interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getColor().getG(),
-                this.getEndShape().getColor().getG()),
-            interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getColor().getB(),
-                this.getEndShape().getColor().getB())
+            interpolate(timestamp, this.getStartShape().getColor().getR(),
+                this.getEndShape().getColor().getR(), this.slopeR),
+            interpolate(timestamp, this.getStartShape().getColor().getG(),
+                this.getEndShape().getColor().getG(), this.slopeG),
+            interpolate(timestamp, this.getStartShape().getColor().getB(),
+                this.getEndShape().getColor().getB(), this.slopeB)
         ));
   }
 
+  @Override
+  public void transform(Frame frame, int slot, int timestamp) {
+    frame.setColor(slot,
+        interpolate(timestamp, this.getStartShape().getColor().getR(),
+            this.getEndShape().getColor().getR(), this.slopeR),
+        interpolate(timestamp, this.getStartShape().getColor().getG(),
+            this.getEndShape().getColor().getG(), this.slopeG),
+        interpolate(timestamp, this.getStartShape().getColor().getB(),
+            this.getEndShape().getColor().getB(), this.slopeB));
+  }
+
   @Override
   public String toString() {
     return super.toString() + " " + this.getKind() +
@@ -1,6 +1,7 @@
 package model.motion;
 
 import model.AnimatedShape;
+import model.Frame;
 import model.shape.Shape;
 
 
@@ -37,6 +38,11 @@ public class Freeze extends AbstractMotion {
     return this.getEndShape();
   }
 
+  @Override
+  public void transform(Frame frame, int slot, int timestamp) {
+    frame.set(slot, this.getEndShape());
+  }
+
   @Override
   public String toString() {
     return super.toString() + " " + this.getKind() +
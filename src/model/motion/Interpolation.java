@@ -0,0 +1,41 @@
+package model.motion;
+
+/**
+ * Computes the values of a property changing linearly over the timeframe of a motion. The change
+ * per tick is computed once as a slope, so the value at any timestamp takes a single multiply-add.
+ */
+public final class Interpolation {
+
+  private Interpolation() {
+  }
+
+  /**
+   * Returns the change per tick of a property going from the initial to the final value between
+   * the start time and the end time, or 0 if the timeframe takes no time.
+   *
+   * @param start the start time
+   * @param end   the end time
+   * @param init  the value at the start time
+   * @param fin   the value at the end time
+   * @return the change per tick of the property
+   */
+  public static double slope(int start, int end, int init, int fin) {
+    return end == start ? 0 : ((double) fin - init) / (end - start);
+  }
+
+  /**
+   * Returns the value of the property at the given timestamp, rounded to the closest integer. The
+   * value is the initial one at the start time and the final one at the end time.
+   *
+   * @param timestamp a time to compute the value at, between the start and the end time
+   * @param start     the start time
+   * @param end       the end time
+   * @param init      the value at the start time
+   * @param fin       the value at the end time
+   * @param slope     the change per tick, as returned by {@link #slope}
+   * @return the value of the property at the given timestamp
+   */
+  public static int valueAt(int timestamp, int start, int end, int init, int fin, double slope) {
+    return end == start ? fin : (int) (init + Math.round(slope * (timestamp - start)));
+  }
+}
@@ -1,6 +1,7 @@
 package model.motion;
 
 import model.AnimatedShape;
+import model.Frame;
 import model.shape.Shape;
 
 /**
@@ -38,6 +39,13 @@ public interface Motion {
   int getEnd();
 
 
+  /**
+   * Returns the starting form of the {@link AnimatedShape} this {@link Motion} belongs to.
+   *
+   * @return the starting form of the {@link AnimatedShape} this {@link Motion} belongs to
+   */
+  Shape getStartShape();
+
   /**
    * Returns the end form of the {@link AnimatedShape} this {@link Motion} belongs to.
    *
@@ -55,4 +63,15 @@ public interface Motion {
    *     {@link Motion}
    */
   Shape transform(Shape intermediate, int timestamp);
+
+  /**
+   * Transforms the shape in the given slot of the given {@link Frame} in place, according to
+   * changes made by this {@link Motion} at the given timestamp. Unlike {@link #transform(Shape,
+   * int)}, does not allocate any objects.
+   *
+   * @param frame     a frame holding the shape to be transformed
+   * @param slot      a slot of the shape in the frame
+   * @param timestamp a timestamp to compute the transformation at
+   */
+  void transform(Frame frame, int slot, int timestamp);
 }
@@ -1,6 +1,7 @@
 package model.motion;
 
 import model.AnimatedShape;
+import model.Frame;
 import model.shape.Shape;
 import model.shape.ShapeFactory;
 import model.shape.properties.Position;
@@ -10,6 +11,9 @@ import model.shape.properties.Position;
  */
 public class Move extends AbstractMotion {
 
+  private final double slopeX;
+  private final double slopeY;
+
   /**
    * Initializes this Move.
    *
@@ -30,6 +34,8 @@ public class Move extends AbstractMotion {
   public Move(AnimatedShape shape, int start, int end,
       Shape startShape, Shape endShape) {
     super(shape, Motions.MOVE, start, end, startShape, endShape);
+    this.slopeX = slope(startShape.getPosition().getX(), endShape.getPosition().getX());
+    this.slopeY = slope(startShape.getPosition().getY(), endShape.getPosition().getY());
   }
 
 
@@ -38,17 +44,24 @@ public class Move extends AbstractMotion {
     return ShapeFactory.make(
         this.getEndShape().getKind(),
         new Position(
-            interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getPosition().getX(),
-                this.getEndShape().getPosition().getX()),
-            interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getPosition().getY(),
-                this.getEndShape().getPosition().getY())
+            interpolate(timestamp, this.getStartShape().getPosition().getX(),
+                this.getEndShape().getPosition().getX(), this.slopeX),
+            interpolate(timestamp, this.getStartShape().getPosition().getY(),
+                this.getEndShape().getPosition().getY(), this.slopeY)
         ),
         intermediate.getDimensions(),
         intermediate.getColor());
   }
 
+  @Override
+  public void transform(Frame frame, int slot, int timestamp) {
+    frame.setPosition(slot,
+        interpolate(timestamp, this.getStartShape().getPosition().getX(),
+            this.getEndShape().getPosition().getX(), this.slopeX),
+        interpolate(timestamp, this.getStartShape().getPosition().getY(),
+            this.getEndShape().getPosition().getY(), this.slopeY));
+  }
+
   @Override
   public String toString() {
     return super.toString() + " " + this.getKind() +
@@ -1,6 +1,7 @@
 package model.motion;
 
 import model.AnimatedShape;
+import model.Frame;
 import model.shape.Shape;
 import model.shape.ShapeFactory;
 import model.shape.properties.Dimensions;
@@ -10,6 +11,9 @@ import model.shape.properties.Dimensions;
  */
 public class Scale extends AbstractMotion {
 
+  private final double slopeX;
+  private final double slopeY;
+
   /**
    * Initializes this Scale.
    *
@@ -30,6 +34,8 @@ public class Scale extends AbstractMotion {
   public Scale(AnimatedShape shape, int start, int end,
       Shape startShape, Shape endShape) {
     super(shape, Motions.SCALE, start, end, startShape, endShape);
+    this.slopeX = slope(startShape.getDimensions().getX(), endShape.getDimensions().getX());
+    this.slopeY = slope(startShape.getDimensions().getY(), endShape.getDimensions().getY());
   }
 
   @Override
@@ -38,16 +44,23 @@ public class Scale extends AbstractMotion {
         this.getEndShape().getKind(),
         intermediate.getPosition(),
         new Dimensions(
-            super.interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getDimensions().getX(),
-                this.getEndShape().getDimensions().getX()),
-            super.interpolate(timestamp, this.getStart(), this.getEnd(),
-                this.getStartShape().getDimensions().getY(),
-                this.getEndShape().getDimensions().getY())
+            interpolate(timestamp, this.getStartShape().getDimensions().getX(),
+                this.getEndShape().getDimensions().getX(), this.slopeX),
+            interpolate(timestamp, this.getStartShape().getDimensions().getY(),
+                this.getEndShape().getDimensions().getY(), this.slopeY)
         ),
         intermediate.getColor());
   }
 
+  @Override
+  public void transform(Frame frame, int slot, int timestamp) {
+    frame.setDimensions(slot,
+        interpolate(timestamp, this.getStartShape().getDimensions().getX(),
+            this.getEndShape().getDimensions().getX(), this.slopeX),
+        interpolate(timestamp, this.getStartShape().getDimensions().getY(),
+            this.getEndShape().getDimensions().getY(), this.slopeY));
+  }
+
   @Override
   public String toString() {
     return super.toString() + " " + this.getKind() +
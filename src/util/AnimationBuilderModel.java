@@ -1,5 +1,6 @@
 package util;
 
+import java.util.Objects;
 import model.AnimationModel;
 import model.AnimationModelImpl;
 import model.shape.Shapes;
@@ -15,7 +16,17 @@ public class AnimationBuilderModel implements AnimationBuilder<AnimationModel> {
    * Initializes new builder with a {@link AnimationModelImpl} as a target document.
    */
   public AnimationBuilderModel() {
-    this.model = new AnimationModelImpl();
+    this(new AnimationModelImpl());
+  }
+
+  /**
+   * Initializes new builder with the provided model as a target document.
+   *
+   * @param model an empty model to build
+   * @throws NullPointerException if the provided model is null
+   */
+  public AnimationBuilderModel(AnimationModel model) throws NullPointerException {
+    this.model = Objects.requireNonNull(model, "The model to build cannot be null");
   }
 
   @Override
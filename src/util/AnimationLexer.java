@@ -0,0 +1,233 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Splits the animation text into tokens without regular expressions. Whitespace and # comments are
+ * skipped by hand, and integers are parsed straight from the characters of the token, so only names
+ * and error messages create Strings. Names are interned, so a name repeated on many lines creates
+ * a String only once. Subclasses provide the text in large blocks of characters.
+ *
+ * <p>Tokens are separated the same way the {@link java.util.Scanner} of the reader used to separate
+ * them: by whitespace, and by comments running from a # to the end of the line.
+ */
+abstract class AnimationLexer {
+
+  static final int BLOCK = 1 << 16;
+
+  private final char[] chars;
+  private int position;
+  private int limit;
+  private boolean exhausted;
+
+  private char[] token;
+  private int tokenLength;
+  private final NameTable names;
+
+  /**
+   * Instantiates a lexer at the beginning of the text.
+   */
+  protected AnimationLexer() {
+    this.chars = new char[BLOCK];
+    this.position = 0;
+    this.limit = 0;
+    this.exhausted = false;
+    this.token = new char[64];
+    this.tokenLength = 0;
+    this.names = new NameTable();
+  }
+
+  /**
+   * Reads the next block of the text into the given array, from its beginning.
+   *
+   * @param block an array to read the text into
+   * @return the number of characters read, or -1 at the end of the text
+   * @throws IllegalStateException if the text cannot be read
+   */
+  protected abstract int fill(char[] block) throws IllegalStateException;
+
+  /*
+  Helper method that returns the next character without consuming it, or -1 at the end of the
+  text.
+   */
+  private int peek() {
+    while (this.position == this.limit) {
+      if (this.exhausted) {
+        return -1;
+      }
+      int read = fill(this.chars);
+      if (read < 0) {
+        this.exhausted = true;
+      } else {
+        this.position = 0;
+        this.limit = read;
+      }
+    }
+    return this.chars[this.position];
+  }
+
+  /**
+   * Checks if the character ends a line, which ends a comment.
+   *
+   * @param c a character of the text
+   * @return true if the character ends a line
+   */
+  protected boolean isLineEnd(int c) {
+    return c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+  }
+
+  /**
+   * Returns the given characters of the text as a String.
+   *
+   * @param chars  the characters
+   * @param length the number of characters to take from the array
+   * @return the characters as a String
+   */
+  protected String decode(char[] chars, int length) {
+    return new String(chars, 0, length);
+  }
+
+  /*
+  Helper method that checks if the character is whitespace, as the \p{Space} class defines it.
+   */
+  private static boolean isSpace(int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+  }
+
+  /*
+  Helper method that skips the whitespace and the comments before the next token.
+   */
+  private void skipSeparators() {
+    int c = peek();
+    while (c != -1) {
+      if (isSpace(c)) {
+        this.position++;
+      } else if (c == '#') {
+        while (c != -1 && !isLineEnd(c)) {
+          this.position++;
+          c = peek();
+        }
+      } else {
+        return;
+      }
+      c = peek();
+    }
+  }
+
+  /**
+   * Reads the next token, which is then described by the other methods of this lexer.
+   *
+   * @return true if a token was read, false if there are no more tokens
+   */
+  boolean nextToken() {
+    skipSeparators();
+    this.tokenLength = 0;
+    int c = peek();
+    while (c != -1 && !isSpace(c) && c != '#') {
+      if (this.tokenLength == this.token.length) {
+        this.token = Arrays.copyOf(this.token, this.tokenLength * 2);
+      }
+      this.token[this.tokenLength++] = (char) c;
+      this.position++;
+      c = peek();
+    }
+    return this.tokenLength > 0;
+  }
+
+  /**
+   * Checks if the current token is the given word, without creating a String.
+   *
+   * @param word a word to compare the token with
+   * @return true if the token is the given word
+   */
+  boolean tokenIs(String word) {
+    if (word.length() != this.tokenLength) {
+      return false;
+    }
+    for (int i = 0; i < this.tokenLength; i++) {
+      if (this.token[i] != word.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the current token is an integer: an optional sign followed by decimal digits, within
+   * the range of an int.
+   *
+   * @return true if the token is an integer
+   */
+  boolean tokenIsInt() {
+    int i = 0;
+    if (this.tokenLength > 0 && (this.token[0] == '-' || this.token[0] == '+')) {
+      i++;
+    }
+    if (i == this.tokenLength) {
+      return false;
+    }
+    long value = 0;
+    for (; i < this.tokenLength; i++) {
+      char c = this.token[i];
+      if (c < '0' || c > '9') {
+        return false;
+      }
+      value = value * 10 + (c - '0');
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        return false;
+      }
+    }
+    return this.token[0] == '-' || value <= Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the value of the current token, which must be an integer.
+   *
+   * @return the value of the token
+   */
+  int tokenAsInt() {
+    boolean negative = this.token[0] == '-';
+    int i = negative || this.token[0] == '+' ? 1 : 0;
+    // accumulated as a negative number, so the smallest int does not overflow
+    int value = 0;
+    for (; i < this.tokenLength; i++) {
+      value = value * 10 - (this.token[i] - '0');
+    }
+    return negative ? value : -value;
+  }
+
+  /**
+   * Returns the current token as a String.
+   *
+   * @return the current token
+   */
+  String token() {
+    return decode(this.token, this.tokenLength);
+  }
+
+  /**
+   * Returns the current token as a name. The same String is returned for every token with the same
+   * characters, so reading a name that was read before creates no objects.
+   *
+   * @return the current token
+   */
+  String tokenAsName() {
+    return this.names.intern(this.token, this.tokenLength, this);
+  }
+
+  /**
+   * Reads the rest of the current line, right after the current token, without the line end.
+   *
+   * @return the rest of the current line
+   */
+  String restOfLine() {
+    StringBuilder line = new StringBuilder();
+    int c = peek();
+    while (c != -1 && !isLineEnd(c)) {
+      line.append((char) c);
+      this.position++;
+      c = peek();
+    }
+    return line.toString();
+  }
+}
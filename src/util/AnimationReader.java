@@ -1,14 +1,39 @@
 package util;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Scanner;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A helper to read animation data and construct an animation from it.
  */
 public class AnimationReader {
 
+  private static final String[] KEYWORDS = {"canvas", "shape", "motion", "include"};
+  private static final int CHUNKS_PER_THREAD = 4;
+  private static final long MIN_CHUNK = 1 << 20;
+  private static final String[] CANVAS_FIELDS = {"left", "top", "width", "height"};
+  private static final String[] MOTION_FIELDS = {
+      "initial time",
+      "initial x-coordinate", "initial y-coordinate",
+      "initial width", "initial height",
+      "initial red value", "initial green value", "initial blue value",
+      "final time",
+      "final x-coordinate", "final y-coordinate",
+      "final width", "final height",
+      "final red value", "final green value", "final blue value",
+  };
+
   /**
    * A factory for producing new animations, given a source of shapes and a builder for constructing
    * animations.
@@ -24,6 +49,11 @@ public class AnimationReader {
    * eight numbers giving the time, the x and y coordinates, the width and height,
    * and the red, green and blue color values at the start of the motion; followed by
    * eight numbers for the end of the motion.  See {@link AnimationBuilder#addMotion}</li>
+   * <li>Include lines: the keyword "include" followed by the path of another animation file, and
+   * optionally by a number of ticks to shift the motions of that file by. The records of the file
+   * are read in place of the line, except for its canvas. A relative path is resolved against the
+   * directory of the including file, or the working directory when reading from a {@link
+   * Readable}, and a file cannot include itself.</li>
    * </ul>
    * </p>
    *
@@ -34,89 +64,347 @@ public class AnimationReader {
   public static <Doc> Doc parseFile(Readable readable, AnimationBuilder<Doc> builder) {
     Objects.requireNonNull(readable, "Must have non-null readable source");
     Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
-    Scanner s = new Scanner(readable);
-    // Split at whitespace, and ignore # comment lines
-    s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+"));
-    while (s.hasNext()) {
-      String word = s.next();
-      switch (word) {
-        case "canvas":
-          readCanvas(s, builder);
-          break;
-        case "shape":
-          readShape(s, builder);
-          break;
-        case "motion":
-          readMotion(s, builder);
-          break;
-        default:
-          throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine());
+    return parse(new ReadableLexer(readable), builder, new Includes());
+  }
+
+  /**
+   * A factory for producing new animations from a file, in the format described by {@link
+   * #parseFile(Readable, AnimationBuilder)}. The file is memory-mapped and its bytes are read
+   * directly, which is faster for large files than reading it through a {@link Readable}.
+   *
+   * <p>A file compressed with gzip or zlib is recognized by its first bytes, and decompressed on
+   * a separate thread while it is read, without being written out anywhere. Included files are
+   * read one after another.
+   *
+   * @param path    The file to read the animation from
+   * @param builder A builder for helping to construct a new animation
+   * @param <Doc>   The Main model interface type describing animations
+   * @throws IOException           if the file cannot be opened or mapped
+   * @throws IllegalStateException if the file is compressed in a way that cannot be read
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder) throws IOException {
+    Objects.requireNonNull(path, "Must have non-null file path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return parseWhole(channel, builder, new Includes(null, path));
+    }
+  }
+
+  /*
+  Helper method that reads the whole given file on the calling thread, decompressing it on a
+  separate thread if it is compressed.
+   */
+  private static <Doc> Doc parseWhole(FileChannel channel, AnimationBuilder<Doc> builder,
+      Includes includes) throws IOException {
+    int compression = CompressedLexer.compressionOf(channel);
+    if (compression == 0) {
+      return parse(new MappedLexer(channel), builder, includes);
+    }
+    try (CompressedLexer lexer = new CompressedLexer(Channels.newInputStream(channel),
+        compression)) {
+      return parse(lexer, builder, includes);
+    }
+  }
+
+  /**
+   * Reads the given included file into a batch of records. An error of the file is reported with
+   * the name of the file.
+   *
+   * @param path     the included file
+   * @param includes the files the included file can include
+   * @return the records of the file
+   * @throws IllegalStateException if the file cannot be read
+   */
+  static RecordBatch readIncluded(Path path, Includes includes) throws IllegalStateException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return parseWhole(channel, new RecordBatch(), includes);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the included animation: " + path);
+    } catch (IllegalStateException e) {
+      throw new IllegalStateException(path.getFileName() + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * A factory for producing new animations from a file, in the format described by {@link
+   * #parseFile(Readable, AnimationBuilder)}, reading the file on the given number of threads. The
+   * file is split into chunks at the beginnings of lines that start with a keyword, the chunks are
+   * read concurrently into batches of records, and the batches are passed to the builder in the
+   * order of the file on the calling thread, so shapes are still declared before they are used and
+   * the builder does not have to be thread-safe.
+   *
+   * <p>The result and the errors are the same as when reading the file on one thread. A chunk that
+   * cannot be read on its own, because it is malformed or does not start at a record after all, is
+   * read again together with the rest of the file on the calling thread, which then reports the
+   * error of the file, if any.
+   *
+   * <p>A compressed file is read on the calling thread while it is decompressed on another, as
+   * described by {@link #parseFile(Path, AnimationBuilder)}, since it cannot be split.
+   *
+   * <p>Included files are read on the same threads, each as a whole, starting as soon as their
+   * include line has been read, so a file made of many included files is read on all the threads
+   * even when it is small itself.
+   *
+   * @param path    The file to read the animation from
+   * @param builder A builder for helping to construct a new animation
+   * @param threads The number of threads to read the file on
+   * @param <Doc>   The Main model interface type describing animations
+   * @throws IOException              if the file cannot be opened or mapped
+   * @throws IllegalArgumentException if the number of threads is not positive
+   * @throws IllegalStateException    if the file is compressed in a way that cannot be read
+   */
+  public static <Doc> Doc parseFile(Path path, AnimationBuilder<Doc> builder, int threads)
+      throws IOException, IllegalArgumentException {
+    Objects.requireNonNull(path, "Must have non-null file path");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    if (threads < 1) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    if (threads == 1) {
+      return parseFile(path, builder);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      Includes includes = new Includes(pool, path);
+      if (CompressedLexer.compressionOf(channel) != 0) {
+        return parseWhole(channel, builder, includes);
+      }
+      long[] bounds = split(channel, threads * CHUNKS_PER_THREAD);
+      if (bounds.length == 2) {
+        return parse(new MappedLexer(channel), builder, includes);
       }
+
+      List<Future<RecordBatch>> batches = new ArrayList<>();
+      for (int i = 0; i + 1 < bounds.length; i++) {
+        long from = bounds[i];
+        long to = bounds[i + 1];
+        batches.add(pool.submit(() -> parseChunk(channel, from, to, includes)));
+      }
+      for (int i = 0; i < batches.size(); i++) {
+        RecordBatch batch = await(batches.get(i));
+        if (batch == null) {
+          return parse(new MappedLexer(channel, bounds[i], channel.size()), builder, includes);
+        }
+        batch.replay(builder);
+      }
+      return builder.build();
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /*
+  Helper method that reads the given range of the file into a batch of records, or returns null
+  if the range cannot be read on its own.
+   */
+  private static RecordBatch parseChunk(FileChannel channel, long from, long to,
+      Includes includes) {
+    try {
+      return parse(new MappedLexer(channel, from, to), new RecordBatch(), includes);
+    } catch (IllegalStateException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Waits for a batch of records being read on another thread.
+   *
+   * @param batch the batch to wait for
+   * @return the batch, or null if it could not be read on its own
+   * @throws IllegalStateException if the batch could not be read
+   */
+  static RecordBatch await(Future<RecordBatch> batch) throws IllegalStateException {
+    try {
+      return batch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading the animation");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Could not read the animation: " + e.getCause());
+    }
+  }
+
+  /*
+  Helper method that returns the positions that split the file into about the given number of
+  chunks, including the beginning and the end of the file. Every chunk but the first starts at the
+  beginning of a line that starts with a keyword.
+   */
+  private static long[] split(FileChannel channel, int chunks) throws IOException {
+    long size = channel.size();
+    long chunkSize = Math.max(MIN_CHUNK, size / chunks);
+    List<Long> bounds = new ArrayList<>();
+    bounds.add(0L);
+    long from = chunkSize;
+    while (from < size) {
+      long boundary = nextRecord(channel, from, size);
+      if (boundary >= size) {
+        break;
+      }
+      bounds.add(boundary);
+      from = boundary + chunkSize;
+    }
+    bounds.add(size);
+    return bounds.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /*
+  Helper method that returns the position of the first line after the given position that starts
+  with a keyword, or the size of the file if there is none.
+   */
+  private static long nextRecord(FileChannel channel, long from, long size) throws IOException {
+    ByteBuffer block = ByteBuffer.allocate(1 << 12);
+    long position = from;
+    while (position < size) {
+      block.clear();
+      if (channel.read(block, position) <= 0) {
+        break;
+      }
+      for (int i = 0; i < block.position(); i++) {
+        if (block.get(i) == '\n' && startsRecord(channel, position + i + 1)) {
+          return position + i + 1;
+        }
+      }
+      position += block.position();
+    }
+    return size;
+  }
+
+  /*
+  Helper method that checks if the line at the given position starts with a keyword.
+   */
+  private static boolean startsRecord(FileChannel channel, long position) throws IOException {
+    ByteBuffer line = ByteBuffer.allocate(64);
+    channel.read(line, position);
+    int i = 0;
+    while (i < line.position() && (line.get(i) == ' ' || line.get(i) == '\t')) {
+      i++;
+    }
+    for (String keyword : KEYWORDS) {
+      int end = i + keyword.length();
+      if (end >= line.position()) {
+        continue;
+      }
+      boolean matches = true;
+      for (int k = 0; k < keyword.length() && matches; k++) {
+        matches = line.get(i + k) == keyword.charAt(k);
+      }
+      byte next = line.get(end);
+      if (matches && (next == ' ' || next == '\t' || next == '\r' || next == '\n')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+  Reads all the tokens from the given lexer and passes them to the builder. Once a file has been
+  included, the records after it wait in a batch for the records of the file, unless the builder is
+  a batch itself, which keeps the included file as it is.
+   */
+  private static <Doc> Doc parse(AnimationLexer s, AnimationBuilder<Doc> builder,
+      Includes includes) {
+    int[] vals = new int[16];
+    AnimationBuilder<?> target = builder;
+    RecordBatch deferred = builder instanceof RecordBatch ? (RecordBatch) builder : null;
+    while (s.nextToken()) {
+      if (s.tokenIs("canvas")) {
+        readCanvas(s, target, vals);
+      } else if (s.tokenIs("shape")) {
+        readShape(s, target);
+      } else if (s.tokenIs("motion")) {
+        readMotion(s, target, vals);
+      } else if (s.tokenIs("include")) {
+        if (deferred == null) {
+          deferred = new RecordBatch();
+          target = deferred;
+        }
+        readInclude(s, deferred, includes);
+      } else {
+        throw new IllegalStateException("Unexpected keyword: " + s.token() + s.restOfLine());
+      }
+    }
+    if (deferred != null && deferred != builder) {
+      deferred.replay(builder);
     }
     return builder.build();
   }
 
-  private static <Doc> void readCanvas(Scanner s, AnimationBuilder<Doc> builder) {
-    int[] vals = new int[4];
-    String[] fieldNames = {"left", "top", "width", "height"};
+  private static <Doc> void readCanvas(AnimationLexer s, AnimationBuilder<Doc> builder,
+      int[] vals) {
     for (int i = 0; i < 4; i++) {
-      vals[i] = getInt(s, "Canvas", fieldNames[i]);
+      vals[i] = getInt(s, "Canvas", CANVAS_FIELDS[i]);
     }
     builder.setBounds(vals[0], vals[1], vals[2], vals[3]);
   }
 
-  private static <Doc> void readShape(Scanner s, AnimationBuilder<Doc> builder) {
+  private static <Doc> void readShape(AnimationLexer s, AnimationBuilder<Doc> builder) {
     String name;
     String type;
-    if (s.hasNext()) {
-      name = s.next();
+    if (s.nextToken()) {
+      name = s.tokenAsName();
     } else {
       throw new IllegalStateException("Shape: Expected a name, but no more input available");
     }
-    if (s.hasNext()) {
-      type = s.next();
+    if (s.nextToken()) {
+      type = s.tokenAsName();
     } else {
       throw new IllegalStateException("Shape: Expected a type, but no more input available");
     }
     builder.declareShape(name, type);
   }
 
-  private static <Doc> void readMotion(Scanner s, AnimationBuilder<Doc> builder) {
-    String[] fieldNames = new String[]{
-        "initial time",
-        "initial x-coordinate", "initial y-coordinate",
-        "initial width", "initial height",
-        "initial red value", "initial green value", "initial blue value",
-        "final time",
-        "final x-coordinate", "final y-coordinate",
-        "final width", "final height",
-        "final red value", "final green value", "final blue value",
-    };
-    int[] vals = new int[16];
+  private static <Doc> void readMotion(AnimationLexer s, AnimationBuilder<Doc> builder,
+      int[] vals) {
     String name;
-    if (s.hasNext()) {
-      name = s.next();
+    if (s.nextToken()) {
+      name = s.tokenAsName();
     } else {
       throw new IllegalStateException("Motion: Expected a shape name, but no more input available");
     }
     for (int i = 0; i < 16; i++) {
-      vals[i] = getInt(s, "Motion", fieldNames[i]);
+      vals[i] = getInt(s, "Motion", MOTION_FIELDS[i]);
     }
     builder.addMotion(name,
         vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7],
         vals[8], vals[9], vals[10], vals[11], vals[12], vals[13], vals[14], vals[15]);
   }
 
-  private static int getInt(Scanner s, String label, String fieldName) {
-    if (s.hasNextInt()) {
-      return s.nextInt();
-    } else if (s.hasNext()) {
-      throw new IllegalStateException(
-          String.format("%s: expected integer for %s, got: %s", label, fieldName, s.next()));
-    } else {
+  private static void readInclude(AnimationLexer s, RecordBatch batch, Includes includes) {
+    if (!s.nextToken()) {
+      throw new IllegalStateException("Include: Expected a path, but no more input available");
+    }
+    String path = s.token();
+    // the offset is optional, so it is read from the rest of the line instead of the next token
+    String offset = s.restOfLine();
+    if (offset.indexOf('#') >= 0) {
+      offset = offset.substring(0, offset.indexOf('#'));
+    }
+    offset = offset.trim();
+    int ticks = 0;
+    if (!offset.isEmpty()) {
+      try {
+        ticks = Integer.parseInt(offset);
+      } catch (NumberFormatException e) {
+        throw new IllegalStateException("Include: expected integer for time offset, got: "
+            + offset);
+      }
+    }
+    batch.include(includes.include(path), ticks);
+  }
+
+  private static int getInt(AnimationLexer s, String label, String fieldName) {
+    if (!s.nextToken()) {
       throw new IllegalStateException(
           String.format("%s: expected integer for %s, but no more input available",
               label, fieldName));
+    } else if (s.tokenIsInt()) {
+      return s.tokenAsInt();
+    } else {
+      throw new IllegalStateException(
+          String.format("%s: expected integer for %s, got: %s", label, fieldName, s.token()));
     }
   }
 
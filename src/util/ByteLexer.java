@@ -0,0 +1,40 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents a lexer reading the animation text from UTF-8 bytes without a charset decoder: each
+ * byte is widened to a character. The separators and the numbers of the format are ASCII, so they
+ * are read byte by byte, and the few tokens that become Strings, i.e. the names, are decoded from
+ * UTF-8.
+ */
+abstract class ByteLexer extends AnimationLexer {
+
+  /**
+   * Widens the given bytes to characters, into the given array from its beginning.
+   *
+   * @param bytes the bytes to widen
+   * @param count the number of bytes to take from the array
+   * @param block an array to write the characters into
+   */
+  static void widen(byte[] bytes, int count, char[] block) {
+    for (int i = 0; i < count; i++) {
+      block[i] = (char) (bytes[i] & 0xFF);
+    }
+  }
+
+  @Override
+  protected boolean isLineEnd(int c) {
+    // the other line ends are not single bytes in UTF-8
+    return c == '\n' || c == '\r';
+  }
+
+  @Override
+  protected String decode(char[] chars, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) chars[i];
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
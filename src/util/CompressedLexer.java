@@ -0,0 +1,192 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Represents a lexer reading the animation text from a compressed file. The file is decompressed on
+ * a separate thread, which hands the bytes to the lexer in blocks through a bounded queue, so the
+ * decompression and the reading of the tokens run at the same time, and at most {@value #BLOCKS}
+ * blocks are held in memory. The blocks are handed back to the decompressing thread once read, so
+ * they are reused for the whole file.
+ *
+ * <p>Files compressed with gzip, and with deflate in the zlib format, are supported. A file that
+ * starts like zlib data but whose first block does not inflate is read as text. Files compressed
+ * with xz or zstd are recognized, but the JDK cannot decompress them.
+ */
+final class CompressedLexer extends ByteLexer implements AutoCloseable {
+
+  static final int BLOCKS = 4;
+
+  private static final int GZIP = 1;
+  private static final int ZLIB = 2;
+  private static final int XZ = 3;
+  private static final int ZSTD = 4;
+
+  private final BlockingQueue<ByteBuffer> full;
+  private final BlockingQueue<ByteBuffer> free;
+  private final Thread decompressor;
+  private final byte[] bytes;
+  private volatile IOException failure;
+  private boolean ended;
+
+  /**
+   * Instantiates a lexer reading the given compressed stream, which is decompressed on a new thread
+   * and closed once read.
+   *
+   * @param in          a compressed stream of the animation text
+   * @param compression the compression of the stream, as returned by {@link #compressionOf}
+   * @throws IOException if the stream cannot be read
+   */
+  CompressedLexer(InputStream in, int compression) throws IOException {
+    InputStream decompressed = compression == GZIP
+        ? new GZIPInputStream(in, BLOCK) : new InflaterInputStream(in);
+    this.full = new ArrayBlockingQueue<>(BLOCKS + 1);
+    this.free = new ArrayBlockingQueue<>(BLOCKS);
+    for (int i = 0; i < BLOCKS; i++) {
+      this.free.add(ByteBuffer.allocate(BLOCK));
+    }
+    this.bytes = new byte[BLOCK];
+    this.failure = null;
+    this.ended = false;
+    this.decompressor = new Thread(() -> decompress(decompressed), "Decompressor");
+    this.decompressor.setDaemon(true);
+    this.decompressor.start();
+  }
+
+  /**
+   * Returns the compression of the given file, judging by its first bytes, or 0 if it is not
+   * compressed. The position of the channel is not changed.
+   *
+   * @param channel a channel of the file to check
+   * @return the compression of the file, or 0 if it is not compressed
+   * @throws IOException           if the file cannot be read
+   * @throws IllegalStateException if the file is compressed in a way that cannot be read
+   */
+  static int compressionOf(FileChannel channel) throws IOException {
+    ByteBuffer start = ByteBuffer.allocate(6);
+    while (start.hasRemaining() && channel.read(start, start.position()) > 0) {
+      continue;
+    }
+    byte[] b = start.array();
+    int length = start.position();
+    if (length >= 2 && b[0] == (byte) 0x1F && b[1] == (byte) 0x8B) {
+      return GZIP;
+    }
+    // a zlib header is a deflate method byte and a flag byte making a multiple of 31, which some
+    // text starts with too, so it is only taken for zlib if its first block inflates
+    if (length >= 2 && (b[0] & 0x0F) == 8 && (b[0] & 0xFF) >> 4 <= 7
+        && ((b[0] & 0xFF) << 8 | b[1] & 0xFF) % 31 == 0 && inflates(channel)) {
+      return ZLIB;
+    }
+    if (length >= 6 && b[0] == (byte) 0xFD && b[1] == '7' && b[2] == 'z' && b[3] == 'X'
+        && b[4] == 'Z' && b[5] == 0) {
+      throw new IllegalStateException("Animations compressed with xz cannot be read");
+    }
+    if (length >= 4 && b[0] == 0x28 && b[1] == (byte) 0xB5 && b[2] == 0x2F
+        && b[3] == (byte) 0xFD) {
+      throw new IllegalStateException("Animations compressed with zstd cannot be read");
+    }
+    return 0;
+  }
+
+  /*
+  Helper method that returns whether the first block of the given file inflates as zlib data,
+  without a preset dictionary, which the lexer cannot provide.
+   */
+  private static boolean inflates(FileChannel channel) throws IOException {
+    ByteBuffer first = ByteBuffer.allocate(BLOCK);
+    while (first.hasRemaining() && channel.read(first, first.position()) > 0) {
+      continue;
+    }
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(first.array(), 0, first.position());
+      byte[] inflated = new byte[BLOCK];
+      while (!inflater.finished() && !inflater.needsInput() && !inflater.needsDictionary()) {
+        inflater.inflate(inflated);
+      }
+      return !inflater.needsDictionary();
+    } catch (DataFormatException e) {
+      return false;
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /*
+  Helper method that decompresses the stream into the free blocks and queues them for the lexer,
+  until the end of the stream, an error, or the lexer is closed.
+   */
+  private void decompress(InputStream in) {
+    try (InputStream stream = in) {
+      while (true) {
+        ByteBuffer block = this.free.take();
+        block.clear();
+        byte[] array = block.array();
+        int read = 0;
+        while (read < array.length) {
+          int count = stream.read(array, read, array.length - read);
+          if (count < 0) {
+            break;
+          }
+          read += count;
+        }
+        block.limit(read);
+        this.full.put(block);
+        if (read < array.length) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      this.failure = e;
+      // an empty block tells the lexer the text ended, which is then reported as a failure
+      this.full.offer(ByteBuffer.allocate(0));
+    } catch (InterruptedException e) {
+      // the lexer was closed before the end of the stream
+    }
+  }
+
+  @Override
+  protected int fill(char[] block) throws IllegalStateException {
+    if (this.ended) {
+      return -1;
+    }
+    ByteBuffer next;
+    try {
+      next = this.full.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading the animation");
+    }
+    if (this.failure != null) {
+      throw new IllegalStateException("Could not read the animation: "
+          + this.failure.getMessage());
+    }
+    int count = next.remaining();
+    next.get(this.bytes, 0, count);
+    widen(this.bytes, count, block);
+    if (count < BLOCK) {
+      this.ended = true;
+    } else {
+      this.free.add(next);
+    }
+    return count == 0 ? -1 : count;
+  }
+
+  /**
+   * Stops the decompression, if the lexer has not read the whole text.
+   */
+  @Override
+  public void close() {
+    this.decompressor.interrupt();
+  }
+}
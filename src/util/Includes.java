@@ -0,0 +1,95 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Represents the files that can be included by the animation file being read. An included file is
+ * read into a batch of records as soon as its include directive is read, on a pool of threads if
+ * there is one, so many included files are read at the same time while the including file is still
+ * being read. Paths are resolved against the directory of the including file, and a file cannot
+ * include itself, directly or through other files.
+ */
+final class Includes {
+
+  private final ExecutorService pool;
+  private final Path directory;
+  // the files that include the file being read, and the file itself, outermost first
+  private final List<Path> chain;
+
+  /**
+   * Instantiates the includes of an animation that is not read from a file, which are read on the
+   * calling thread, with their paths resolved against the working directory.
+   */
+  Includes() {
+    this.pool = null;
+    this.directory = Paths.get("");
+    this.chain = new ArrayList<>();
+  }
+
+  /**
+   * Instantiates the includes of a file that is not included by any other file.
+   *
+   * @param pool the threads to read the included files on, or null to read them on the calling
+   *             thread
+   * @param file the file being read
+   * @throws IOException if the file does not exist
+   */
+  Includes(ExecutorService pool, Path file) throws IOException {
+    this.pool = pool;
+    this.chain = new ArrayList<>();
+    Path real = file.toRealPath();
+    this.directory = real.getParent();
+    this.chain.add(real);
+  }
+
+  /*
+  Instantiates the includes of a file included through the given chain of files.
+   */
+  private Includes(ExecutorService pool, List<Path> chain) {
+    this.pool = pool;
+    this.directory = chain.get(chain.size() - 1).getParent();
+    this.chain = chain;
+  }
+
+  /**
+   * Starts reading the file at the given path into a batch of records, and returns the batch to
+   * come. Without a pool, the file is read right away. An error of the file is reported once the
+   * batch is waited for.
+   *
+   * @param path the path of the file, as written in the include directive
+   * @return the batch of records of the file
+   * @throws IllegalStateException if the file does not exist, or it includes itself
+   */
+  Future<RecordBatch> include(String path) throws IllegalStateException {
+    Path file;
+    try {
+      file = this.directory.resolve(path).toRealPath();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the included animation: " + path);
+    }
+    if (this.chain.contains(file)) {
+      throw new IllegalStateException("An animation cannot include itself: " + path);
+    }
+    List<Path> chain = new ArrayList<>(this.chain);
+    chain.add(file);
+    Includes includes = new Includes(this.pool, chain);
+    if (this.pool == null) {
+      // an error is kept for later as on a pool, so it is reported in the same way
+      CompletableFuture<RecordBatch> batch = new CompletableFuture<>();
+      try {
+        batch.complete(AnimationReader.readIncluded(file, includes));
+      } catch (IllegalStateException e) {
+        batch.completeExceptionally(e);
+      }
+      return batch;
+    }
+    return this.pool.submit(() -> AnimationReader.readIncluded(file, includes));
+  }
+}
@@ -0,0 +1,84 @@
+package util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Represents a lexer reading the animation text straight from the bytes of a memory-mapped file,
+ * without going through a charset decoder or an intermediate buffer of bytes. The file is mapped
+ * in windows of at most {@value #WINDOW} bytes, so files larger than a single mapping can be read
+ * too.
+ */
+final class MappedLexer extends ByteLexer {
+
+  static final int WINDOW = 1 << 30;
+
+  private final FileChannel channel;
+  private final long end;
+  private long offset;
+  private MappedByteBuffer window;
+  private int position;
+  private int limit;
+
+  /**
+   * Instantiates a lexer reading the given file, which must stay open while it is read.
+   *
+   * @param channel a channel of the file to read
+   * @throws IOException if the size of the file cannot be read
+   */
+  MappedLexer(FileChannel channel) throws IOException {
+    this(channel, 0, channel.size());
+  }
+
+  /**
+   * Instantiates a lexer reading the given range of bytes of the given file, which must stay open
+   * while it is read.
+   *
+   * @param channel a channel of the file to read
+   * @param from    the position of the first byte to read
+   * @param to      the position right after the last byte to read
+   */
+  MappedLexer(FileChannel channel, long from, long to) {
+    this.channel = channel;
+    this.end = to;
+    this.offset = from;
+    this.position = 0;
+    this.limit = 0;
+    this.window = null;
+  }
+
+  /*
+  Helper method that maps the window of the file starting right after the current one.
+   */
+  private void map() throws IOException {
+    this.offset += this.limit;
+    this.limit = (int) Math.min(WINDOW, this.end - this.offset);
+    this.position = 0;
+    this.window = this.channel.map(MapMode.READ_ONLY, this.offset, this.limit);
+  }
+
+  @Override
+  protected int fill(char[] block) throws IllegalStateException {
+    if (this.position == this.limit) {
+      if (this.offset + this.limit == this.end) {
+        return -1;
+      }
+      try {
+        map();
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not read the animation: " + e.getMessage());
+      }
+    }
+    // the bytes are widened straight from the mapping, with absolute reads that copy nothing else
+    int count = Math.min(block.length, this.limit - this.position);
+    MappedByteBuffer window = this.window;
+    int position = this.position;
+    for (int i = 0; i < count; i++) {
+      block[i] = (char) (window.get(position + i) & 0xFF);
+    }
+    this.position += count;
+    return count;
+  }
+}
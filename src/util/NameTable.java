@@ -0,0 +1,106 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Represents a table of the names read by a lexer, so a name that appears on many lines is decoded
+ * into a String only the first time and the same String is returned every other time. Names are
+ * looked up straight from the characters of the token, without creating a String for the lookup.
+ */
+final class NameTable {
+
+  private char[][] keys;
+  private String[] values;
+  private int[] hashes;
+  private int size;
+
+  /**
+   * Instantiates an empty table.
+   */
+  NameTable() {
+    this.keys = new char[64][];
+    this.values = new String[64];
+    this.hashes = new int[64];
+    this.size = 0;
+  }
+
+  /**
+   * Returns the name made of the given characters, decoding it with the given lexer if the table
+   * does not have it yet.
+   *
+   * @param chars  the characters of the name
+   * @param length the number of characters to take from the array
+   * @param lexer  the lexer to decode a new name with
+   * @return the name, the same String for the same characters
+   */
+  String intern(char[] chars, int length, AnimationLexer lexer) {
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    int mask = this.keys.length - 1;
+    int slot = mix(hash) & mask;
+    while (this.keys[slot] != null) {
+      if (this.hashes[slot] == hash && matches(this.keys[slot], chars, length)) {
+        return this.values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    String value = lexer.decode(chars, length);
+    this.keys[slot] = Arrays.copyOf(chars, length);
+    this.values[slot] = value;
+    this.hashes[slot] = hash;
+    if (++this.size * 2 > this.keys.length) {
+      grow();
+    }
+    return value;
+  }
+
+  /*
+  Helper method that spreads the bits of the hash, so names that differ only in their last
+  characters do not fall into neighbouring slots.
+   */
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ h >>> 16;
+  }
+
+  /*
+  Helper method that checks if the key is made of the given characters.
+   */
+  private static boolean matches(char[] key, char[] chars, int length) {
+    if (key.length != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key[i] != chars[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+  Helper method that doubles the number of slots of the table.
+   */
+  private void grow() {
+    char[][] oldKeys = this.keys;
+    String[] oldValues = this.values;
+    int[] oldHashes = this.hashes;
+    this.keys = new char[oldKeys.length * 2][];
+    this.values = new String[oldKeys.length * 2];
+    this.hashes = new int[oldKeys.length * 2];
+    int mask = this.keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = mix(oldHashes[i]) & mask;
+        while (this.keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = oldKeys[i];
+        this.values[slot] = oldValues[i];
+        this.hashes[slot] = oldHashes[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,359 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import model.AnimationModelColumnar;
+import model.AnimationModelView;
+import model.AnimationVisitor;
+import model.Canvas;
+import model.Frame;
+import model.FrameCursor;
+import model.GrowingFrameCursor;
+import model.shape.Shape;
+
+/**
+ * Represents an animation that can be played while it is still being read. The file is read into an
+ * {@link AnimationModelColumnar} on a background thread, and the frame at a tick is computed as
+ * soon as every motion starting at or before that tick has been read.
+ *
+ * <p>This only works when the motions of the file are sorted by their start: a motion starting
+ * after the tick proves that all the earlier ones have been read. As soon as a motion starts before
+ * one that was read before it, the animation falls back to waiting for the whole file, although the
+ * frames already played are not played again. A shape whose motions read so far end before the
+ * tick may either have ended or be resting until a later motion, so the frame also waits until
+ * such a motion has been read, or the whole file has, which the reader, being much faster than the
+ * playback, normally has done long before.
+ *
+ * <p>The length grows while the file is read, so the animation is played by checking the length
+ * after every frame, as the visual view does. A view that reads the length once before it starts
+ * writing every frame would stop at the part read so far.
+ */
+public final class ProgressiveAnimation implements AnimationModelView {
+
+  private final Object lock;
+  private final AnimationModelColumnar model;
+  private final AnimationBuilderModel builder;
+  // the latest start of the motions read so far
+  private int latestStart;
+  private boolean sorted;
+  private boolean loaded;
+  private RuntimeException error;
+  private int waiting;
+
+  /*
+  Instantiates an animation that has not been read yet.
+   */
+  private ProgressiveAnimation() {
+    this.lock = new Object();
+    this.model = new AnimationModelColumnar();
+    this.builder = new AnimationBuilderModel(this.model);
+    this.latestStart = -1;
+    this.sorted = true;
+    this.loaded = false;
+    this.error = null;
+    this.waiting = 0;
+  }
+
+  /**
+   * Starts reading the given file on a background thread and returns the animation, which can be
+   * played right away.
+   *
+   * @param path    the file to read
+   * @param threads the number of threads to read the file on
+   * @return the animation being read
+   * @throws IllegalArgumentException if the number of threads is not positive
+   * @throws NullPointerException     if the path is null
+   */
+  public static ProgressiveAnimation load(Path path, int threads) {
+    Objects.requireNonNull(path, "The file to load cannot be null");
+    if (threads < 1) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    ProgressiveAnimation animation = new ProgressiveAnimation();
+    Thread loader = new Thread(() -> animation.read(path, threads), "Loader");
+    loader.setDaemon(true);
+    loader.start();
+    return animation;
+  }
+
+  /*
+  Helper method that reads the file, and records how the reading ended.
+   */
+  private void read(Path path, int threads) {
+    RuntimeException failure = null;
+    try {
+      AnimationReader.parseFile(path, new Loader(), threads);
+    } catch (IOException e) {
+      failure = new IllegalStateException("Could not read the animation: " + e.getMessage());
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    synchronized (this.lock) {
+      this.loaded = true;
+      this.error = failure;
+      this.lock.notifyAll();
+    }
+  }
+
+  /*
+  Passes the records read on the background thread to the model, holding the lock, and wakes the
+  players waiting for them.
+   */
+  private final class Loader implements AnimationBuilder<Void> {
+
+    @Override
+    public Void build() {
+      return null;
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+      synchronized (lock) {
+        builder.setBounds(x, y, width, height);
+        signal();
+      }
+    }
+
+    @Override
+    public void declareShape(String name, String type) {
+      synchronized (lock) {
+        builder.declareShape(name, type);
+      }
+    }
+
+    @Override
+    public void addMotion(String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+      synchronized (lock) {
+        builder.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+        if (t1 < latestStart) {
+          sorted = false;
+        } else if (t1 > latestStart) {
+          latestStart = t1;
+          signal();
+        }
+      }
+    }
+  }
+
+  /*
+  Helper method that wakes the players waiting for more of the animation, if there are any. Must
+  be called holding the lock.
+   */
+  private void signal() {
+    if (this.waiting > 0) {
+      this.lock.notifyAll();
+    }
+  }
+
+  /*
+  Helper method that waits until the given condition holds, or the reading has ended. Must be
+  called holding the lock.
+   */
+  private void await(BooleanSupplier ready) {
+    while (!this.loaded && !ready.getAsBoolean()) {
+      this.waiting++;
+      try {
+        this.lock.wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for the animation");
+      } finally {
+        this.waiting--;
+      }
+    }
+    if (this.error != null) {
+      throw new IllegalStateException(this.error.getMessage());
+    }
+  }
+
+  /*
+  Helper method that waits until the frame at the given tick can be computed, and returns the given
+  cursor sweeping through the motions read so far, or a new one if it is null, moved to the tick,
+  or null once the whole file has been read. Must be called holding the lock.
+   */
+  private GrowingFrameCursor awaitFrame(int tick, GrowingFrameCursor growing) {
+    await(() -> this.sorted && this.latestStart > tick);
+    if (this.loaded) {
+      return null;
+    }
+    GrowingFrameCursor sweep = growing == null ? this.model.growingCursor(tick) : growing;
+    while (sweep.getTick() < tick) {
+      sweep.advance();
+    }
+    // a shape that ended before the tick may only be resting until a motion not read yet
+    await(() -> this.sorted && sweep.isSettled());
+    return this.loaded ? null : sweep;
+  }
+
+  /**
+   * Returns whether the whole file has been read.
+   *
+   * @return true if the whole file has been read
+   */
+  public boolean isLoaded() {
+    synchronized (this.lock) {
+      return this.loaded;
+    }
+  }
+
+  /**
+   * Returns the length of this animation. While the file is being read, the length grows, and it is
+   * always longer than the last tick whose frame can be computed.
+   *
+   * @return the length of the part of this animation read so far
+   */
+  @Override
+  public int getLength() {
+    synchronized (this.lock) {
+      if (this.loaded) {
+        return this.model.getLength();
+      }
+      return Math.max(this.model.getLength(), this.latestStart + 1);
+    }
+  }
+
+  /**
+   * Returns the canvas of this animation, waiting until it has been read.
+   *
+   * @return the canvas of this animation
+   */
+  @Override
+  public Canvas getCanvas() {
+    synchronized (this.lock) {
+      await(() -> this.model.getCanvas() != null);
+      return this.model.getCanvas();
+    }
+  }
+
+  /**
+   * Computes the state of the animation at the given timestamp, waiting until it can be computed.
+   * While the file is being read, this sweeps through the motions read so far up to the timestamp.
+   *
+   * @param timestamp a time to compute the state at
+   * @return list of all the shapes present in the frame at the given timestamp
+   */
+  @Override
+  public List<Shape> getStateAt(int timestamp) {
+    synchronized (this.lock) {
+      GrowingFrameCursor sweep = awaitFrame(timestamp, null);
+      return sweep == null ? this.model.getStateAt(timestamp) : sweep.getState();
+    }
+  }
+
+  @Override
+  public void getStateAt(int timestamp, Frame frame) {
+    synchronized (this.lock) {
+      GrowingFrameCursor sweep = awaitFrame(timestamp, null);
+      if (sweep == null) {
+        this.model.getStateAt(timestamp, frame);
+      } else {
+        sweep.getState(frame);
+      }
+    }
+  }
+
+  /**
+   * Returns a cursor that plays this animation forward starting from the given tick, waiting for
+   * every frame until it can be computed. While the file is being read, the cursor sweeps through
+   * the motions read so far, and only moving it holds up the reading, not computing the frame. Once
+   * the whole file has been read, the cursor continues with a cursor of the complete model.
+   *
+   * @param startTick a tick to start playing from
+   * @return a cursor at the given tick
+   */
+  @Override
+  public FrameCursor cursor(int startTick) {
+    return new Cursor(startTick);
+  }
+
+  /*
+  A cursor that moves a cursor sweeping through the motions read so far up to its tick when a frame
+  is asked for, and delegates to a cursor of the model once it has been read.
+   */
+  private final class Cursor implements FrameCursor {
+
+    private int tick;
+    private GrowingFrameCursor growing;
+    private FrameCursor complete;
+
+    private Cursor(int tick) {
+      this.tick = tick;
+      this.growing = null;
+      this.complete = null;
+    }
+
+    /*
+    Helper method that waits until the frame at the tick of this cursor can be computed, and
+    returns the cursor to compute it with, at that tick. Only waiting and moving the cursor hold the
+    lock.
+     */
+    private FrameCursor current() {
+      if (this.complete != null) {
+        return this.complete;
+      }
+      synchronized (lock) {
+        this.growing = awaitFrame(this.tick, this.growing);
+        if (this.growing == null) {
+          this.complete = model.cursor(this.tick);
+          return this.complete;
+        }
+        return this.growing;
+      }
+    }
+
+    @Override
+    public int getTick() {
+      return this.tick;
+    }
+
+    @Override
+    public List<Shape> getState() {
+      return current().getState();
+    }
+
+    @Override
+    public void getState(Frame frame) {
+      current().getState(frame);
+    }
+
+    @Override
+    public void advance() {
+      this.tick++;
+      if (this.complete != null) {
+        this.complete.advance();
+      }
+    }
+  }
+
+  /**
+   * Passes the shapes and the motions of this animation to the given visitor, as described by
+   * {@link AnimationModelView#accept}, waiting until the whole file has been read.
+   *
+   * @param visitor a visitor to pass the shapes and the motions to
+   */
+  @Override
+  public void accept(AnimationVisitor visitor) {
+    synchronized (this.lock) {
+      await(() -> false);
+      this.model.accept(visitor);
+    }
+  }
+
+  /**
+   * Describes this animation, waiting until the whole file has been read.
+   *
+   * @return the description of this animation
+   */
+  @Override
+  public String toString() {
+    synchronized (this.lock) {
+      await(() -> false);
+      return this.model.toString();
+    }
+  }
+}
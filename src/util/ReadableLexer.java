@@ -0,0 +1,36 @@
+package util;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Represents a lexer reading the animation text from a {@link Readable}.
+ */
+final class ReadableLexer extends AnimationLexer {
+
+  private final Readable source;
+  private CharBuffer buffer;
+
+  /**
+   * Instantiates a lexer reading from the given source.
+   *
+   * @param source a source of the animation text
+   */
+  ReadableLexer(Readable source) {
+    this.source = source;
+    this.buffer = null;
+  }
+
+  @Override
+  protected int fill(char[] block) throws IllegalStateException {
+    if (this.buffer == null) {
+      this.buffer = CharBuffer.wrap(block);
+    }
+    this.buffer.clear();
+    try {
+      return this.source.read(this.buffer);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the animation: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Represents the records read from a chunk of an animation file, kept in a compact form until they
+ * can be passed on to the real {@link AnimationBuilder} in the order of the file. Every record is
+ * stored as a code followed by its integers, and the names and types are stored once per chunk. An
+ * included file is stored as the batch it is being read into, and is passed on in its place.
+ */
+final class RecordBatch implements AnimationBuilder<RecordBatch> {
+
+  private static final int CANVAS = 0;
+  private static final int SHAPE = 1;
+  private static final int MOTION = 2;
+  private static final int INCLUDE = 3;
+
+  private final List<String> strings;
+  private final Map<String, Integer> stringIds;
+  private final List<Future<RecordBatch>> included;
+  private int[] records;
+  private int size;
+
+  /**
+   * Instantiates an empty batch.
+   */
+  RecordBatch() {
+    this.strings = new ArrayList<>();
+    this.stringIds = new HashMap<>();
+    this.included = new ArrayList<>();
+    this.records = new int[1024];
+    this.size = 0;
+  }
+
+  /*
+  Helper method that makes room for the given number of integers at the end of the records.
+   */
+  private void reserve(int count) {
+    if (this.size + count > this.records.length) {
+      this.records = Arrays.copyOf(this.records,
+          Math.max(this.size + count, this.records.length * 2));
+    }
+  }
+
+  /*
+  Helper method that returns the id of the given string, storing it if it is new.
+   */
+  private int idOf(String string) {
+    Integer id = this.stringIds.get(string);
+    if (id == null) {
+      id = this.strings.size();
+      this.strings.add(string);
+      this.stringIds.put(string, id);
+    }
+    return id;
+  }
+
+  @Override
+  public RecordBatch build() {
+    return this;
+  }
+
+  @Override
+  public void setBounds(int x, int y, int width, int height) {
+    reserve(5);
+    this.records[this.size++] = CANVAS;
+    this.records[this.size++] = x;
+    this.records[this.size++] = y;
+    this.records[this.size++] = width;
+    this.records[this.size++] = height;
+  }
+
+  @Override
+  public void declareShape(String name, String type) {
+    reserve(3);
+    this.records[this.size++] = SHAPE;
+    this.records[this.size++] = idOf(name);
+    this.records[this.size++] = idOf(type);
+  }
+
+  @Override
+  public void addMotion(String name,
+      int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+      int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+    reserve(18);
+    int[] r = this.records;
+    int i = this.size;
+    r[i] = MOTION;
+    r[i + 1] = idOf(name);
+    r[i + 2] = t1;
+    r[i + 3] = x1;
+    r[i + 4] = y1;
+    r[i + 5] = w1;
+    r[i + 6] = h1;
+    r[i + 7] = r1;
+    r[i + 8] = g1;
+    r[i + 9] = b1;
+    r[i + 10] = t2;
+    r[i + 11] = x2;
+    r[i + 12] = y2;
+    r[i + 13] = w2;
+    r[i + 14] = h2;
+    r[i + 15] = r2;
+    r[i + 16] = g2;
+    r[i + 17] = b2;
+    this.size += 18;
+  }
+
+  /**
+   * Adds an included file, whose records are passed on after the records added so far, with their
+   * times shifted by the given offset.
+   *
+   * @param batch  the batch the included file is being read into
+   * @param offset the number of ticks to shift the motions of the file by
+   */
+  void include(Future<RecordBatch> batch, int offset) {
+    reserve(3);
+    this.records[this.size++] = INCLUDE;
+    this.records[this.size++] = this.included.size();
+    this.records[this.size++] = offset;
+    this.included.add(batch);
+  }
+
+  /**
+   * Passes all the records of this batch to the given builder, in the order they were read. The
+   * records of an included file are passed on in its place, once it has been read.
+   *
+   * @param builder a builder to pass the records to
+   * @throws IllegalStateException if an included file cannot be read
+   */
+  void replay(AnimationBuilder<?> builder) throws IllegalStateException {
+    replay(builder, 0, false);
+  }
+
+  /*
+  Helper method that passes all the records to the given builder, shifting the times of the motions
+  by the given offset. The canvas of an included file is left out, as the including file sets it.
+   */
+  private void replay(AnimationBuilder<?> builder, int offset, boolean isIncluded) {
+    int[] r = this.records;
+    int i = 0;
+    while (i < this.size) {
+      switch (r[i]) {
+        case CANVAS:
+          if (!isIncluded) {
+            builder.setBounds(r[i + 1], r[i + 2], r[i + 3], r[i + 4]);
+          }
+          i += 5;
+          break;
+        case SHAPE:
+          builder.declareShape(this.strings.get(r[i + 1]), this.strings.get(r[i + 2]));
+          i += 3;
+          break;
+        case INCLUDE:
+          AnimationReader.await(this.included.get(r[i + 1]))
+              .replay(builder, offset + r[i + 2], true);
+          i += 3;
+          break;
+        default:
+          builder.addMotion(this.strings.get(r[i + 1]),
+              r[i + 2] + offset, r[i + 3], r[i + 4], r[i + 5], r[i + 6], r[i + 7], r[i + 8],
+              r[i + 9], r[i + 10] + offset, r[i + 11], r[i + 12], r[i + 13], r[i + 14],
+              r[i + 15], r[i + 16], r[i + 17]);
+          i += 18;
+          break;
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import model.Canvas;
+import model.Frame;
+import model.shape.Shapes;
+
+/**
+ * Represents an image of the canvas that frames of the animation are drawn on, in memory, so it
+ * needs no display. The frames are drawn as the visual view draws them, over a white background,
+ * with the top left corner of the canvas at the top left corner of the image. The image is reused
+ * for every frame drawn on it.
+ */
+final class FrameImage {
+
+  private static final int COLORS = 256;
+
+  private final BufferedImage image;
+  private final Graphics2D graphics;
+  private final int[] pixels;
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  // the colors drawn in so far, by a hash of their RGB value, so a color is only made once it is
+  // drawn in for the first time, or after another one with the same hash
+  private final Color[] colors;
+
+  /**
+   * Instantiates an image the size of the given canvas.
+   *
+   * @param canvas the canvas of the animation
+   */
+  FrameImage(Canvas canvas) {
+    this.x = canvas.getX();
+    this.y = canvas.getY();
+    this.width = canvas.getWidth();
+    this.height = canvas.getHeight();
+    this.image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+    this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+    this.graphics = this.image.createGraphics();
+    this.graphics.translate(-this.x, -this.y);
+    this.colors = new Color[COLORS];
+  }
+
+  /**
+   * Draws the given frame on this image, replacing the frame drawn before.
+   *
+   * @param frame the frame to draw
+   */
+  void draw(Frame frame) {
+    Graphics2D g = this.graphics;
+    g.setColor(Color.WHITE);
+    g.fillRect(this.x, this.y, this.width, this.height);
+    for (int slot = 0; slot < frame.size(); slot++) {
+      g.setColor(color(frame.getR(slot) << 16 | frame.getG(slot) << 8 | frame.getB(slot)));
+      if (frame.getKind(slot) == Shapes.ELLIPSE) {
+        g.fillOval(frame.getX(slot), frame.getY(slot), frame.getWidth(slot),
+            frame.getHeight(slot));
+      } else {
+        g.fillRect(frame.getX(slot), frame.getY(slot), frame.getWidth(slot),
+            frame.getHeight(slot));
+      }
+    }
+  }
+
+  /*
+  Helper method that returns the color of the given RGB value, from the colors drawn in so far if
+  it is there.
+   */
+  private Color color(int rgb) {
+    int slot = (rgb ^ rgb >>> 8 ^ rgb >>> 16) & (COLORS - 1);
+    Color color = this.colors[slot];
+    if (color == null || (color.getRGB() & 0xffffff) != rgb) {
+      color = new Color(rgb);
+      this.colors[slot] = color;
+    }
+    return color;
+  }
+
+  /**
+   * Returns this image.
+   *
+   * @return the image
+   */
+  BufferedImage getImage() {
+    return this.image;
+  }
+
+  /**
+   * Returns the pixels of this image, row by row, as colors in the 0xRRGGBB form. The array is the
+   * one the image is drawn into, so it changes with the next frame drawn.
+   *
+   * @return the pixels of this image
+   */
+  int[] getPixels() {
+    return this.pixels;
+  }
+}
@@ -0,0 +1,270 @@
+package view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Represents an encoder of an animated GIF image, which writes the image to a stream one frame at a
+ * time. Every frame is a full canvas of indices into a palette shared by all the frames, and only
+ * the rectangle that changed since the frame before is written, over the frame before.
+ *
+ * <p>The pixels are compressed with the variable length LZW of the GIF format, keeping the strings
+ * seen so far in a hash table of primitive arrays, so encoding a frame creates no objects.
+ */
+final class GifEncoder {
+
+  // the largest number of codes, after which the table of strings starts over
+  private static final int MAX_CODES = 1 << 12;
+  // the size of the hash table of strings, a prime larger than the number of codes
+  private static final int TABLE_SIZE = 5003;
+  private static final int MAX_DELAY = 0xffff;
+
+  private final OutputStream out;
+  private final int width;
+  private final int height;
+  private final int minCodeSize;
+  // the strings in the table, as their prefix code and last index, and their codes
+  private final int[] keys;
+  private final int[] codes;
+  // the sub-block being filled with the compressed data
+  private final byte[] block;
+  private int blockLength;
+  private int bits;
+  private int bitCount;
+  private int codeSize;
+  private int maxCode;
+  private int nextCode;
+
+  /**
+   * Instantiates an encoder writing an image of the given size, which loops forever, to the given
+   * stream, and writes the start of the image.
+   *
+   * @param out     the stream to write the image to
+   * @param width   the width of the image
+   * @param height  the height of the image
+   * @param palette the colors of the image, in the 0xRRGGBB form, as many as a power of two from
+   *                2 to 256
+   * @throws IOException if the image cannot be written
+   */
+  GifEncoder(OutputStream out, int width, int height, int[] palette) throws IOException {
+    this.out = out;
+    this.width = width;
+    this.height = height;
+    int colorBits = Integer.numberOfTrailingZeros(palette.length);
+    this.minCodeSize = Math.max(2, colorBits);
+    this.keys = new int[TABLE_SIZE];
+    this.codes = new int[TABLE_SIZE];
+    this.block = new byte[255];
+
+    out.write("GIF89a".getBytes(StandardCharsets.US_ASCII));
+    short16(width);
+    short16(height);
+    // a global palette of 2 to the power of the color bits, whose first color is the background
+    out.write(0x80 | (colorBits - 1) << 4 | (colorBits - 1));
+    out.write(0);
+    out.write(0);
+    for (int color : palette) {
+      out.write(color >> 16);
+      out.write(color >> 8);
+      out.write(color);
+    }
+    // the application extension that makes the image loop forever
+    out.write(0x21);
+    out.write(0xff);
+    out.write(11);
+    out.write("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII));
+    out.write(3);
+    out.write(1);
+    short16(0);
+    out.write(0);
+  }
+
+  /**
+   * Writes a frame that is shown for the given time.
+   *
+   * @param pixels   the indices of the colors of the frame, row by row
+   * @param previous the indices of the frame before, or null if this is the first frame
+   * @param delay    the time to show the frame for, in hundredths of a second
+   * @throws IOException if the frame cannot be written
+   */
+  void frame(byte[] pixels, byte[] previous, int delay) throws IOException {
+    int left = 0;
+    int top = 0;
+    int right = this.width - 1;
+    int bottom = this.height - 1;
+    if (previous != null) {
+      top = this.height;
+      bottom = -1;
+      left = this.width;
+      right = -1;
+      for (int y = 0; y < this.height; y++) {
+        int row = y * this.width;
+        if (Arrays.mismatch(pixels, row, row + this.width, previous, row, row + this.width) < 0) {
+          continue;
+        }
+        top = Math.min(top, y);
+        bottom = y;
+        int x = 0;
+        while (pixels[row + x] == previous[row + x]) {
+          x++;
+        }
+        left = Math.min(left, x);
+        x = this.width - 1;
+        while (pixels[row + x] == previous[row + x]) {
+          x--;
+        }
+        right = Math.max(right, x);
+      }
+      if (bottom < 0) {
+        // nothing changed, but a frame is still needed to be shown for its time
+        left = 0;
+        top = 0;
+        right = 0;
+        bottom = 0;
+      }
+    }
+
+    // the graphic control extension, which keeps the frame under the next one
+    this.out.write(0x21);
+    this.out.write(0xf9);
+    this.out.write(4);
+    this.out.write(1 << 2);
+    short16(Math.min(delay, MAX_DELAY));
+    this.out.write(0);
+    this.out.write(0);
+    // the image descriptor, without a palette of its own
+    this.out.write(0x2c);
+    short16(left);
+    short16(top);
+    short16(right - left + 1);
+    short16(bottom - top + 1);
+    this.out.write(0);
+    this.out.write(this.minCodeSize);
+    compress(pixels, left, top, right + 1, bottom + 1);
+    this.out.write(0);
+  }
+
+  /**
+   * Writes the end of the image and flushes the stream.
+   *
+   * @throws IOException if the image cannot be written
+   */
+  void finish() throws IOException {
+    this.out.write(0x3b);
+    this.out.flush();
+  }
+
+  /*
+  Helper method that compresses the given rectangle of the pixels, from the left column and the top
+  row up to the right column and the bottom row exclusive, and writes it as data sub-blocks.
+   */
+  private void compress(byte[] pixels, int left, int top, int right, int bottom)
+      throws IOException {
+    int clearCode = 1 << this.minCodeSize;
+    this.bits = 0;
+    this.bitCount = 0;
+    this.blockLength = 0;
+    this.codeSize = this.minCodeSize + 1;
+    reset(clearCode);
+    write(clearCode);
+
+    int prefix = pixels[top * this.width + left] & 0xff;
+    for (int y = top; y < bottom; y++) {
+      int row = y * this.width;
+      for (int i = row + (y == top ? left + 1 : left); i < row + right; i++) {
+        int index = pixels[i] & 0xff;
+        int key = prefix << 8 | index;
+        // open addressing, probing backwards by a step that depends on the key
+        int slot = (index << 4 ^ prefix) % TABLE_SIZE;
+        int step = slot == 0 ? 1 : TABLE_SIZE - slot;
+        while (this.keys[slot] != key && this.keys[slot] >= 0) {
+          slot -= step;
+          if (slot < 0) {
+            slot += TABLE_SIZE;
+          }
+        }
+        if (this.keys[slot] == key) {
+          prefix = this.codes[slot];
+          continue;
+        }
+        write(prefix);
+        if (this.nextCode < MAX_CODES) {
+          this.keys[slot] = key;
+          this.codes[slot] = this.nextCode++;
+        } else {
+          write(clearCode);
+          reset(clearCode);
+          this.codeSize = this.minCodeSize + 1;
+          this.maxCode = (1 << this.codeSize) - 1;
+        }
+        prefix = index;
+      }
+    }
+    write(prefix);
+    write(clearCode + 1);
+    if (this.bitCount > 0) {
+      put(this.bits);
+    }
+    if (this.blockLength > 0) {
+      flushBlock();
+    }
+  }
+
+  /*
+  Helper method that empties the table of strings, so the next code is the first after the clear
+  and end codes.
+   */
+  private void reset(int clearCode) {
+    Arrays.fill(this.keys, -1);
+    this.nextCode = clearCode + 2;
+    this.maxCode = (1 << this.codeSize) - 1;
+  }
+
+  /*
+  Helper method that writes the given code in the current code size, and widens the codes once the
+  next code no longer fits in it, as the decoder does.
+   */
+  private void write(int code) throws IOException {
+    this.bits |= code << this.bitCount;
+    this.bitCount += this.codeSize;
+    while (this.bitCount >= 8) {
+      put(this.bits);
+      this.bits >>>= 8;
+      this.bitCount -= 8;
+    }
+    if (this.nextCode > this.maxCode && this.codeSize < 12) {
+      this.codeSize++;
+      this.maxCode = this.codeSize == 12 ? MAX_CODES : (1 << this.codeSize) - 1;
+    }
+  }
+
+  /*
+  Helper method that adds the low byte of the given value to the sub-block being filled, and writes
+  the sub-block once it is full.
+   */
+  private void put(int value) throws IOException {
+    this.block[this.blockLength++] = (byte) value;
+    if (this.blockLength == this.block.length) {
+      flushBlock();
+    }
+  }
+
+  /*
+  Helper method that writes the sub-block being filled, preceded by its length.
+   */
+  private void flushBlock() throws IOException {
+    this.out.write(this.blockLength);
+    this.out.write(this.block, 0, this.blockLength);
+    this.blockLength = 0;
+  }
+
+  /*
+  Helper method that writes the given value as two bytes, the low one first.
+   */
+  private void short16(int value) throws IOException {
+    this.out.write(value & 0xff);
+    this.out.write(value >> 8 & 0xff);
+  }
+}
@@ -0,0 +1,287 @@
+package view;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.AnimationModelView;
+import model.AnimationVisitor;
+import model.Canvas;
+import model.Frame;
+import model.FrameCursor;
+import model.shape.Shapes;
+
+/**
+ * Represents the view of the animation as an animated GIF image, which loops forever and in which
+ * a tick lasts a second divided by the speed. The frames are drawn as the visual view draws them,
+ * in memory, so the view needs no display.
+ *
+ * <p>The palette is made once, from the colors the shapes have at the start and the end of their
+ * motions, with the white of the background first. A color between them, which a shape has while
+ * its color changes, is drawn in the nearest color of the palette. An animation with more colors
+ * than a palette holds is drawn in a fixed palette spread over all the colors.
+ *
+ * <p>A GIF image cannot show a frame for less than a hundredth of a second, so when a tick takes
+ * less than that only the first tick of every hundredth of a second is drawn. Every frame is
+ * compressed on a thread of its own while the next one is drawn, so writing the image takes about
+ * as long as the slower of the two.
+ */
+public class GifView implements View {
+
+  // the number of levels of every component in the fixed palette
+  private static final int LEVELS = 6;
+  private static final int WHITE = 0xffffff;
+
+  private final AnimationModelView model;
+  private final Path file;
+
+  /**
+   * Instantiates a view of the provided animation that writes it to the given file.
+   *
+   * @param animation an animation model to create a view of
+   * @param file      the file to write the image to
+   * @throws NullPointerException if any of the provided arguments is null
+   */
+  public GifView(AnimationModelView animation, Path file) throws NullPointerException {
+    this.model = Objects.requireNonNull(animation, "The animation cannot be null");
+    this.file = Objects.requireNonNull(file, "The file cannot be null");
+  }
+
+  /**
+   * Writes the animation to the file of this view as an animated GIF image, in which a tick lasts a
+   * second divided by the speed. Nothing is written to the given output.
+   *
+   * @param appendable a source to output this animation to, which is not used
+   * @param speed      a speed of the animation, in ticks per second
+   * @throws NullPointerException     if the provided appendable is null
+   * @throws IllegalArgumentException if the speed is not positive
+   * @throws IllegalStateException    if the animation has no canvas, or there is an error when
+   *                                  trying to write the image
+   */
+  @Override
+  public void run(Appendable appendable, int speed) throws NullPointerException,
+      IllegalArgumentException, IllegalStateException {
+    Objects.requireNonNull(appendable);
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(this.file))) {
+      write(out, speed);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write the animation: " + this.file);
+    }
+  }
+
+  /**
+   * Writes the animation to the given stream as an animated GIF image, in which a tick lasts a
+   * second divided by the speed. The stream is flushed but not closed.
+   *
+   * @param out   the stream to write the image to
+   * @param speed a speed of the animation, in ticks per second
+   * @throws NullPointerException     if the provided stream is null
+   * @throws IllegalArgumentException if the speed is not positive
+   * @throws IllegalStateException    if the animation has no canvas
+   * @throws IOException              if the image cannot be written
+   */
+  public void write(OutputStream out, int speed) throws NullPointerException,
+      IllegalArgumentException, IllegalStateException, IOException {
+    Objects.requireNonNull(out);
+    if (speed < 1) {
+      throw new IllegalArgumentException("The speed must be positive");
+    }
+    Canvas canvas = this.model.getCanvas();
+    if (canvas == null) {
+      throw new IllegalStateException("The animation has no canvas to draw the frames on");
+    }
+    Palette palette = new Palette();
+    this.model.accept(palette);
+    GifEncoder encoder = new GifEncoder(out, canvas.getWidth(), canvas.getHeight(),
+        palette.colors());
+
+    FrameImage image = new FrameImage(canvas);
+    Frame frame = new Frame();
+    // a frame is drawn into one buffer while the one before is compressed from the next, against
+    // the one before it in the last
+    byte[][] buffers = new byte[3][canvas.getWidth() * canvas.getHeight()];
+    int length = Math.max(this.model.getLength(), 1);
+    FrameCursor cursor = this.model.cursor(0);
+    ExecutorService compressing = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> pending = null;
+      int frames = 0;
+      int tick = 0;
+      while (tick < length) {
+        long shown = hundredths(tick, speed);
+        int next = tick + 1;
+        while (next < length && hundredths(next, speed) == shown) {
+          next++;
+        }
+        int delay = (int) Math.max(1, hundredths(next, speed) - shown);
+
+        cursor.getState(frame);
+        image.draw(frame);
+        byte[] pixels = buffers[frames % buffers.length];
+        palette.index(image.getPixels(), pixels);
+        await(pending);
+        byte[] previous = frames == 0 ? null : buffers[(frames - 1) % buffers.length];
+        pending = compressing.submit(() -> {
+          encoder.frame(pixels, previous, delay);
+          return null;
+        });
+
+        for (; tick < next; tick++) {
+          cursor.advance();
+        }
+        frames++;
+      }
+      await(pending);
+    } finally {
+      compressing.shutdownNow();
+    }
+    encoder.finish();
+  }
+
+  /*
+  Helper method that returns the number of hundredths of a second from the beginning to the given
+  tick.
+   */
+  private static long hundredths(int tick, int speed) {
+    return tick * 100L / speed;
+  }
+
+  /*
+  Helper method that waits for the given frame to be compressed, if there is one, and rethrows the
+  error of compressing it.
+   */
+  private static void await(Future<?> pending) throws IOException {
+    if (pending == null) {
+      return;
+    }
+    try {
+      pending.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing the animation");
+    }
+  }
+
+  /*
+  The palette of the image, made of the colors the shapes have at the start and the end of their
+  motions, and the index of every color drawn in it, which is the nearest color of the palette.
+   */
+  private static final class Palette implements AnimationVisitor {
+
+    private final Set<Integer> seen;
+    private final Map<Integer, Integer> indices;
+    private int[] colors;
+
+    private Palette() {
+      this.seen = new LinkedHashSet<>();
+      this.seen.add(WHITE);
+      this.indices = new HashMap<>();
+    }
+
+    @Override
+    public void visitShape(String name, Shapes kind) {
+      // the shapes have no colors of their own
+    }
+
+    @Override
+    public void visitMotion(int start, int end,
+        int xPositionStart, int yPositionStart,
+        int xDimensionStart, int yDimensionStart,
+        int rStart, int gStart, int bStart,
+        int xPositionEnd, int yPositionEnd,
+        int xDimensionEnd, int yDimensionEnd,
+        int rEnd, int gEnd, int bEnd) {
+      this.seen.add(rStart << 16 | gStart << 8 | bStart);
+      this.seen.add(rEnd << 16 | gEnd << 8 | bEnd);
+    }
+
+    /*
+    Helper method that returns the colors of the palette, as many as a power of two, the last of
+    which repeat white if there are not enough colors, so no color is drawn in a color that is not
+    in the animation. The colors are fixed once this is first called.
+     */
+    private int[] colors() {
+      if (this.colors != null) {
+        return this.colors;
+      }
+      int count = this.seen.size() <= 256 ? this.seen.size() : LEVELS * LEVELS * LEVELS;
+      this.colors = new int[Math.max(2, Integer.highestOneBit(count - 1) << 1)];
+      int i = 0;
+      if (this.seen.size() <= 256) {
+        for (int color : this.seen) {
+          this.indices.put(color, i);
+          this.colors[i++] = color;
+        }
+      } else {
+        // the levels run from white down, so white is the first color
+        for (int r = LEVELS - 1; r >= 0; r--) {
+          for (int g = LEVELS - 1; g >= 0; g--) {
+            for (int b = LEVELS - 1; b >= 0; b--) {
+              int step = 255 / (LEVELS - 1);
+              this.colors[i++] = r * step << 16 | g * step << 8 | b * step;
+            }
+          }
+        }
+      }
+      Arrays.fill(this.colors, i, this.colors.length, WHITE);
+      return this.colors;
+    }
+
+    /*
+    Helper method that writes the index of the color of every one of the given pixels.
+     */
+    private void index(int[] pixels, byte[] indices) {
+      int last = WHITE;
+      int index = indexOf(WHITE);
+      for (int i = 0; i < pixels.length; i++) {
+        int color = pixels[i] & WHITE;
+        if (color != last) {
+          last = color;
+          index = indexOf(color);
+        }
+        indices[i] = (byte) index;
+      }
+    }
+
+    /*
+    Helper method that returns the index of the color of the palette nearest to the given color.
+     */
+    private int indexOf(int color) {
+      Integer index = this.indices.get(color);
+      if (index != null) {
+        return index;
+      }
+      int[] palette = colors();
+      int nearest = 0;
+      long distance = Long.MAX_VALUE;
+      for (int i = 0; i < palette.length; i++) {
+        int r = (palette[i] >> 16) - (color >> 16);
+        int g = (palette[i] >> 8 & 0xff) - (color >> 8 & 0xff);
+        int b = (palette[i] & 0xff) - (color & 0xff);
+        long d = (long) r * r + g * g + b * b;
+        if (d < distance) {
+          distance = d;
+          nearest = i;
+        }
+      }
+      this.indices.put(color, nearest);
+      return nearest;
+    }
+  }
+}
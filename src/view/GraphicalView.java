@@ -7,6 +7,7 @@ import java.util.TimerTask;
 import javax.swing.JFrame;
 import model.AnimationModelView;
 import model.Canvas;
+import model.FrameCursor;
 import model.shape.Shape;
 
 /**
@@ -47,8 +48,8 @@ public class GraphicalView extends JFrame implements View {
   /*
   Helper method used inside the TimerTask to run the animation.
    */
-  private void runTask(int time) {
-    List<Shape> state = this.model.getStateAt(time);
+  private void runTask(FrameCursor cursor) {
+    List<Shape> state = cursor.getState();
     this.graphics.setState(state);
     this.graphics.repaint();
     this.repaint();
@@ -58,15 +59,14 @@ public class GraphicalView extends JFrame implements View {
   public void run(Appendable ignored, int speed) throws NullPointerException,
       IllegalStateException {
 
-    int length = this.model.getLength();
-
+    // the length is read at every tick, as it grows while an animation is still being read
     TimerTask task = new TimerTask() {
-      int l = 0;
+      final FrameCursor cursor = model.cursor(0);
 
       public void run() {
-        runTask(l);
-        l++;
-        if (l == length) {
+        runTask(cursor);
+        cursor.advance();
+        if (cursor.getTick() >= model.getLength()) {
           cancel();
         }
       }
@@ -0,0 +1,211 @@
+package view;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import model.AnimationModelView;
+import model.Canvas;
+import model.Frame;
+import model.FrameCursor;
+
+/**
+ * Represents the view of the animation as a sequence of PNG images, one for every tick the visual
+ * view plays, written to numbered files in a directory. The frames are drawn as the visual view
+ * draws them, on a white image the size of the canvas whose top left corner is the corner of the
+ * canvas, but into images in memory, so the view needs no display.
+ *
+ * <p>The ticks are split into ranges that are rendered on a fork-join pool. Every thread of the
+ * pool keeps one image, one frame and one PNG writer, which are reused for every tick it renders,
+ * and sweeps through its ranges with a cursor, so a range takes only the changes between its
+ * frames to evaluate.
+ */
+public class PngView implements View {
+
+  // the number of ranges every thread gets, so the threads that finish early can take more
+  private static final int RANGES_PER_THREAD = 8;
+
+  private final AnimationModelView model;
+  private final Path directory;
+  private final int threads;
+
+  /**
+   * Instantiates a view of the provided animation that writes its frames to the given directory,
+   * rendering them on as many threads as there are processors.
+   *
+   * @param animation an animation model to create a view of
+   * @param directory the directory to write the frames to, which is created if it does not exist
+   * @throws NullPointerException if any of the provided arguments is null
+   */
+  public PngView(AnimationModelView animation, Path directory) throws NullPointerException {
+    this(animation, directory, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Instantiates a view of the provided animation that writes its frames to the given directory,
+   * rendering them on the given number of threads.
+   *
+   * @param animation an animation model to create a view of
+   * @param directory the directory to write the frames to, which is created if it does not exist
+   * @param threads   the number of threads to render the frames on
+   * @throws NullPointerException     if any of the provided arguments is null
+   * @throws IllegalArgumentException if the number of threads is not positive
+   */
+  public PngView(AnimationModelView animation, Path directory, int threads)
+      throws NullPointerException, IllegalArgumentException {
+    this.model = Objects.requireNonNull(animation, "The animation cannot be null");
+    this.directory = Objects.requireNonNull(directory, "The directory cannot be null");
+    if (threads < 1) {
+      throw new IllegalArgumentException("The number of threads must be positive");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * Returns the name of the file of the frame at the given tick, in an animation of the given
+   * length. The ticks are padded with zeros to the same width, so the files sort in the order of
+   * the frames.
+   *
+   * @param tick   the tick of the frame
+   * @param length the length of the animation
+   * @return the name of the file of the frame
+   */
+  public static String fileName(int tick, int length) {
+    int digits = Math.max(5, Integer.toString(Math.max(length - 1, 0)).length());
+    StringBuilder name = new StringBuilder("frame-");
+    String number = Integer.toString(tick);
+    for (int i = number.length(); i < digits; i++) {
+      name.append('0');
+    }
+    return name.append(number).append(".png").toString();
+  }
+
+  /**
+   * Writes the frames of the animation to the directory of this view, from the tick 0 up to the
+   * tick before the length of the animation. Nothing is written to the given output.
+   *
+   * @param appendable a source to output this animation to, which is not used
+   * @param ignored    the speed, which a sequence of frames does not have
+   * @throws NullPointerException  if the provided appendable is null
+   * @throws IllegalStateException if the animation has no canvas, or there is an error when
+   *                               trying to write a frame
+   */
+  @Override
+  public void run(Appendable appendable, int ignored) throws NullPointerException,
+      IllegalStateException {
+    Objects.requireNonNull(appendable);
+    Canvas canvas = this.model.getCanvas();
+    if (canvas == null) {
+      throw new IllegalStateException("The animation has no canvas to draw the frames on");
+    }
+    try {
+      Files.createDirectories(this.directory);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not create the directory: " + this.directory);
+    }
+    int length = this.model.getLength();
+    if (length <= 0) {
+      return;
+    }
+    // evaluating a frame builds the indexes of the model, so the threads only read it
+    this.model.getStateAt(0, new Frame());
+
+    int grain = Math.max(1, length / (this.threads * RANGES_PER_THREAD));
+    ThreadLocal<Renderer> renderers = ThreadLocal.withInitial(() -> new Renderer(canvas));
+    ForkJoinPool pool = new ForkJoinPool(this.threads);
+    try {
+      pool.invoke(new Render(0, length, length, grain, renderers));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /*
+  Renders the ticks of a range, splitting it in halves until it is no longer than the grain.
+   */
+  private final class Render extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int length;
+    private final int grain;
+    private final ThreadLocal<Renderer> renderers;
+
+    private Render(int from, int to, int length, int grain, ThreadLocal<Renderer> renderers) {
+      this.from = from;
+      this.to = to;
+      this.length = length;
+      this.grain = grain;
+      this.renderers = renderers;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from > this.grain) {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new Render(this.from, middle, this.length, this.grain, this.renderers),
+            new Render(middle, this.to, this.length, this.grain, this.renderers));
+        return;
+      }
+      Renderer renderer = this.renderers.get();
+      FrameCursor cursor = PngView.this.model.cursor(this.from);
+      for (int tick = this.from; tick < this.to; tick++) {
+        cursor.getState(renderer.frame);
+        renderer.draw();
+        renderer.write(PngView.this.directory.resolve(fileName(tick, this.length)));
+        cursor.advance();
+      }
+    }
+  }
+
+  /*
+  The image, frame and writer of one thread, reused for every tick the thread renders.
+   */
+  private static final class Renderer {
+
+    private final FrameImage image;
+    private final Frame frame;
+    private final ImageWriter writer;
+
+    private Renderer(Canvas canvas) {
+      this.image = new FrameImage(canvas);
+      this.frame = new Frame();
+      Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+      if (!writers.hasNext()) {
+        throw new IllegalStateException("PNG images cannot be written");
+      }
+      this.writer = writers.next();
+    }
+
+    /*
+    Helper method that draws the frame of this renderer on its image.
+     */
+    private void draw() {
+      this.image.draw(this.frame);
+    }
+
+    /*
+    Helper method that writes the image of this renderer to the given file as a PNG image.
+     */
+    private void write(Path file) {
+      try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file));
+          ImageOutputStream out = new MemoryCacheImageOutputStream(stream)) {
+        this.writer.setOutput(out);
+        this.writer.write(this.image.getImage());
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not write the frame: " + file);
+      }
+    }
+  }
+}
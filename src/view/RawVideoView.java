@@ -0,0 +1,285 @@
+package view;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import model.AnimationModelView;
+import model.Canvas;
+import model.Frame;
+import model.FrameCursor;
+import model.shape.Shapes;
+
+/**
+ * Represents the view of the animation as a stream of uncompressed video frames, one for every
+ * tick the visual view plays, to be piped to a video encoder. The frames are either a YUV4MPEG2
+ * stream, with full resolution color planes and the speed as its frame rate, or raw 8 bit RGB
+ * pixels with no header at all, whose size and rate the encoder has to be told.
+ *
+ * <p>The shapes are filled straight into the bytes of the frame, a row at a time, over a white
+ * background, with the top left corner of the canvas at the top left corner of the frame. The
+ * bytes are reused for every frame and written to a channel as they are, so a frame takes no more
+ * than filling and writing its bytes.
+ */
+public class RawVideoView implements View {
+
+  /**
+   * The forms the frames can be written in.
+   */
+  public enum Format {
+    /**
+     * A YUV4MPEG2 stream, in the BT.601 colors without subsampling.
+     */
+    Y4M,
+    /**
+     * Raw RGB pixels, three bytes for every pixel, row by row.
+     */
+    RGB
+  }
+
+  private final AnimationModelView model;
+  private final Path file;
+  private final Format format;
+
+  /**
+   * Instantiates a view of the provided animation that writes its frames in the given form to the
+   * given file, or to the standard output if there is no file.
+   *
+   * @param animation an animation model to create a view of
+   * @param file      the file to write the frames to, or null to write them to the standard output
+   * @param format    the form to write the frames in
+   * @throws NullPointerException if the animation or the format is null
+   */
+  public RawVideoView(AnimationModelView animation, Path file, Format format)
+      throws NullPointerException {
+    this.model = Objects.requireNonNull(animation, "The animation cannot be null");
+    this.format = Objects.requireNonNull(format, "The format cannot be null");
+    this.file = file;
+  }
+
+  /**
+   * Writes the frames of the animation to the file of this view, or to the standard output, from
+   * the tick 0 up to the tick before the length of the animation. Nothing is written to the given
+   * output.
+   *
+   * @param appendable a source to output this animation to, which is not used
+   * @param speed      a speed of the animation, in ticks per second
+   * @throws NullPointerException     if the provided appendable is null
+   * @throws IllegalArgumentException if the speed is not positive
+   * @throws IllegalStateException    if the animation has no canvas, or there is an error when
+   *                                  trying to write the frames
+   */
+  @Override
+  public void run(Appendable appendable, int speed) throws NullPointerException,
+      IllegalArgumentException, IllegalStateException {
+    Objects.requireNonNull(appendable);
+    if (this.file == null) {
+      // the standard output is written to without a stream in between, and stays open
+      try {
+        write(new FileOutputStream(FileDescriptor.out).getChannel(), speed);
+      } catch (IOException e) {
+        throw new IllegalStateException("Error when trying to output the animation.");
+      }
+      return;
+    }
+    try (FileChannel out = FileChannel.open(this.file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      write(out, speed);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write the animation: " + this.file);
+    }
+  }
+
+  /**
+   * Writes the frames of the animation to the given channel, from the tick 0 up to the tick before
+   * the length of the animation. The channel is not closed.
+   *
+   * @param out   the channel to write the frames to
+   * @param speed a speed of the animation, in ticks per second
+   * @throws NullPointerException     if the provided channel is null
+   * @throws IllegalArgumentException if the speed is not positive
+   * @throws IllegalStateException    if the animation has no canvas
+   * @throws IOException              if the frames cannot be written
+   */
+  public void write(WritableByteChannel out, int speed) throws NullPointerException,
+      IllegalArgumentException, IllegalStateException, IOException {
+    Objects.requireNonNull(out);
+    if (speed < 1) {
+      throw new IllegalArgumentException("The speed must be positive");
+    }
+    Canvas canvas = this.model.getCanvas();
+    if (canvas == null) {
+      throw new IllegalStateException("The animation has no canvas to draw the frames on");
+    }
+    Raster raster;
+    if (this.format == Format.Y4M) {
+      writeFully(out, ByteBuffer.wrap(("YUV4MPEG2 W" + canvas.getWidth() + " H"
+          + canvas.getHeight() + " F" + speed + ":1 Ip A1:1 C444\n")
+          .getBytes(StandardCharsets.US_ASCII)));
+      raster = new Raster(canvas, true, "FRAME\n".getBytes(StandardCharsets.US_ASCII));
+    } else {
+      raster = new Raster(canvas, false, new byte[0]);
+    }
+
+    Frame frame = new Frame();
+    int length = this.model.getLength();
+    FrameCursor cursor = this.model.cursor(0);
+    for (int tick = 0; tick < length; tick++) {
+      cursor.getState(frame);
+      raster.draw(frame);
+      writeFully(out, raster.buffer());
+      cursor.advance();
+    }
+  }
+
+  /*
+  Helper method that writes all of the given bytes to the given channel, which may take more than
+  one write to a pipe.
+   */
+  private static void writeFully(WritableByteChannel out, ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      out.write(bytes);
+    }
+  }
+
+  /*
+  The bytes of a frame, after a header of every frame, which shapes are filled into a row at a
+  time. The pixels are either three planes of Y, U and V bytes, or one plane of RGB triples.
+   */
+  private static final class Raster {
+
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private final boolean planar;
+    // where the pixels start after the header of the frame, and the size of a plane
+    private final int start;
+    private final int plane;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    // the bytes of the color being filled, in the order of the planes or of a triple
+    private final byte[] color;
+
+    private Raster(Canvas canvas, boolean planar, byte[] header) {
+      this.x = canvas.getX();
+      this.y = canvas.getY();
+      this.width = canvas.getWidth();
+      this.height = canvas.getHeight();
+      this.planar = planar;
+      this.start = header.length;
+      this.plane = this.width * this.height;
+      this.bytes = new byte[this.start + 3 * this.plane];
+      System.arraycopy(header, 0, this.bytes, 0, header.length);
+      this.buffer = ByteBuffer.wrap(this.bytes);
+      this.color = new byte[3];
+    }
+
+    /*
+    Helper method that fills the given frame into the bytes, over a white background.
+     */
+    private void draw(Frame frame) {
+      color(255, 255, 255);
+      if (this.planar) {
+        for (int p = 0; p < 3; p++) {
+          Arrays.fill(this.bytes, this.start + p * this.plane, this.start + (p + 1) * this.plane,
+              this.color[p]);
+        }
+      } else {
+        Arrays.fill(this.bytes, this.start, this.bytes.length, (byte) 255);
+      }
+      for (int slot = 0; slot < frame.size(); slot++) {
+        color(frame.getR(slot), frame.getG(slot), frame.getB(slot));
+        long left = (long) frame.getX(slot) - this.x;
+        long top = (long) frame.getY(slot) - this.y;
+        int w = frame.getWidth(slot);
+        int h = frame.getHeight(slot);
+        if (frame.getKind(slot) == Shapes.ELLIPSE) {
+          ellipse(left, top, w, h);
+        } else {
+          for (long row = Math.max(top, 0); row < Math.min(top + h, this.height); row++) {
+            span((int) row, left, left + w);
+          }
+        }
+      }
+    }
+
+    /*
+    Helper method that fills the ellipse inside the given bounds, taking every pixel whose center
+    is inside it.
+     */
+    private void ellipse(long left, long top, int w, int h) {
+      if (w <= 0 || h <= 0) {
+        return;
+      }
+      double rx = w / 2.0;
+      double ry = h / 2.0;
+      double cx = left + rx;
+      double cy = top + ry;
+      for (long row = Math.max(top, 0); row < Math.min(top + h, this.height); row++) {
+        double dy = (row + 0.5 - cy) / ry;
+        double half = rx * Math.sqrt(Math.max(0, 1 - dy * dy));
+        span((int) row, (long) Math.ceil(cx - half - 0.5), (long) Math.floor(cx + half - 0.5) + 1);
+      }
+    }
+
+    /*
+    Helper method that fills the pixels of the given row from the given column up to the other,
+    exclusive, in the color being filled, leaving out the columns outside the frame.
+     */
+    private void span(int row, long from, long to) {
+      int first = (int) Math.max(from, 0);
+      int last = (int) Math.min(to, this.width);
+      if (first >= last) {
+        return;
+      }
+      int offset = row * this.width;
+      if (this.planar) {
+        for (int p = 0; p < 3; p++) {
+          int base = this.start + p * this.plane + offset;
+          Arrays.fill(this.bytes, base + first, base + last, this.color[p]);
+        }
+        return;
+      }
+      // the first triple is copied to double the filled bytes, until the span is full
+      int base = this.start + 3 * (offset + first);
+      int end = this.start + 3 * (offset + last);
+      System.arraycopy(this.color, 0, this.bytes, base, 3);
+      for (int filled = 3; base + filled < end; filled *= 2) {
+        System.arraycopy(this.bytes, base, this.bytes, base + filled,
+            Math.min(filled, end - base - filled));
+      }
+    }
+
+    /*
+    Helper method that sets the color being filled to the given color, converted to the limited
+    range BT.601 colors if the pixels are in planes.
+     */
+    private void color(int r, int g, int b) {
+      if (this.planar) {
+        this.color[0] = (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16);
+        this.color[1] = (byte) (((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128);
+        this.color[2] = (byte) (((112 * r - 94 * g - 18 * b + 128) >> 8) + 128);
+      } else {
+        this.color[0] = (byte) r;
+        this.color[1] = (byte) g;
+        this.color[2] = (byte) b;
+      }
+    }
+
+    /*
+    Helper method that returns the bytes of the frame, from the start.
+     */
+    private ByteBuffer buffer() {
+      this.buffer.clear();
+      return this.buffer;
+    }
+  }
+}
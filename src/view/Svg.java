@@ -0,0 +1,117 @@
+package view;
+
+import model.Canvas;
+
+/**
+ * Writes the pieces of SVG documents shared by the SVG views into a buffer.
+ */
+final class Svg {
+
+  static final String[] RECTANGLE = {"x", "y", "width", "height"};
+  static final String[] ELLIPSE = {"cx", "cy", "rx", "ry"};
+
+  private Svg() {
+  }
+
+  /**
+   * Writes the start of a document, sized to the given canvas if there is one.
+   *
+   * @param out    a buffer to write to
+   * @param canvas the canvas of the animation, or null
+   */
+  static void begin(StringBuilder out, Canvas canvas) {
+    out.append("<svg");
+    if (canvas != null) {
+      out.append(" width=\"").append(canvas.getWidth())
+          .append("\" height=\"").append(canvas.getHeight())
+          .append("\" viewBox=\"").append(canvas.getX()).append(' ').append(canvas.getY())
+          .append(' ').append(canvas.getWidth()).append(' ').append(canvas.getHeight())
+          .append('"');
+    }
+    out.append(" version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\">\n");
+  }
+
+  /**
+   * Puts twice the values of the geometric attributes of a shape with the given position and
+   * dimensions into the given array, in the order of {@link #RECTANGLE} or {@link #ELLIPSE}, so
+   * the halves of the ellipses stay integers.
+   *
+   * @param ellipse whether the shape is an ellipse
+   * @param x       the x coordinate of the shape
+   * @param y       the y coordinate of the shape
+   * @param width   the width of the shape
+   * @param height  the height of the shape
+   * @param values  an array of four values to put the attributes into
+   */
+  static void geometry(boolean ellipse, int x, int y, int width, int height, long[] values) {
+    if (ellipse) {
+      values[0] = 2L * x + width;
+      values[1] = 2L * y + height;
+      values[2] = width;
+      values[3] = height;
+    } else {
+      values[0] = 2L * x;
+      values[1] = 2L * y;
+      values[2] = 2L * width;
+      values[3] = 2L * height;
+    }
+  }
+
+  /**
+   * Writes half of the given value, which is twice a value of an attribute.
+   *
+   * @param out   a buffer to write to
+   * @param twice twice the value to write
+   */
+  static void half(StringBuilder out, long twice) {
+    if (twice < 0) {
+      out.append('-');
+      twice = -twice;
+    }
+    out.append(twice / 2);
+    if (twice % 2 != 0) {
+      out.append(".5");
+    }
+  }
+
+  /**
+   * Writes the given color.
+   *
+   * @param out a buffer to write to
+   * @param r   the red value of the color
+   * @param g   the green value of the color
+   * @param b   the blue value of the color
+   */
+  static void rgb(StringBuilder out, int r, int g, int b) {
+    out.append("rgb(").append(r).append(',').append(g).append(',').append(b).append(')');
+  }
+
+  /**
+   * Writes the given text, escaping the characters that cannot appear in the value of an
+   * attribute.
+   *
+   * @param out  a buffer to write to
+   * @param text the text to write
+   */
+  static void escape(StringBuilder out, String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          out.append("&amp;");
+          break;
+        case '<':
+          out.append("&lt;");
+          break;
+        case '>':
+          out.append("&gt;");
+          break;
+        case '"':
+          out.append("&quot;");
+          break;
+        default:
+          out.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package view;
+
+import java.io.IOException;
+import java.util.Objects;
+import model.AnimationModelView;
+import model.Frame;
+import model.shape.Shapes;
+
+/**
+ * Represents the view of a single frame of the animation as a static SVG document, holding only the
+ * shapes visible at its tick. It needs no display, so it can make thumbnails of an animation
+ * anywhere.
+ *
+ * <p>The view keeps one {@link Frame} and one buffer for the document, which are reused for every
+ * frame it writes, so writing many frames of an animation with {@link #write} allocates nothing
+ * once they have grown to the largest frame.
+ */
+public class SvgFrameView implements View {
+
+  private final AnimationModelView model;
+  private final int tick;
+  private final Frame frame;
+  private final StringBuilder document;
+  private final long[] geometry;
+
+  /**
+   * Instantiates a view of the frame of the provided animation at the given tick.
+   *
+   * @param animation an animation model to create a view of
+   * @param tick      the tick of the frame to write
+   * @throws NullPointerException if the animation is null
+   */
+  public SvgFrameView(AnimationModelView animation, int tick) throws NullPointerException {
+    this.model = Objects.requireNonNull(animation, "The animation cannot be null");
+    this.tick = tick;
+    this.frame = new Frame();
+    this.document = new StringBuilder();
+    this.geometry = new long[4];
+  }
+
+  /**
+   * Writes the frame at the tick of this view to the given output.
+   *
+   * @param appendable a source to output this frame to
+   * @param ignored    the speed, which a single frame does not have
+   * @throws NullPointerException  if the provided appendable is null
+   * @throws IllegalStateException if there is an error when trying to output the frame
+   */
+  @Override
+  public void run(Appendable appendable, int ignored) throws NullPointerException,
+      IllegalStateException {
+    write(this.tick, appendable);
+  }
+
+  /**
+   * Writes the frame at the given tick to the given output, as a static SVG document sized to the
+   * canvas of the animation. The shapes are written in the order they are drawn in.
+   *
+   * @param tick       the tick of the frame to write
+   * @param appendable a source to output the frame to
+   * @throws NullPointerException  if the provided appendable is null
+   * @throws IllegalStateException if there is an error when trying to output the frame
+   */
+  public void write(int tick, Appendable appendable) throws NullPointerException,
+      IllegalStateException {
+    Objects.requireNonNull(appendable);
+    this.model.getStateAt(tick, this.frame);
+    StringBuilder d = this.document;
+    d.setLength(0);
+    Svg.begin(d, this.model.getCanvas());
+    for (int slot = 0; slot < this.frame.size(); slot++) {
+      boolean ellipse = this.frame.getKind(slot) == Shapes.ELLIPSE;
+      Svg.geometry(ellipse, this.frame.getX(slot), this.frame.getY(slot),
+          this.frame.getWidth(slot), this.frame.getHeight(slot), this.geometry);
+      String[] attributes = ellipse ? Svg.ELLIPSE : Svg.RECTANGLE;
+      d.append(ellipse ? "<ellipse" : "<rect");
+      for (int i = 0; i < attributes.length; i++) {
+        d.append(' ').append(attributes[i]).append("=\"");
+        Svg.half(d, this.geometry[i]);
+        d.append('"');
+      }
+      d.append(" fill=\"");
+      Svg.rgb(d, this.frame.getR(slot), this.frame.getG(slot), this.frame.getB(slot));
+      d.append("\" />\n");
+    }
+    d.append("</svg>\n");
+    try {
+      appendable.append(d);
+    } catch (IOException e) {
+      throw new IllegalStateException("Error when trying to output the animation.");
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package view;
+
+import java.io.IOException;
+import java.util.Objects;
+import model.AnimationModelView;
+import model.AnimationVisitor;
+import model.Canvas;
+import model.shape.Shapes;
+
+/**
+ * Represents the SVG view of the animation, which writes the animation as an SVG document. Every
+ * shape is an element that is hidden until the shape appears, and every motion animates the
+ * attributes of the element it changes from the start to the end of the motion.
+ *
+ * <p>The document is written one element at a time, as the model passes on the shapes and their
+ * motions, so writing it takes the same memory however many motions the animation has. Every
+ * element is appended to the output on its own, so the output should be buffered.
+ */
+public class SvgView implements View {
+
+  private final AnimationModelView model;
+
+  /**
+   * Instantiates an SVG view of the provided animation.
+   *
+   * @param animation an animation model to create an SVG view of
+   * @throws NullPointerException if the animation is null
+   */
+  public SvgView(AnimationModelView animation) throws NullPointerException {
+    this.model = Objects.requireNonNull(animation, "The animation cannot be null");
+  }
+
+  /**
+   * Writes the animation to the given output as an SVG document, in which a tick lasts a second
+   * divided by the speed.
+   *
+   * @param appendable a source to output this animation to
+   * @param speed      a speed of the animation, in ticks per second
+   * @throws NullPointerException     if the provided appendable is null
+   * @throws IllegalArgumentException if the speed is not positive
+   * @throws IllegalStateException    if there is an error when trying to output the animation
+   */
+  @Override
+  public void run(Appendable appendable, int speed) throws NullPointerException,
+      IllegalArgumentException, IllegalStateException {
+    Objects.requireNonNull(appendable);
+    if (speed < 1) {
+      throw new IllegalArgumentException("The speed must be positive");
+    }
+    Writer writer = new Writer(appendable, speed);
+    writer.begin(this.model.getCanvas());
+    this.model.accept(writer);
+    writer.end();
+  }
+
+  /*
+  Writes the elements of the shapes as the model passes on the shapes and their motions. The element
+  of a shape is opened at its first motion, which is when the shape appears, and closed at the next
+  shape, when it is known when the shape disappears.
+   */
+  private static final class Writer implements AnimationVisitor {
+
+    private final Appendable out;
+    private final int speed;
+    private final StringBuilder element;
+    // the geometric attributes at the start and the end of the motion being written
+    private final long[] from;
+    private final long[] to;
+    private String name;
+    private Shapes kind;
+    private boolean open;
+    private int disappearsAt;
+
+    private Writer(Appendable out, int speed) {
+      this.out = out;
+      this.speed = speed;
+      this.element = new StringBuilder();
+      this.open = false;
+      this.from = new long[4];
+      this.to = new long[4];
+    }
+
+    /*
+    Helper method that writes the start of the document, sized to the given canvas if there is one.
+     */
+    private void begin(Canvas canvas) {
+      Svg.begin(this.element, canvas);
+      flush();
+    }
+
+    /*
+    Helper method that writes the end of the document.
+     */
+    private void end() {
+      close();
+      this.element.append("</svg>\n");
+      flush();
+    }
+
+    @Override
+    public void visitShape(String name, Shapes kind) {
+      close();
+      this.name = name;
+      this.kind = kind;
+    }
+
+    @Override
+    public void visitMotion(int start, int end,
+        int xPositionStart, int yPositionStart,
+        int xDimensionStart, int yDimensionStart,
+        int rStart, int gStart, int bStart,
+        int xPositionEnd, int yPositionEnd,
+        int xDimensionEnd, int yDimensionEnd,
+        int rEnd, int gEnd, int bEnd) {
+      boolean ellipse = this.kind == Shapes.ELLIPSE;
+      Svg.geometry(ellipse, xPositionStart, yPositionStart, xDimensionStart, yDimensionStart,
+          this.from);
+      Svg.geometry(ellipse, xPositionEnd, yPositionEnd, xDimensionEnd, yDimensionEnd, this.to);
+      String[] attributes = ellipse ? Svg.ELLIPSE : Svg.RECTANGLE;
+      StringBuilder e = this.element;
+
+      if (!this.open) {
+        e.append(ellipse ? "<ellipse" : "<rect").append(" id=\"");
+        Svg.escape(e, this.name);
+        e.append('"');
+        for (int i = 0; i < attributes.length; i++) {
+          e.append(' ').append(attributes[i]).append("=\"");
+          Svg.half(e, this.from[i]);
+          e.append('"');
+        }
+        e.append(" fill=\"");
+        Svg.rgb(e, rStart, gStart, bStart);
+        e.append("\" visibility=\"hidden\">\n");
+        set("visibility", start);
+        e.append("visible\" fill=\"freeze\" />\n");
+        this.open = true;
+        this.disappearsAt = end;
+      } else {
+        this.disappearsAt = Math.max(this.disappearsAt, end);
+      }
+
+      for (int i = 0; i < attributes.length; i++) {
+        if (this.from[i] != this.to[i]) {
+          if (animate(attributes[i], start, end)) {
+            Svg.half(e, this.from[i]);
+            e.append("\" to=\"");
+          }
+          Svg.half(e, this.to[i]);
+          e.append("\" fill=\"freeze\" />\n");
+        }
+      }
+      if (rStart != rEnd || gStart != gEnd || bStart != bEnd) {
+        if (animate("fill", start, end)) {
+          Svg.rgb(e, rStart, gStart, bStart);
+          e.append("\" to=\"");
+        }
+        Svg.rgb(e, rEnd, gEnd, bEnd);
+        e.append("\" fill=\"freeze\" />\n");
+      }
+      flush();
+    }
+
+    /*
+    Helper method that starts an element changing the given attribute over the given timeframe, up
+    to its from value, and returns true. A motion that takes no time sets the attribute instead, so
+    the element is started up to its value, and false is returned.
+     */
+    private boolean animate(String attribute, int start, int end) {
+      if (millis(start) == millis(end)) {
+        set(attribute, start);
+        return false;
+      }
+      this.element.append("    <animate attributeType=\"xml\" begin=\"");
+      time(start);
+      this.element.append("\" dur=\"").append(millis(end) - millis(start))
+          .append("ms\" attributeName=\"").append(attribute).append("\" from=\"");
+      return true;
+    }
+
+    /*
+    Helper method that starts an element setting the given attribute at the given tick, up to its
+    value.
+     */
+    private void set(String attribute, int tick) {
+      this.element.append("    <set attributeType=\"xml\" begin=\"");
+      time(tick);
+      this.element.append("\" attributeName=\"").append(attribute).append("\" to=\"");
+    }
+
+    /*
+    Helper method that closes the element of the shape visited last, if it has been opened, hiding
+    the shape after the tick it disappears at.
+     */
+    private void close() {
+      if (!this.open) {
+        return;
+      }
+      set("visibility", this.disappearsAt + 1);
+      this.element.append("hidden\" fill=\"freeze\" />\n")
+          .append(this.kind == Shapes.ELLIPSE ? "</ellipse>\n" : "</rect>\n");
+      this.open = false;
+      flush();
+    }
+
+    /*
+    Helper method that returns the number of milliseconds from the beginning to the given tick.
+     */
+    private long millis(int tick) {
+      return tick * 1000L / this.speed;
+    }
+
+    /*
+    Helper method that writes the time of the given tick.
+     */
+    private void time(int tick) {
+      this.element.append(millis(tick)).append("ms");
+    }
+
+    /*
+    Helper method that appends the elements written so far to the output, and empties the buffer.
+     */
+    private void flush() {
+      try {
+        this.out.append(this.element);
+      } catch (IOException e) {
+        throw new IllegalStateException("Error when trying to output the animation.");
+      }
+      this.element.setLength(0);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package view;
 
+import java.nio.file.Path;
 import java.util.Objects;
 import model.AnimationModelView;
 
@@ -19,6 +20,65 @@ public class ViewFactory {
    */
   public static View make(String type, AnimationModelView model) throws NullPointerException,
       IllegalArgumentException {
+    return make(type, model, 0);
+  }
+
+  /**
+   * Returns a view of the provided type, instantiated with the provided model, which shows the
+   * frame at the given tick if it is a view of a single frame.
+   *
+   * @param type  a type of the view to return
+   * @param model a model to instantiate a view with
+   * @param at    the tick of the frame to show, for a view of a single frame
+   * @return a view
+   * @throws NullPointerException     if any of the provided arguments is null
+   * @throws IllegalArgumentException if the provided type of view is not implemented
+   */
+  public static View make(String type, AnimationModelView model, int at)
+      throws NullPointerException, IllegalArgumentException {
+    return make(type, model, at, null);
+  }
+
+  /**
+   * Returns a view of the provided type, instantiated with the provided model, which shows the
+   * frame at the given tick if it is a view of a single frame, and writes to the given path if it
+   * is a view that writes images rather than text.
+   *
+   * @param type  a type of the view to return
+   * @param model a model to instantiate a view with
+   * @param at    the tick of the frame to show, for a view of a single frame
+   * @param path  the file or the directory to write the images to, for a view writing images, or
+   *              null
+   * @return a view
+   * @throws NullPointerException     if the type or the model is null
+   * @throws IllegalArgumentException if the provided type of view is not implemented, or it needs
+   *                                  a path and none is given
+   */
+  public static View make(String type, AnimationModelView model, int at, Path path)
+      throws NullPointerException, IllegalArgumentException {
+    return make(type, model, at, path, null);
+  }
+
+  /**
+   * Returns a view of the provided type, instantiated with the provided model, which shows the
+   * frame at the given tick if it is a view of a single frame, writes to the given path if it is a
+   * view that writes images rather than text, and writes its frames in the given form if it is a
+   * view of video frames.
+   *
+   * @param type  a type of the view to return
+   * @param model a model to instantiate a view with
+   * @param at    the tick of the frame to show, for a view of a single frame
+   * @param path  the file or the directory to write the images to, for a view writing images, or
+   *              null
+   * @param video the form of the video frames, y4m or rgb, or null for y4m
+   * @return a view
+   * @throws NullPointerException     if the type or the model is null
+   * @throws IllegalArgumentException if the provided type of view is not implemented, it needs a
+   *                                  path and none is given, or the form of the video frames is
+   *                                  not one of them
+   */
+  public static View make(String type, AnimationModelView model, int at, Path path,
+      String video) throws NullPointerException, IllegalArgumentException {
     Objects.requireNonNull(type);
     Objects.requireNonNull(model);
     switch (type.toLowerCase()) {
@@ -27,6 +87,26 @@ public class ViewFactory {
       case "visual":
         return new GraphicalView(model);
       case "svg":
+        return new SvgView(model);
+      case "svgframe":
+        return new SvgFrameView(model, at);
+      case "png":
+        if (path == null) {
+          throw new IllegalArgumentException("The png view needs a directory for its frames");
+        }
+        return new PngView(model, path);
+      case "gif":
+        if (path == null) {
+          throw new IllegalArgumentException("The gif view needs a file for its image");
+        }
+        return new GifView(model, path);
+      case "rawvideo":
+        if (video == null || video.equals("y4m")) {
+          return new RawVideoView(model, path, RawVideoView.Format.Y4M);
+        } else if (video.equals("rgb")) {
+          return new RawVideoView(model, path, RawVideoView.Format.RGB);
+        }
+        throw new IllegalArgumentException("A video can be y4m / rgb");
       default:
         System.out.println("Not null");
         throw new IllegalArgumentException("That view is not implemented yet");
@@ -0,0 +1,361 @@
+import static model.shape.Shapes.ELLIPSE;
+import static model.shape.Shapes.RECTANGLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.AnimationVisitor;
+import model.Frame;
+import model.FrameCursor;
+import model.GrowingFrameCursor;
+import model.shape.Shape;
+import model.shape.Shapes;
+import model.shape.properties.Position;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+
+/**
+ * Test cases for the columnar animation model. Verifying that it follows the same rules and
+ * computes the same frames as the object model.
+ */
+public class AnimationModelColumnarTest {
+
+  /*
+  Helper method that checks if two shapes are equal.
+   */
+  private boolean shapesEqual(Shape a, Shape b) {
+    return a.getKind().equals(b.getKind()) && a.getPosition().equals(b.getPosition())
+        && a.getDimensions().equals(b.getDimensions()) && a.getColor().equals(b.getColor());
+  }
+
+  /*
+  Helper method that checks that both lists hold the same shapes.
+   */
+  private void assertSameState(List<Shape> expected, List<Shape> actual) {
+    assertEquals(expected.size(), actual.size());
+    expected.forEach(shape ->
+        assertTrue(actual.stream().anyMatch(s -> shapesEqual(shape, s))));
+  }
+
+  /*
+  Helper method that reads the given sample file into the given model.
+   */
+  private AnimationModel read(String file, AnimationModel model) {
+    try {
+      return AnimationReader.parseFile(new FileReader(file), new AnimationBuilderModel(model));
+    } catch (FileNotFoundException e) {
+      fail("Could not read sample file");
+      return null;
+    }
+  }
+
+  /**
+   * Checks that the columnar model describes the sample animations exactly as the object model.
+   */
+  @Test
+  public void testToStringMatchesObjectModel() {
+    for (String file : new String[]{"./test/samples/toh-3.txt", "./test/samples/smalldemo.txt",
+        "./test/samples/buildings.txt"}) {
+      assertEquals(read(file, new AnimationModelImpl()).toString(),
+          read(file, new AnimationModelColumnar()).toString());
+    }
+  }
+
+  /**
+   * Checks that the columnar model computes the same frames as the object model for the sample
+   * animations, through the .getStateAt methods and through a cursor.
+   */
+  @Test
+  public void testStateMatchesObjectModel() {
+    for (String file : new String[]{"./test/samples/toh-3.txt", "./test/samples/smalldemo.txt",
+        "./test/samples/buildings.txt"}) {
+      AnimationModelView objects = (AnimationModelView) read(file, new AnimationModelImpl());
+      AnimationModelView columns = (AnimationModelView) read(file, new AnimationModelColumnar());
+      assertEquals(objects.getLength(), columns.getLength());
+
+      FrameCursor cursor = columns.cursor(0);
+      Frame frame = new Frame();
+      for (int t = 0; t <= objects.getLength() + 1; t++) {
+        List<Shape> expected = objects.getStateAt(t);
+        assertSameState(expected, columns.getStateAt(t));
+        assertSameState(expected, cursor.getState());
+
+        columns.getStateAt(t, frame);
+        assertEquals(expected.size(), frame.size());
+        for (int slot = 0; slot < frame.size(); slot++) {
+          Shape actual = frame.toShape(slot);
+          assertTrue(expected.stream().anyMatch(s -> shapesEqual(s, actual)));
+        }
+        cursor.advance();
+      }
+    }
+  }
+
+  /**
+   * Checks that the columnar model computes the same frames as the object model when the motions
+   * of many shapes are added in random order.
+   */
+  @Test
+  public void testRandomStateMatchesObjectModel() {
+    Random r = new Random();
+    AnimationModel objects = new AnimationModelImpl();
+    AnimationModel columns = new AnimationModelColumnar();
+    String[] names = {"W", "H", "Y", "N", "O", "T"};
+
+    for (String name : names) {
+      Shapes kind = r.nextBoolean() ? RECTANGLE : ELLIPSE;
+      objects.addShape(name, kind);
+      columns.addShape(name, kind);
+    }
+    for (int i = 0; i < 300; i++) {
+      String name = names[r.nextInt(names.length)];
+      int start = r.nextInt(200);
+      int end = start + r.nextInt(10);
+      int[] v = new int[14];
+      for (int p = 0; p < 14; p++) {
+        v[p] = p % 7 < 4 ? r.nextInt(3) : r.nextInt(2) * 255;
+      }
+      boolean added = addTo(objects, name, start, end, v);
+      assertEquals(added, addTo(columns, name, start, end, v));
+    }
+
+    for (int t = 0; t < 220; t++) {
+      assertSameState(objects.getStateAt(t), columns.getStateAt(t));
+    }
+  }
+
+  /**
+   * Checks that a growing cursor computes the same frames as a cursor of the complete model for
+   * the sample animations, when the motions are added in the order of their start and every motion
+   * starting by a tick is added just before the cursor moves to it, as long as it is settled, and
+   * that it only keeps more shapes than the complete model when it is not.
+   */
+  @Test
+  public void testGrowingCursor() {
+    for (String file : new String[]{"./test/samples/toh-3.txt", "./test/samples/toh-8.txt",
+        "./test/samples/buildings.txt"}) {
+      AnimationModelColumnar complete =
+          (AnimationModelColumnar) read(file, new AnimationModelColumnar());
+      List<String> names = new ArrayList<>();
+      List<Shapes> kinds = new ArrayList<>();
+      List<Object[]> motions = new ArrayList<>();
+      complete.accept(new AnimationVisitor() {
+        @Override
+        public void visitShape(String name, Shapes kind) {
+          names.add(name);
+          kinds.add(kind);
+        }
+
+        @Override
+        public void visitMotion(int start, int end, int x1, int y1, int w1, int h1, int r1,
+            int g1, int b1, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+          motions.add(new Object[]{names.get(names.size() - 1),
+              new int[]{start, end, x1, y1, w1, h1, r1, g1, b1, x2, y2, w2, h2, r2, g2, b2}});
+        }
+      });
+      motions.sort(Comparator.comparingInt(m -> ((int[]) m[1])[0]));
+
+      AnimationModelColumnar growing = new AnimationModelColumnar();
+      for (int i = 0; i < names.size(); i++) {
+        growing.addShape(names.get(i), kinds.get(i));
+      }
+      int added = 0;
+      int settled = 0;
+      GrowingFrameCursor cursor = null;
+      FrameCursor expected = complete.cursor(0);
+      Frame frame = new Frame();
+      for (int t = 0; t <= complete.getLength() + 1; t++) {
+        while (added < motions.size() && ((int[]) motions.get(added)[1])[0] <= t) {
+          Object[] motion = motions.get(added++);
+          int[] v = (int[]) motion[1];
+          growing.addMotion((String) motion[0], v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7],
+              v[8], v[9], v[10], v[11], v[12], v[13], v[14], v[15]);
+        }
+        if (cursor == null) {
+          cursor = growing.growingCursor(0);
+        } else {
+          cursor.advance();
+        }
+        assertEquals(t, cursor.getTick());
+        List<Shape> state = expected.getState();
+        cursor.getState(frame);
+        if (cursor.isSettled()) {
+          assertSameState(state, cursor.getState());
+          assertEquals(state.size(), frame.size());
+          settled++;
+        } else {
+          assertTrue(state.size() <= frame.size());
+        }
+        expected.advance();
+      }
+      assertTrue(settled > complete.getLength() / 2);
+    }
+  }
+
+  /**
+   * Checks that a growing cursor keeps a shape whose motions added so far end before its tick at
+   * its last state, and is not settled until a later motion of the shape is added, after which it
+   * computes the frames of the rest as the complete model does.
+   */
+  @Test
+  public void testGrowingCursorResting() {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.addShape("R", RECTANGLE);
+    model.addShape("C", ELLIPSE);
+    model.addMotion("R", 0, 20, 0, 0, 1, 1, 0, 0, 0, 20, 0, 1, 1, 0, 0, 0);
+    model.addMotion("C", 2, 4, 0, 0, 1, 1, 0, 0, 0, 4, 4, 1, 1, 0, 0, 0);
+    GrowingFrameCursor cursor = model.growingCursor(4);
+    assertTrue(cursor.isSettled());
+    cursor.advance();
+    assertFalse(cursor.isSettled());
+    List<Shape> state = cursor.getState();
+    assertEquals(2, state.size());
+    assertEquals(new Position(4, 4), state.get(1).getPosition());
+
+    model.addMotion("C", 8, 10, 4, 4, 1, 1, 0, 0, 0, 6, 6, 1, 1, 0, 0, 0);
+    for (int t = 5; t <= 10; t++) {
+      assertEquals(t, cursor.getTick());
+      assertTrue(cursor.isSettled());
+      assertSameState(model.getStateAt(t), cursor.getState());
+      cursor.advance();
+    }
+    assertFalse(cursor.isSettled());
+    assertEquals(1, model.getStateAt(11).size());
+  }
+
+  /**
+   * Checks that a growing cursor can start at any tick, and that it cannot be made or moved once
+   * a motion has been added out of the order of their start.
+   */
+  @Test
+  public void testGrowingCursorUnsorted() {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.addShape("R", RECTANGLE);
+    model.addShape("C", ELLIPSE);
+    model.addMotion("R", 0, 10, 0, 0, 1, 1, 0, 0, 0, 10, 0, 1, 1, 0, 0, 0);
+    model.addMotion("C", 2, 4, 0, 0, 1, 1, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0);
+    model.addMotion("C", 6, 8, 0, 0, 1, 1, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0);
+    FrameCursor cursor = model.growingCursor(5);
+    assertEquals(5, cursor.getTick());
+    assertSameState(model.getStateAt(5), cursor.getState());
+
+    model.addMotion("C", 1, 2, 0, 0, 1, 1, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0);
+    try {
+      cursor.advance();
+      fail("Exception should have been thrown");
+    } catch (IllegalStateException e) {
+      assertEquals("The motions have not been added in the order of their start", e.getMessage());
+    }
+    try {
+      model.growingCursor(0);
+      fail("Exception should have been thrown");
+    } catch (IllegalStateException e) {
+      assertEquals("The motions have not been added in the order of their start", e.getMessage());
+    }
+  }
+
+  /**
+   * Checks that the columnar model computes the same frames as the object model, with the shapes
+   * in the same order, when frames are computed in between adding motions, in order of their start
+   * and out of it, and into a frame the object model computed a frame into before.
+   */
+  @Test
+  public void testStateWhileAdding() {
+    Random r = new Random(3);
+    AnimationModel objects = new AnimationModelImpl();
+    AnimationModel columns = new AnimationModelColumnar();
+    Frame frame = new Frame();
+    for (int s = 0; s < 80; s++) {
+      Shapes kind = r.nextBoolean() ? RECTANGLE : ELLIPSE;
+      objects.addShape("S" + s, kind);
+      columns.addShape("S" + s, kind);
+    }
+
+    for (int i = 0; i < 1500; i++) {
+      String name = "S" + r.nextInt(80);
+      int start = i < 1000 ? i / 5 + r.nextInt(3) : r.nextInt(300);
+      int end = start + r.nextInt(12);
+      int[] v = new int[14];
+      for (int p = 0; p < 14; p++) {
+        v[p] = p % 7 < 4 ? r.nextInt(3) : r.nextInt(2) * 255;
+      }
+      boolean added = addTo(objects, name, start, end, v);
+      assertEquals(added, addTo(columns, name, start, end, v));
+
+      if (i % 50 == 0) {
+        for (int t = 0; t < 320; t += 1 + r.nextInt(5)) {
+          List<Shape> expected = objects.getStateAt(t);
+          ((AnimationModelView) objects).getStateAt(t, frame);
+          ((AnimationModelView) columns).getStateAt(t, frame);
+          assertEquals(expected.size(), frame.size());
+          for (int slot = 0; slot < frame.size(); slot++) {
+            assertTrue(shapesEqual(expected.get(slot), frame.toShape(slot)));
+          }
+        }
+      }
+    }
+  }
+
+  /*
+  Helper method that adds a motion to the given model and returns whether it has been added, or the
+  model refused it.
+   */
+  private boolean addTo(AnimationModel model, String name, int start, int end, int[] v) {
+    try {
+      model.addMotion(name, start, end, v[0], v[1], v[2], v[3], v[4], v[5], v[6],
+          v[7], v[8], v[9], v[10], v[11], v[12], v[13]);
+      return true;
+    } catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Checks that the columnar model refuses invalid motions with the same messages as the object
+   * model.
+   */
+  @Test
+  public void testInvalidMotions() {
+    AnimationModel model = new AnimationModelColumnar();
+    model.addShape("R", RECTANGLE);
+    model.addMotion("R", 10, 100, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 255);
+
+    String[] expected = {
+        "The shape's name cannot be null",
+        "There is no shape with such name. Add it first.",
+        "A color value must be within 0 and 255.",
+        "The start time cannot be less than 0",
+        "The end time cannot be before the start time",
+        "There is another motion of the same kind or a freeze in progress",
+        "Cannot freeze shape when there is a motion in progress"};
+    Runnable[] calls = {
+        () -> model.addMotion(null, 1, 2, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 0),
+        () -> model.addMotion("E", 1, 2, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 0),
+        () -> model.addMotion("R", 1, 2, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 256),
+        () -> model.addMotion("R", -1, 2, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 0),
+        () -> model.addMotion("R", 3, 2, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 0),
+        () -> model.addMotion("R", 50, 150, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 255, 0, 0),
+        () -> model.addMotion("R", 5, 20, 1, 1, 1, 1, 0, 0, 0, 1, 1, 1, 1, 0, 0, 0)};
+
+    for (int i = 0; i < calls.length; i++) {
+      try {
+        calls[i].run();
+        fail("Exception should have been thrown");
+      } catch (RuntimeException e) {
+        assertEquals(expected[i], e.getMessage());
+      }
+    }
+  }
+}
@@ -13,6 +13,9 @@ import java.util.Random;
 import java.util.stream.Collectors;
 import model.AnimationModel;
 import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.Frame;
+import model.FrameCursor;
 import model.shape.Shape;
 import model.shape.ShapeFactory;
 import model.shape.Shapes;
@@ -1569,14 +1572,16 @@ public class AnimationModelTest {
 
   /*
   Helper method that interpolates the between two values of the given property between the start
-  time and the end time.
+  time and the end time, rounding to the closest integer.
    */
   private int interpolate(int timestamp, int start, int end, int init,
       int fin) {
 
-    return (end - start) == 0 ? fin :
-        (init * ((end - timestamp) / (end - start)) +
-            fin * ((timestamp - start) / (end - start)));
+    if (end == start) {
+      return fin;
+    }
+    double slope = ((double) fin - init) / (end - start);
+    return (int) (init + Math.round(slope * (timestamp - start)));
   }
 
   /*
@@ -1743,4 +1748,257 @@ public class AnimationModelTest {
 
   }
 
+  /**
+   * Checks that the motions added after the state of the animation has been computed are taken
+   * into account by the following calls of the .getStateAt method.
+   */
+  @Test
+  public void testGetStateAtAfterAddingMotions() {
+    AnimationModel model = new AnimationModelImpl();
+    model.addShape("R", RECTANGLE);
+    model.addMotion("R", 1, 10,
+        0, 0, 10, 10, 0, 0, 0,
+        0, 0, 10, 10, 0, 0, 0);
+
+    assertEquals(1, model.getStateAt(10).size());
+    assertTrue(shapesEqual(
+        ShapeFactory.make(RECTANGLE, new Position(0, 0), new Dimensions(10, 10),
+            new Color(0, 0, 0)),
+        model.getStateAt(10).get(0)));
+    assertEquals(0, model.getStateAt(20).size());
+
+    model.addMotion("R", 10, 20,
+        0, 0, 10, 10, 0, 0, 0,
+        50, 60, 10, 10, 0, 0, 0);
+    model.addShape("E", ELLIPSE);
+    model.addMotion("E", 20, 30,
+        5, 5, 5, 5, 255, 0, 0,
+        5, 5, 5, 5, 0, 0, 255);
+
+    List<Shape> state = model.getStateAt(20);
+    assertEquals(2, state.size());
+    assertTrue(state.stream().anyMatch(s -> shapesEqual(
+        ShapeFactory.make(RECTANGLE, new Position(50, 60), new Dimensions(10, 10),
+            new Color(0, 0, 0)), s)));
+    assertTrue(state.stream().anyMatch(s -> shapesEqual(
+        ShapeFactory.make(ELLIPSE, new Position(5, 5), new Dimensions(5, 5),
+            new Color(255, 0, 0)), s)));
+
+    state = model.getStateAt(30);
+    assertEquals(1, state.size());
+    assertTrue(shapesEqual(
+        ShapeFactory.make(ELLIPSE, new Position(5, 5), new Dimensions(5, 5),
+            new Color(0, 0, 255)), state.get(0)));
+  }
+
+  /**
+   * Checks that a cursor playing the animation forward produces the same frames as the .getStateAt
+   * method, starting from the beginning and from the middle of the animation.
+   */
+  @Test
+  public void testCursorMatchesGetStateAt() {
+    Random r = new Random();
+    AnimationModel model = new AnimationModelImpl();
+    String[] names = {"W", "H", "Y", "N", "O", "T"};
+
+    for (String name : names) {
+      model.addShape(name, r.nextBoolean() ? RECTANGLE : ELLIPSE);
+      int end = r.nextInt(20);
+      for (int j = 0; j < 20; j++) {
+        int start = end;
+        end = start + r.nextInt(10);
+        model.addMotion(name, start, end,
+            r.nextInt(100), r.nextInt(100), r.nextInt(100), r.nextInt(100),
+            r.nextInt(256), r.nextInt(256), r.nextInt(256),
+            r.nextInt(100), r.nextInt(100), r.nextInt(100), r.nextInt(100),
+            r.nextInt(256), r.nextInt(256), r.nextInt(256));
+      }
+    }
+
+    for (int startTick : new int[]{0, 50}) {
+      FrameCursor cursor = ((AnimationModelView) model).cursor(startTick);
+      for (int t = startTick; t < 250; t++) {
+        assertEquals(t, cursor.getTick());
+        List<Shape> expected = model.getStateAt(t);
+        List<Shape> actual = cursor.getState();
+        assertEquals(expected.size(), actual.size());
+        expected.forEach(shape ->
+            assertTrue(actual.stream().anyMatch(s -> shapesEqual(shape, s))));
+        cursor.advance();
+      }
+    }
+  }
+
+  /**
+   * Checks that writing the state of the animation into a reused frame gives the same shapes as
+   * the .getStateAt method returning a list, both for the model and for a cursor.
+   */
+  @Test
+  public void testGetStateAtIntoFrame() {
+    Random r = new Random();
+    AnimationModel model = new AnimationModelImpl();
+    String[] names = {"W", "H", "Y", "N", "O", "T"};
+
+    for (String name : names) {
+      model.addShape(name, r.nextBoolean() ? RECTANGLE : ELLIPSE);
+      int end = r.nextInt(20);
+      for (int j = 0; j < 20; j++) {
+        int start = end;
+        end = start + r.nextInt(10);
+        model.addMotion(name, start, end,
+            r.nextInt(100), r.nextInt(100), r.nextInt(100), r.nextInt(100),
+            r.nextInt(256), r.nextInt(256), r.nextInt(256),
+            r.nextInt(100), r.nextInt(100), r.nextInt(100), r.nextInt(100),
+            r.nextInt(256), r.nextInt(256), r.nextInt(256));
+      }
+    }
+
+    AnimationModelView view = (AnimationModelView) model;
+    FrameCursor cursor = view.cursor(0);
+    Frame frame = new Frame();
+    for (int t = 0; t < 250; t++) {
+      List<Shape> expected = model.getStateAt(t);
+      for (int pass = 0; pass < 2; pass++) {
+        if (pass == 0) {
+          view.getStateAt(t, frame);
+        } else {
+          cursor.getState(frame);
+        }
+        assertEquals(expected.size(), frame.size());
+        for (int slot = 0; slot < frame.size(); slot++) {
+          Shape actual = frame.toShape(slot);
+          assertTrue(expected.stream().anyMatch(s -> shapesEqual(s, actual)));
+        }
+      }
+      cursor.advance();
+    }
+  }
+
+  @Test
+  public void testGetStateAtInterpolatesBetweenEnds() {
+    AnimationModel model = new AnimationModelImpl();
+    model.addShape("R", RECTANGLE);
+    model.addMotion("R", 0, 3,
+        0, 10, 30, 30, 0, 0, 255,
+        10, 0, 60, 30, 255, 100, 255);
+
+    Shape third = model.getStateAt(1).get(0);
+    assertEquals(3, third.getPosition().getX());
+    assertEquals(7, third.getPosition().getY());
+    assertEquals(40, third.getDimensions().getX());
+    assertEquals(85, third.getColor().getR());
+    assertEquals(33, third.getColor().getG());
+
+    Shape twoThirds = model.getStateAt(2).get(0);
+    assertEquals(7, twoThirds.getPosition().getX());
+    assertEquals(3, twoThirds.getPosition().getY());
+    assertEquals(50, twoThirds.getDimensions().getX());
+    assertEquals(170, twoThirds.getColor().getR());
+    assertEquals(67, twoThirds.getColor().getG());
+
+    Frame frame = new Frame();
+    ((AnimationModelView) model).getStateAt(2, frame);
+    assertTrue(shapesEqual(twoThirds, frame.toShape(0)));
+  }
+
+  /**
+   * Checks that the state of the animation only holds the shapes that are visible at the given
+   * timestamp, which keep the form they have at the start of their earliest motion until a motion
+   * changes it, in every way of computing the state.
+   */
+  @Test
+  public void testGetStateAtOnlyVisibleShapes() {
+    AnimationModel model = new AnimationModelImpl();
+    model.addShape("R", RECTANGLE);
+    model.addShape("E", ELLIPSE);
+    model.addShape("N", ELLIPSE);
+    model.addMotion("R", 10, 20,
+        0, 0, 10, 10, 0, 0, 0,
+        20, 0, 10, 10, 0, 0, 0);
+    model.addMotion("R", 5, 10,
+        0, 0, 10, 10, 0, 0, 0,
+        0, 0, 10, 10, 0, 0, 0);
+    model.addMotion("E", 15, 30,
+        5, 5, 40, 50, 255, 0, 0,
+        35, 5, 40, 50, 255, 0, 0);
+
+    assertEquals("Name: R\nKind: rectangle\n"
+            + "Min corner: (0,0), Width/Height: (10,10), Color: (0,0,0)\n"
+            + "Appears at t=5\nDisappears at t=20",
+        model.toString().split("\n\n")[2]);
+
+    AnimationModelView view = (AnimationModelView) model;
+    Frame frame = new Frame();
+    int[] sizes = {0, 1, 1, 2, 1, 0};
+    int[] ticks = {4, 5, 14, 15, 30, 31};
+    for (int i = 0; i < ticks.length; i++) {
+      assertEquals(sizes[i], model.getStateAt(ticks[i]).size());
+      view.getStateAt(ticks[i], frame);
+      assertEquals(sizes[i], frame.size());
+      FrameCursor cursor = view.cursor(ticks[i]);
+      assertEquals(sizes[i], cursor.getState().size());
+    }
+
+    Shape ellipse = model.getStateAt(20).stream()
+        .filter(shape -> shape.getKind() == ELLIPSE).findFirst().get();
+    assertTrue(shapesEqual(ShapeFactory.make(ELLIPSE, new Position(15, 5),
+        new Dimensions(40, 50), new Color(255, 0, 0)), ellipse));
+  }
+
+  /*
+  Helper method to check if the timeframes overlap, as the model defines it.
+   */
+  private boolean overlap(int[] other, int[] m) {
+    return m[0] < other[1] && other[1] < m[1] || m[0] < other[0] && other[0] < m[1]
+        || other[0] < m[1] && m[1] < other[1] || other[0] < m[0] && m[0] < other[1];
+  }
+
+  /**
+   * Checks that the motions that overlap other motions of the shape are rejected with the right
+   * message, and all the others are added, for many random motions within a short time.
+   */
+  @Test
+  public void testAddMotionOverlapsRandom() {
+    Random r = new Random();
+    AnimationModel model = new AnimationModelImpl();
+    model.addShape("R", RECTANGLE);
+    // the timeframe and the kinds of every motion added: 1 for a move, 2 for a scale, 4 for a color
+    // change and 8 for a freeze
+    List<int[]> added = new LinkedList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      int start = r.nextInt(60);
+      int end = start + r.nextInt(6);
+      int changes = r.nextInt(8);
+      int[] m = {start, end, changes == 0 ? 8 : changes};
+
+      String expected = null;
+      for (int kind = 1; kind <= 8 && expected == null; kind *= 2) {
+        if ((m[2] & kind) == 0) {
+          continue;
+        }
+        for (int[] other : added) {
+          if ((other[2] & (kind | 8)) != 0 && overlap(other, m)) {
+            expected = "There is another motion of the same kind or a freeze in progress";
+          }
+        }
+        for (int[] other : added) {
+          if (expected == null && kind == 8 && overlap(other, m)) {
+            expected = "Cannot freeze shape when there is a motion in progress";
+          }
+        }
+      }
+
+      try {
+        model.addMotion("R", start, end,
+            0, 0, 10, 10, 0, 0, 0,
+            (changes & 1) * 10, 0, 10 + (changes & 2) * 5, 10, (changes & 4) * 50, 0, 0);
+        assertEquals(null, expected);
+        added.add(m);
+      } catch (IllegalStateException ise) {
+        assertEquals(expected, ise.getMessage());
+      }
+    }
+  }
+
 }
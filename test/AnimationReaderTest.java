@@ -0,0 +1,407 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+import util.AnimationBuilder;
+import util.AnimationReader;
+
+/**
+ * Test cases for the animation reader. Verifying that the text is split into the right calls of the
+ * builder, and that malformed text is reported with the right messages.
+ */
+public class AnimationReaderTest {
+
+  /*
+  A builder that logs every call it receives, one per line.
+   */
+  private static class LoggingBuilder implements AnimationBuilder<String> {
+
+    private final StringBuilder log = new StringBuilder();
+
+    @Override
+    public String build() {
+      return this.log.toString();
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+      this.log.append(String.format("canvas %d %d %d %d%n", x, y, width, height));
+    }
+
+    @Override
+    public void declareShape(String name, String type) {
+      this.log.append(String.format("shape %s %s%n", name, type));
+    }
+
+    @Override
+    public void addMotion(String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+      this.log.append(String.format("motion %s %d %d %d %d %d %d %d %d %d %d %d %d %d %d %d %d%n",
+          name, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2));
+    }
+  }
+
+  /*
+  Helper method that reads the given text and returns the log of the builder calls.
+   */
+  private String read(String text) {
+    return AnimationReader.parseFile(new StringReader(text), new LoggingBuilder());
+  }
+
+  /*
+  Helper method that checks that reading the given text fails with the given message.
+   */
+  private void assertFails(String text, String message) {
+    try {
+      read(text);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+
+  /**
+   * Checks that whitespace and comments separate the tokens, and that integers of any sign and
+   * size are read.
+   */
+  @Test
+  public void testReadTokens() {
+    String text = "# a comment\n"
+        + "canvas 200 -70\t360 +360   # another comment\r\n"
+        + "\n\n   shape R#comment right after a token\n rectangle\n"
+        + "motion R 1 2 3 4 5 6 7 8\n"
+        + "  9 -2147483648 2147483647 12 13 14 15 16";
+    assertEquals(String.format("canvas 200 -70 360 360%n"
+            + "shape R rectangle%n"
+            + "motion R 1 2 3 4 5 6 7 8 9 -2147483648 2147483647 12 13 14 15 16%n"),
+        read(text));
+    assertEquals("", read(" \n# nothing but a comment"));
+  }
+
+  /**
+   * Checks that tokens longer than the blocks the text is read in are read whole.
+   */
+  @Test
+  public void testReadLongTokens() {
+    StringBuilder name = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      name.append((char) ('a' + i % 26));
+    }
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 3; i++) {
+      text.append("shape ").append(name).append(" ellipse\n");
+    }
+    String line = String.format("shape %s ellipse%n", name);
+    assertEquals(line + line + line, read(text.toString()));
+  }
+
+  /**
+   * Checks that malformed text is reported with the messages describing what is wrong.
+   */
+  @Test
+  public void testReadErrors() {
+    assertFails("canvas 0 0 10\nshape", "Canvas: expected integer for height, got: shape");
+    assertFails("canvas 0 0 10",
+        "Canvas: expected integer for height, but no more input available");
+    assertFails("motion R 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 2147483648",
+        "Motion: expected integer for final blue value, got: 2147483648");
+    assertFails("motion R 1 2 3 4 5 6 7 8 9 10 11 12 1-3 14 15 16",
+        "Motion: expected integer for final height, got: 1-3");
+    assertFails("motion R 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 -",
+        "Motion: expected integer for final blue value, got: -");
+    assertFails("motion", "Motion: Expected a shape name, but no more input available");
+    assertFails("shape R # no type", "Shape: Expected a type, but no more input available");
+    assertFails("shape", "Shape: Expected a name, but no more input available");
+    assertFails("canvas 0 0 10 10\nrotate R 90 # not a keyword\nshape R ellipse",
+        "Unexpected keyword: rotate R 90 # not a keyword");
+  }
+
+  /**
+   * Checks that a name repeated on many lines is read into the same String every time, whether the
+   * text is read from a Readable or from a mapped file.
+   */
+  @Test
+  public void testReadInternsNames() throws IOException {
+    List<String> names = new ArrayList<>();
+    AnimationBuilder<String> builder = new LoggingBuilder() {
+      @Override
+      public void declareShape(String name, String type) {
+        names.add(name);
+        names.add(type);
+      }
+
+      @Override
+      public void addMotion(String name,
+          int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+          int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+        names.add(name);
+      }
+    };
+    String text = "shape R rectangle\nshape C ellipse\nshape Q rectangle\n"
+        + "motion R 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16\n"
+        + "motion C 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16\n"
+        + "motion R 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16\n";
+    AnimationReader.parseFile(new StringReader(text), builder);
+    Path path = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+      AnimationReader.parseFile(path, builder);
+    } finally {
+      Files.delete(path);
+    }
+    for (int read = 0; read < 2; read++) {
+      List<String> run = names.subList(read * 9, read * 9 + 9);
+      assertEquals(Arrays.asList("R", "rectangle", "C", "ellipse", "Q", "rectangle", "R", "C",
+          "R"), run);
+      assertSame(run.get(0), run.get(6));
+      assertSame(run.get(0), run.get(8));
+      assertSame(run.get(2), run.get(7));
+      assertSame(run.get(1), run.get(5));
+    }
+  }
+
+  /**
+   * Checks that reading a memory-mapped file gives the same calls as reading it as text, for the
+   * sample animations and for names that are not ASCII.
+   */
+  @Test
+  public void testReadMappedFile() throws IOException {
+    for (String sample : new String[]{"toh-3.txt", "smalldemo.txt", "buildings.txt"}) {
+      Path path = Paths.get("./test/samples", sample);
+      assertEquals(
+          AnimationReader.parseFile(new FileReader(path.toFile()), new LoggingBuilder()),
+          AnimationReader.parseFile(path, new LoggingBuilder()));
+    }
+
+    Path path = Files.createTempFile("animation", ".txt");
+    try {
+      String text = "# \u00fcn\u00efc\u00f6d\u00e9 comment\n"
+          + "shape Caf\u00e9 ellipse\nshape \u5f62 rectangle";
+      Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+      assertEquals(read(text), AnimationReader.parseFile(path, new LoggingBuilder()));
+      Files.write(path, new byte[0]);
+      assertEquals("", AnimationReader.parseFile(path, new LoggingBuilder()));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /*
+  Helper method that compresses the given bytes with gzip, or in the zlib format if not.
+   */
+  private byte[] compress(byte[] bytes, boolean gzip) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = gzip
+        ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+      out.write(bytes);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Checks that files compressed with gzip or zlib are read as the text they hold, on one thread
+   * and on several, that their errors are reported as in the text, that text that only starts
+   * like zlib data is read as text, and that compressions the JDK cannot read are reported.
+   */
+  @Test
+  public void testReadCompressed() throws Exception {
+    Path path = Files.createTempFile("animation", ".txt.gz");
+    try {
+      String large = makeLargeText();
+      String sample = new String(Files.readAllBytes(Paths.get("./test/samples/toh-5.txt")),
+          StandardCharsets.UTF_8);
+      String[] texts = {"", "canvas 0 0 10 10\nshape Caf\u00e9 ellipse", sample, large};
+      for (String text : texts) {
+        for (boolean gzip : new boolean[]{true, false}) {
+          Files.write(path, compress(text.getBytes(StandardCharsets.UTF_8), gzip));
+          assertEquals(read(text), AnimationReader.parseFile(path, new LoggingBuilder()));
+          assertEquals(read(text), AnimationReader.parseFile(path, new LoggingBuilder(), 4));
+        }
+      }
+
+      String broken = "motion S0 1 2 x\n" + large;
+      Files.write(path, compress(broken.getBytes(StandardCharsets.US_ASCII), true));
+      assertEquals("Motion: expected integer for initial y-coordinate, got: x",
+          errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder())));
+
+      byte[] truncated = compress(large.getBytes(StandardCharsets.US_ASCII), true);
+      Files.write(path, Arrays.copyOf(truncated, truncated.length / 2));
+      assertTrue(errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder()))
+          .startsWith("Could not read the animation: "));
+
+      // text that starts with a valid zlib header, but does not inflate
+      for (String text : new String[]{"x canvas 0 0 1 1\n", "80 shape S rectangle\n"}) {
+        Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(errorOf(() -> read(text)),
+            errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder())));
+      }
+
+      Files.write(path, new byte[]{(byte) 0xFD, '7', 'z', 'X', 'Z', 0, 0, 0});
+      assertEquals("Animations compressed with xz cannot be read",
+          errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder())));
+      Files.write(path, new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0});
+      assertEquals("Animations compressed with zstd cannot be read",
+          errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder())));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /*
+  Helper method that generates the text of a few megabytes of animation, with comments, and with
+  some motions split over several lines.
+   */
+  private String makeLargeText() {
+    StringBuilder text = new StringBuilder("canvas 0 0 800 600\n");
+    for (int m = 0; m < 60000; m++) {
+      if (m % 100 == 0) {
+        text.append("# shape S").append(m / 100).append("\nshape S").append(m / 100)
+            .append(" rectangle\n");
+      }
+      text.append("motion S").append(m / 100);
+      for (int i = 0; i < 16; i++) {
+        text.append(i == 8 && m % 7 == 0 ? "\n    " : " ").append(m % 1000 + i);
+      }
+      text.append('\n');
+    }
+    return text.toString();
+  }
+
+  /*
+  Helper method that returns the message the given reading fails with, or null if it does not.
+   */
+  private String errorOf(Callable<String> reading) throws Exception {
+    try {
+      reading.call();
+      return null;
+    } catch (IllegalStateException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Checks that reading a file on several threads gives the same calls in the same order as
+   * reading it on one, and fails with the same message where the file is malformed.
+   */
+  @Test
+  public void testReadInParallel() throws Exception {
+    String text = makeLargeText();
+    Path path = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(path, text.getBytes(StandardCharsets.US_ASCII));
+      String expected = AnimationReader.parseFile(path, new LoggingBuilder());
+      assertEquals(expected, AnimationReader.parseFile(path, new LoggingBuilder(), 4));
+      assertEquals(expected, AnimationReader.parseFile(path, new LoggingBuilder(), 1));
+
+      int middle = text.indexOf("motion S300 ");
+      for (String broken : new String[]{"motion S300 1 2 x", "rotate S300 "}) {
+        Files.write(path, (text.substring(0, middle) + broken + text.substring(middle))
+            .getBytes(StandardCharsets.US_ASCII));
+        String message = errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder()));
+        assertTrue(message != null);
+        assertEquals(message,
+            errorOf(() -> AnimationReader.parseFile(path, new LoggingBuilder(), 4)));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /*
+  Helper method that writes the given text to the given file.
+   */
+  private void write(Path path, String text) throws IOException {
+    Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /*
+  Helper method that deletes the given directory with everything in it.
+   */
+  private void deleteAll(Path directory) throws IOException {
+    List<Path> paths = new ArrayList<>();
+    Files.walk(directory).forEach(paths::add);
+    for (int i = paths.size() - 1; i >= 0; i--) {
+      Files.delete(paths.get(i));
+    }
+  }
+
+  /**
+   * Checks that included files are read in place of their include lines, relative to the including
+   * file, with their motions shifted and their canvas left out, on one thread or several, and that
+   * missing, malformed or circular includes are reported.
+   */
+  @Test
+  public void testReadIncludes() throws Exception {
+    Path directory = Files.createTempDirectory("animation");
+    try {
+      Files.createDirectory(directory.resolve("parts"));
+      Path scene = directory.resolve("scene.txt");
+      write(scene, "canvas 0 0 100 100\ninclude parts/a.txt 10\nshape M rectangle\n"
+          + "include parts/b.txt.gz # compressed\nmotion M 0 1 1 1 1 0 0 0 4 2 2 2 2 0 0 0\n");
+      write(directory.resolve("parts/a.txt"), "canvas 5 5 5 5\nshape A ellipse\n"
+          + "motion A 0 1 1 1 1 0 0 0 5 1 1 1 1 0 0 0\ninclude c.txt   -3\n"
+          + "motion A 5 1 1 1 1 0 0 0 6 1 1 1 1 0 0 0\n");
+      write(directory.resolve("parts/c.txt"), "shape C rectangle\n"
+          + "motion C 3 1 1 1 1 0 0 0 4 1 1 1 1 0 0 0\n");
+      Files.write(directory.resolve("parts/b.txt.gz"), compress(
+          "shape B ellipse\nmotion B 1 1 1 1 1 0 0 0 2 1 1 1 1 0 0 0".getBytes(
+              StandardCharsets.US_ASCII), true));
+      String expected = read("canvas 0 0 100 100\nshape A ellipse\n"
+          + "motion A 10 1 1 1 1 0 0 0 15 1 1 1 1 0 0 0\nshape C rectangle\n"
+          + "motion C 10 1 1 1 1 0 0 0 11 1 1 1 1 0 0 0\n"
+          + "motion A 15 1 1 1 1 0 0 0 16 1 1 1 1 0 0 0\nshape M rectangle\n"
+          + "shape B ellipse\nmotion B 1 1 1 1 1 0 0 0 2 1 1 1 1 0 0 0\n"
+          + "motion M 0 1 1 1 1 0 0 0 4 2 2 2 2 0 0 0\n");
+      assertEquals(expected, AnimationReader.parseFile(scene, new LoggingBuilder()));
+      assertEquals(expected, AnimationReader.parseFile(scene, new LoggingBuilder(), 4));
+      assertEquals(read("shape C rectangle\nmotion C 4 1 1 1 1 0 0 0 5 1 1 1 1 0 0 0\n"),
+          read("include " + directory.resolve("parts/c.txt") + " 1"));
+
+      write(directory.resolve("parts/c.txt"), "shape C rectangle\ninclude ../scene.txt\n");
+      for (int threads : new int[]{1, 4}) {
+        assertEquals("c.txt: An animation cannot include itself: ../scene.txt",
+            errorOf(() -> AnimationReader.parseFile(scene, new LoggingBuilder(), threads)));
+      }
+      write(directory.resolve("parts/c.txt"), "shape C rectangle\ninclude d.txt\n");
+      for (int threads : new int[]{1, 4}) {
+        assertEquals("c.txt: Could not read the included animation: d.txt",
+            errorOf(() -> AnimationReader.parseFile(scene, new LoggingBuilder(), threads)));
+      }
+      write(directory.resolve("parts/c.txt"), "motion C 1 2 x");
+      for (int threads : new int[]{1, 4}) {
+        assertEquals("c.txt: Motion: expected integer for initial y-coordinate, got: x",
+            errorOf(() -> AnimationReader.parseFile(scene, new LoggingBuilder(), threads)));
+      }
+      assertFails("include parts/c.txt ten", "Include: expected integer for time offset, got: ten");
+      assertFails("include", "Include: Expected a path, but no more input available");
+    } finally {
+      deleteAll(directory);
+    }
+  }
+
+  /**
+   * Checks that the number of threads must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadInParallelNoThreads() throws IOException {
+    AnimationReader.parseFile(Paths.get("./test/samples/toh-3.txt"), new LoggingBuilder(), 0);
+  }
+}
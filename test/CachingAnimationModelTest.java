@@ -0,0 +1,156 @@
+import static model.shape.Shapes.ELLIPSE;
+import static model.shape.Shapes.RECTANGLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import model.AnimationModelImpl;
+import model.CachingAnimationModel;
+import model.Frame;
+import model.shape.Shape;
+import org.junit.Test;
+
+/**
+ * Test cases for the frame cache of the animation model. Verifying that cached frames match the
+ * cached model, that the least recently used frames are evicted and that changes to the model
+ * empty the cache.
+ */
+public class CachingAnimationModelTest {
+
+  /*
+  Helper method that checks if two shapes are equal.
+   */
+  private boolean shapesEqual(Shape a, Shape b) {
+    return a.getKind().equals(b.getKind()) && a.getPosition().equals(b.getPosition())
+        && a.getDimensions().equals(b.getDimensions()) && a.getColor().equals(b.getColor());
+  }
+
+  /*
+  Helper method that creates a cache of the given number of frames around a small animation.
+   */
+  private CachingAnimationModel makeModel(int frames) {
+    CachingAnimationModel model = CachingAnimationModel.ofFrames(new AnimationModelImpl(), frames);
+    model.addShape("R", RECTANGLE);
+    model.addMotion("R", 0, 10,
+        0, 0, 10, 10, 0, 0, 0,
+        100, 100, 10, 10, 0, 0, 0);
+    return model;
+  }
+
+  /**
+   * Checks that repeated queries are answered from the cache with the same frame.
+   */
+  @Test
+  public void testRepeatedQueriesHitTheCache() {
+    CachingAnimationModel model = makeModel(4);
+    List<Shape> first = model.getStateAt(5);
+    List<Shape> second = model.getStateAt(5);
+
+    assertEquals(1, model.getMisses());
+    assertEquals(1, model.getHits());
+    assertEquals(first.size(), second.size());
+    assertTrue(shapesEqual(first.get(0), second.get(0)));
+    assertEquals(50, second.get(0).getPosition().getX());
+
+    Frame frame = new Frame();
+    model.getStateAt(5, frame);
+    assertEquals(2, model.getHits());
+    assertEquals(1, frame.size());
+    assertTrue(shapesEqual(first.get(0), frame.toShape(0)));
+  }
+
+  /**
+   * Checks that changing a returned list does not change the cached frame.
+   */
+  @Test
+  public void testReturnedListsAreCopies() {
+    CachingAnimationModel model = makeModel(4);
+    model.getStateAt(5).clear();
+    model.getStateAt(5).clear();
+    assertEquals(1, model.getStateAt(5).size());
+  }
+
+  /**
+   * Checks that the least recently used frame is evicted once the cache is full.
+   */
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    CachingAnimationModel model = makeModel(2);
+    model.getStateAt(1);
+    model.getStateAt(2);
+    model.getStateAt(1);
+    model.getStateAt(3);
+    assertEquals(2, model.size());
+    assertEquals(3, model.getMisses());
+
+    model.getStateAt(1);
+    assertEquals(2, model.getHits());
+    model.getStateAt(2);
+    assertEquals(4, model.getMisses());
+  }
+
+  /**
+   * Checks that a cache bounded by bytes keeps fewer frames of larger animations.
+   */
+  @Test
+  public void testByteCapacity() {
+    CachingAnimationModel model = CachingAnimationModel.ofBytes(new AnimationModelImpl(), 1000);
+    model.addShape("R", RECTANGLE);
+    model.addMotion("R", 0, 10,
+        0, 0, 10, 10, 0, 0, 0,
+        100, 100, 10, 10, 0, 0, 0);
+    for (int t = 0; t <= 10; t++) {
+      model.getStateAt(t);
+    }
+    int oneShape = model.size();
+    assertTrue(oneShape > 1);
+
+    model.addShape("E", ELLIPSE);
+    model.addMotion("E", 0, 10,
+        0, 0, 10, 10, 0, 0, 0,
+        100, 100, 10, 10, 0, 0, 0);
+    for (int t = 0; t <= 10; t++) {
+      model.getStateAt(t);
+    }
+    assertTrue(model.size() < oneShape);
+  }
+
+  /**
+   * Checks that adding a shape or a motion empties the cache, so the new state is returned.
+   */
+  @Test
+  public void testChangesInvalidateTheCache() {
+    CachingAnimationModel model = makeModel(4);
+    model.getStateAt(15);
+    assertEquals(1, model.size());
+
+    model.addMotion("R", 10, 20,
+        100, 100, 10, 10, 0, 0, 0,
+        200, 100, 10, 10, 0, 0, 0);
+    assertEquals(0, model.size());
+    assertEquals(150, model.getStateAt(15).get(0).getPosition().getX());
+
+    model.addShape("E", ELLIPSE);
+    assertEquals(0, model.size());
+  }
+
+  /**
+   * Checks that the capacity of the cache must be positive.
+   */
+  @Test
+  public void testInvalidCapacity() {
+    try {
+      CachingAnimationModel.ofFrames(new AnimationModelImpl(), 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("The capacity of the cache must be positive", e.getMessage());
+    }
+    try {
+      CachingAnimationModel.ofFrames((AnimationModelImpl) null, 1);
+      fail();
+    } catch (NullPointerException e) {
+      assertEquals("The model to cache cannot be null", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,150 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import model.AnimationModelColumnar;
+import model.CompiledAnimation;
+import model.shape.Shape;
+import model.shape.Shapes;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+
+/**
+ * Test cases for the compiled animation format. Verifying that a saved animation loads back to the
+ * same model, and that bytes that are not a compiled animation are rejected.
+ */
+public class CompiledAnimationTest {
+
+  /*
+  Helper method that reads the given sample file into a columnar model.
+   */
+  private AnimationModelColumnar read(String sample) throws IOException {
+    return (AnimationModelColumnar) AnimationReader.parseFile(Paths.get("./test/samples", sample),
+        new AnimationBuilderModel(new AnimationModelColumnar()));
+  }
+
+  /*
+  Helper method that returns the compiled bytes of the given model.
+   */
+  private byte[] compile(AnimationModelColumnar model) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CompiledAnimation.write(model, out);
+    return out.toByteArray();
+  }
+
+  /*
+  Helper method that describes the given state, one shape per line.
+   */
+  private String describe(List<Shape> state) {
+    StringBuilder description = new StringBuilder();
+    for (Shape shape : state) {
+      description.append(shape.getKind()).append(shape.getPosition())
+          .append(shape.getDimensions()).append(shape.getColor()).append('\n');
+    }
+    return description.toString();
+  }
+
+  /*
+  Helper method that checks that loading the given bytes fails with the given message.
+   */
+  private void assertFails(byte[] bytes, String message) {
+    try {
+      CompiledAnimation.read(ByteBuffer.wrap(bytes));
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+
+  /**
+   * Checks that the sample animations load back with the same description and the same frames.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    for (String sample : new String[]{"toh-3.txt", "smalldemo.txt", "buildings.txt",
+        "toh-8.txt"}) {
+      AnimationModelColumnar model = read(sample);
+      AnimationModelColumnar loaded = CompiledAnimation.read(ByteBuffer.wrap(compile(model)));
+      assertEquals(model.toString(), loaded.toString());
+      assertEquals(model.getLength(), loaded.getLength());
+      assertEquals(model.getCanvas().getWidth(), loaded.getCanvas().getWidth());
+      for (int t = 0; t <= model.getLength() + 1; t++) {
+        assertEquals(describe(model.getStateAt(t)), describe(loaded.getStateAt(t)));
+      }
+    }
+  }
+
+  /**
+   * Checks that an animation without a canvas and with values of any size is saved exactly, and
+   * that the loaded model still accepts new motions by the usual rules.
+   */
+  @Test
+  public void testRoundTripExtremes() throws IOException {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.addShape("\u5f62", Shapes.ELLIPSE);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addShape("unused", Shapes.RECTANGLE);
+    model.addMotion("R", 100, 200, Integer.MIN_VALUE, Integer.MAX_VALUE, 1, 1, 0, 0, 0,
+        Integer.MAX_VALUE, Integer.MIN_VALUE, 1000000, 1, 255, 255, 255);
+    model.addMotion("\u5f62", 0, 0, -5, -5, 10, 10, 1, 2, 3, -5, -5, 10, 10, 1, 2, 3);
+    model.addMotion("R", 0, 100, 0, 0, 1, 1, 0, 0, 0,
+        Integer.MIN_VALUE, Integer.MAX_VALUE, 1, 1, 0, 0, 0);
+
+    AnimationModelColumnar loaded = CompiledAnimation.read(ByteBuffer.wrap(compile(model)));
+    assertEquals(null, loaded.getCanvas());
+    assertEquals(model.toString(), loaded.toString());
+    assertEquals(describe(model.getStateAt(150)), describe(loaded.getStateAt(150)));
+    try {
+      loaded.addMotion("R", 50, 150, 0, 0, 1, 1, 0, 0, 0, 5, 0, 1, 1, 0, 0, 0);
+      fail();
+    } catch (IllegalStateException e) {
+      // overlaps the motions that were loaded
+    }
+    loaded.addMotion("R", 200, 300, Integer.MAX_VALUE, Integer.MIN_VALUE, 1000000, 1, 255, 255,
+        255, 0, 0, 1, 1, 0, 0, 0);
+    assertEquals(300, loaded.getLength());
+  }
+
+  /**
+   * Checks that a compiled file is told apart from a text file, and loads through a mapping.
+   */
+  @Test
+  public void testFile() throws IOException {
+    Path path = Files.createTempFile("animation", ".eanm");
+    try {
+      AnimationModelColumnar model = read("buildings.txt");
+      CompiledAnimation.write(model, path);
+      assertTrue(CompiledAnimation.isCompiled(path));
+      assertFalse(CompiledAnimation.isCompiled(Paths.get("./test/samples/buildings.txt")));
+      assertFalse(CompiledAnimation.isCompiled(Paths.get("./test/samples/missing.txt")));
+      assertEquals(model.toString(), CompiledAnimation.read(path).toString());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Checks that bytes that are not a whole compiled animation are rejected.
+   */
+  @Test
+  public void testCorrupt() throws IOException {
+    byte[] bytes = compile(read("toh-3.txt"));
+    assertFails(new byte[0], "The compiled animation ends too early");
+    assertFails("canvas 0 0 10 10".getBytes(), "This is not a compiled animation");
+    assertFails(Arrays.copyOf(bytes, bytes.length - 1), "The compiled animation ends too early");
+    assertFails(Arrays.copyOf(bytes, bytes.length / 2), "The compiled animation ends too early");
+    byte[] version = bytes.clone();
+    version[4] = 9;
+    assertFails(version, "Unsupported version of the compiled animation: 9");
+  }
+}
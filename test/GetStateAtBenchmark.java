@@ -0,0 +1,105 @@
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import model.AnimationModel;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.Frame;
+import model.shape.Shapes;
+
+/**
+ * Measures the time the model takes to compute a single frame with the .getStateAt method, for
+ * animations with a growing number of motions, both returning a list of shapes and writing into a
+ * reused {@link Frame}. Run the main method to print the results.
+ */
+public class GetStateAtBenchmark {
+
+  private static final int MOTIONS_PER_SHAPE = 50;
+  private static final int QUERIES = 2000;
+
+  /**
+   * Prints the average frame query time for animations of 1k to 200k motions.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    System.out.println("motions, shapes, microseconds per list frame, bytes per list frame, "
+        + "microseconds per buffer frame, bytes per buffer frame");
+    for (int motions : new int[]{1000, 10000, 50000, 100000, 200000}) {
+      AnimationModel model = makeScene(motions);
+      AnimationModelView view = (AnimationModelView) model;
+      Frame frame = new Frame();
+
+      // warm up and build the index
+      run(view, null);
+      run(view, frame);
+
+      long[] list = run(view, null);
+      long[] buffer = run(view, frame);
+      System.out.printf("%d, %d, %.1f, %d, %.1f, %d%n", motions, motions / MOTIONS_PER_SHAPE,
+          list[0] / 1000.0 / QUERIES, list[1] / QUERIES,
+          buffer[0] / 1000.0 / QUERIES, buffer[1] / QUERIES);
+    }
+  }
+
+  /*
+  Helper method that queries random frames of the animation, into the given frame if it is not
+  null, and returns the time taken in nanoseconds and the number of bytes allocated.
+   */
+  private static long[] run(AnimationModelView view, Frame frame) {
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    Random r = new Random(42);
+    int[] timestamps = new int[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      timestamps[i] = r.nextInt(view.getLength() + 1);
+    }
+
+    long allocated = threads.getThreadAllocatedBytes(thread);
+    long before = System.nanoTime();
+    for (int t : timestamps) {
+      if (frame == null) {
+        view.getStateAt(t);
+      } else {
+        view.getStateAt(t, frame);
+      }
+    }
+    long elapsed = System.nanoTime() - before;
+    return new long[]{elapsed, threads.getThreadAllocatedBytes(thread) - allocated};
+  }
+
+  /*
+  Helper method that creates an animation of the given number of motions, in which every shape
+  moves back and forth through a sequence of back-to-back motions.
+   */
+  static AnimationModel makeScene(int motions) {
+    return makeScene(new AnimationModelImpl(), motions);
+  }
+
+  /*
+  Helper method that fills the given model with the animation created by makeScene(int).
+   */
+  static AnimationModel makeScene(AnimationModel model, int motions) {
+    model.setCanvas(0, 0, 800, 600);
+    Random r = new Random(7);
+    int shapes = Math.max(1, motions / MOTIONS_PER_SHAPE);
+    for (int s = 0; s < shapes; s++) {
+      String name = "S" + s;
+      model.addShape(name, s % 2 == 0 ? Shapes.RECTANGLE : Shapes.ELLIPSE);
+      int x = r.nextInt(800);
+      int y = r.nextInt(600);
+      int offset = r.nextInt(100);
+      for (int m = 0; m < MOTIONS_PER_SHAPE; m++) {
+        int start = offset + m * 10;
+        int nextX = r.nextInt(800);
+        int nextY = r.nextInt(600);
+        model.addMotion(name, start, start + 10,
+            x, y, 20, 20, 0, 0, 255,
+            nextX, nextY, 20, 20, 0, 0, 255);
+        x = nextX;
+        y = nextY;
+      }
+    }
+    return model;
+  }
+}
@@ -0,0 +1,245 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.shape.Shapes;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+import view.GifView;
+import view.PngView;
+import view.ViewFactory;
+
+/**
+ * Test cases for the view of the animation as an animated GIF image. Verifying that the image
+ * decodes to the frames of the animation, each shown for the time of its ticks.
+ */
+public class GifViewTest {
+
+  /*
+  Helper method that writes the given animation as a GIF image at the given speed, and decodes it
+  into its frames, each drawn over the one before, with the delays of the frames and the colors of
+  the palette.
+   */
+  private List<BufferedImage> decode(AnimationModelView model, int speed, List<Integer> delays,
+      Set<Integer> palette) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new GifView(model, Paths.get("unused.gif")).write(out, speed);
+    ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+    List<BufferedImage> frames = new ArrayList<>();
+    try (ImageInputStream in = ImageIO.createImageInputStream(
+        new ByteArrayInputStream(out.toByteArray()))) {
+      reader.setInput(in);
+      int count = reader.getNumImages(true);
+      IIOMetadataNode table = (IIOMetadataNode) ((IIOMetadataNode) reader.getStreamMetadata()
+          .getAsTree("javax_imageio_gif_stream_1.0")).getElementsByTagName("GlobalColorTable")
+          .item(0);
+      for (int i = 0; i < table.getLength(); i++) {
+        IIOMetadataNode entry = (IIOMetadataNode) table.item(i);
+        palette.add(0xff000000 | Integer.parseInt(entry.getAttribute("red")) << 16
+            | Integer.parseInt(entry.getAttribute("green")) << 8
+            | Integer.parseInt(entry.getAttribute("blue")));
+      }
+      BufferedImage canvas = null;
+      for (int i = 0; i < count; i++) {
+        BufferedImage image = reader.read(i);
+        IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i)
+            .getAsTree("javax_imageio_gif_image_1.0");
+        IIOMetadataNode descriptor = (IIOMetadataNode) root
+            .getElementsByTagName("ImageDescriptor").item(0);
+        IIOMetadataNode control = (IIOMetadataNode) root
+            .getElementsByTagName("GraphicControlExtension").item(0);
+        delays.add(Integer.parseInt(control.getAttribute("delayTime")));
+        if (canvas == null) {
+          canvas = new BufferedImage(image.getWidth(), image.getHeight(),
+              BufferedImage.TYPE_INT_RGB);
+        } else {
+          BufferedImage copy = new BufferedImage(canvas.getWidth(), canvas.getHeight(),
+              BufferedImage.TYPE_INT_RGB);
+          copy.setData(canvas.getData());
+          canvas = copy;
+        }
+        canvas.createGraphics().drawImage(image,
+            Integer.parseInt(descriptor.getAttribute("imageLeftPosition")),
+            Integer.parseInt(descriptor.getAttribute("imageTopPosition")), null);
+        frames.add(canvas);
+      }
+    } finally {
+      reader.dispose();
+    }
+    return frames;
+  }
+
+  /*
+  Helper method that deletes the given directory and everything in it.
+   */
+  private void deleteAll(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Checks that the frames are drawn on a white canvas, the changing colors in the nearest color of
+   * the palette, and that every frame is shown for the time of its tick.
+   */
+  @Test
+  public void testFrames() throws IOException {
+    AnimationModel model = new AnimationModelImpl();
+    model.setCanvas(10, 20, 40, 30);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addShape("C", Shapes.ELLIPSE);
+    model.addMotion("R", 0, 2, 10, 20, 10, 10, 255, 0, 0, 30, 20, 10, 10, 255, 0, 0);
+    model.addMotion("C", 1, 4, 30, 30, 20, 20, 0, 0, 240, 30, 30, 20, 20, 0, 0, 0);
+    List<Integer> delays = new ArrayList<>();
+    List<BufferedImage> frames = decode((AnimationModelView) model, 4, delays, new HashSet<>());
+
+    assertEquals(4, frames.size());
+    assertEquals(List.of(25, 25, 25, 25), delays);
+    assertEquals(40, frames.get(0).getWidth());
+    assertEquals(30, frames.get(0).getHeight());
+    assertEquals(0xff0000, frames.get(0).getRGB(5, 5) & 0xffffff);
+    assertEquals(0xffffff, frames.get(0).getRGB(15, 5) & 0xffffff);
+    assertEquals(0xffffff, frames.get(0).getRGB(30, 20) & 0xffffff);
+    assertEquals(0xffffff, frames.get(1).getRGB(5, 5) & 0xffffff);
+    assertEquals(0xff0000, frames.get(1).getRGB(15, 5) & 0xffffff);
+    assertEquals(0x0000f0, frames.get(1).getRGB(30, 20) & 0xffffff);
+    // the blue is nearer to the blue a third of the way to black, and to black two thirds of it
+    assertEquals(0x0000f0, frames.get(2).getRGB(30, 20) & 0xffffff);
+    assertEquals(0xff0000, frames.get(2).getRGB(25, 5) & 0xffffff);
+    assertEquals(0x000000, frames.get(3).getRGB(30, 20) & 0xffffff);
+    assertEquals(0xffffff, frames.get(3).getRGB(25, 5) & 0xffffff);
+  }
+
+  /**
+   * Checks that the entries padding the palette up to a power of two repeat a color of the
+   * animation, so a color in between two of them is not drawn in black.
+   */
+  @Test
+  public void testPalettePadding() throws IOException {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.setCanvas(0, 0, 10, 10);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addMotion("R", 0, 2, 0, 0, 10, 10, 255, 0, 0, 0, 0, 10, 10, 0, 0, 255);
+    Set<Integer> palette = new HashSet<>();
+    List<BufferedImage> frames = decode(model, 1, new ArrayList<>(), palette);
+    assertEquals(Set.of(0xffffffff, 0xffff0000, 0xff0000ff), palette);
+    assertEquals(0xff0000, frames.get(0).getRGB(5, 5) & 0xffffff);
+    // half way the color is nearer to black than to red or blue
+    assertEquals(0xff0000, frames.get(1).getRGB(5, 5) & 0xffffff);
+  }
+
+  /**
+   * Checks that only the first tick of every hundredth of a second is drawn, shown until the next
+   * one drawn.
+   */
+  @Test
+  public void testFastSpeed() throws IOException {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.setCanvas(0, 0, 10, 10);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addMotion("R", 0, 9, 0, 0, 1, 1, 0, 0, 0, 9, 0, 1, 1, 0, 0, 0);
+    List<Integer> delays = new ArrayList<>();
+    List<BufferedImage> frames = decode(model, 300, delays, new HashSet<>());
+    // the ticks 0, 3 and 6 start a hundredth of a second
+    assertEquals(List.of(1, 1, 1), delays);
+    assertEquals(0x000000, frames.get(0).getRGB(0, 0) & 0xffffff);
+    assertEquals(0x000000, frames.get(1).getRGB(3, 0) & 0xffffff);
+    assertEquals(0xffffff, frames.get(1).getRGB(0, 0) & 0xffffff);
+    assertEquals(0x000000, frames.get(2).getRGB(6, 0) & 0xffffff);
+  }
+
+  /**
+   * Checks that the frames of a sample animation are the frames of the png view wherever they are
+   * in a color of the palette, so the compressed frames decode to what was drawn.
+   */
+  @Test
+  public void testSample() throws IOException {
+    AnimationModelView model = (AnimationModelView) AnimationReader.parseFile(
+        Paths.get("./test/samples/buildings.txt"),
+        new AnimationBuilderModel(new AnimationModelColumnar()));
+    List<Integer> delays = new ArrayList<>();
+    Set<Integer> palette = new HashSet<>();
+    List<BufferedImage> frames = decode(model, 100, delays, palette);
+    assertEquals(model.getLength(), frames.size());
+
+    Path directory = Files.createTempDirectory("frames");
+    try {
+      new PngView(model, directory).run(new StringBuilder(), 1);
+      for (int tick = 0; tick < model.getLength(); tick += 7) {
+        BufferedImage png = ImageIO.read(
+            directory.resolve(PngView.fileName(tick, model.getLength())).toFile());
+        BufferedImage gif = frames.get(tick);
+        for (int y = 0; y < png.getHeight(); y++) {
+          for (int x = 0; x < png.getWidth(); x++) {
+            if (palette.contains(png.getRGB(x, y))) {
+              assertEquals(tick + " " + x + " " + y, png.getRGB(x, y), gif.getRGB(x, y));
+            }
+          }
+        }
+      }
+    } finally {
+      deleteAll(directory);
+    }
+  }
+
+  /**
+   * Checks that the factory needs a file to make the view, and that the view writes the image to
+   * it.
+   */
+  @Test
+  public void testFactory() throws IOException {
+    try {
+      ViewFactory.make("gif", new AnimationModelColumnar());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("The gif view needs a file for its image", e.getMessage());
+    }
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.setCanvas(0, 0, 5, 5);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addMotion("R", 0, 3, 0, 0, 1, 1, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0);
+    Path file = Files.createTempFile("animation", ".gif");
+    try {
+      ViewFactory.make("gif", model, 0, file).run(new StringBuilder(), 1);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new GifView(model, file).write(out, 1);
+      assertArrayEquals(out.toByteArray(), Files.readAllBytes(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Checks that the speed must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoSpeed() throws IOException {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.setCanvas(0, 0, 5, 5);
+    new GifView(model, Paths.get("unused.gif")).write(new ByteArrayOutputStream(), 0);
+  }
+}
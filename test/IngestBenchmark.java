@@ -0,0 +1,56 @@
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+
+/**
+ * Measures how many bytes are allocated, and how long it takes, to read an animation into the
+ * object model and into the columnar model, per motion of the animation. Run the main method to
+ * print the results.
+ */
+public class IngestBenchmark {
+
+  private static final int RUNS = 5;
+
+  /**
+   * Prints the allocation and the time of both kinds of reading over a generated animation.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    String text = ReaderBenchmark.makeText();
+    int motions = text.split("\nmotion ").length - 1;
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    System.out.printf("%d motions%n", motions);
+    System.out.println("run, objects bytes/motion, objects ms, columns bytes/motion, columns ms");
+    for (int run = 0; run < RUNS; run++) {
+      long bytes = threads.getThreadAllocatedBytes(thread);
+      long before = System.nanoTime();
+      read(text, new AnimationModelImpl());
+      long objectsTime = System.nanoTime() - before;
+      long objectsBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+      bytes = threads.getThreadAllocatedBytes(thread);
+      before = System.nanoTime();
+      read(text, new AnimationModelColumnar());
+      long columnsTime = System.nanoTime() - before;
+      long columnsBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+      System.out.printf("%d, %.1f, %.1f, %.1f, %.1f%n", run,
+          (double) objectsBytes / motions, objectsTime / 1e6,
+          (double) columnsBytes / motions, columnsTime / 1e6);
+    }
+  }
+
+  /*
+  Helper method that reads the text into the given model.
+   */
+  private static AnimationModel read(String text, AnimationModel model) {
+    return AnimationReader.parseFile(new StringReader(text), new AnimationBuilderModel(model));
+  }
+}
@@ -0,0 +1,276 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import model.AnimationModelColumnar;
+import model.AnimationModelView;
+import model.Canvas;
+import model.CompiledAnimation;
+import model.Frame;
+import model.FrameCursor;
+import model.MappedAnimation;
+import model.shape.Shape;
+import model.shape.Shapes;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+
+/**
+ * Test cases for the animation mapped from a file. Verifying that it computes the same frames and
+ * description as the columnar model it was written from, and that other files are rejected.
+ */
+public class MappedAnimationTest {
+
+  /*
+  Helper method that describes the given state, one shape per line.
+   */
+  private String describe(List<Shape> state) {
+    StringBuilder description = new StringBuilder();
+    for (Shape shape : state) {
+      description.append(shape.getKind()).append(shape.getPosition())
+          .append(shape.getDimensions()).append(shape.getColor()).append('\n');
+    }
+    return description.toString();
+  }
+
+  /*
+  Helper method that describes the given frame, one shape per line.
+   */
+  private String describe(Frame frame) {
+    StringBuilder description = new StringBuilder();
+    for (int slot = 0; slot < frame.size(); slot++) {
+      description.append(frame.getKind(slot)).append(Arrays.toString(new int[]{
+          frame.getX(slot), frame.getY(slot), frame.getWidth(slot), frame.getHeight(slot),
+          frame.getR(slot), frame.getG(slot), frame.getB(slot)})).append('\n');
+    }
+    return description.toString();
+  }
+
+  /*
+  Helper method that describes the given canvas.
+   */
+  private String describe(Canvas canvas) {
+    return canvas == null ? "none" : Arrays.toString(new int[]{
+        canvas.getX(), canvas.getY(), canvas.getWidth(), canvas.getHeight()});
+  }
+
+  /*
+  Helper method that writes the given model to a temporary file and opens it, then checks that
+  both compute the same frames at every tick, through every method, with cursors started at the
+  beginning and in the middle of the animation, and describe the animation in the same way.
+   */
+  private void assertSameAnimation(AnimationModelColumnar model) throws IOException {
+    Path path = Files.createTempFile("animation", ".eanf");
+    try {
+      MappedAnimation.write(model, path);
+      assertTrue(MappedAnimation.isMapped(path));
+      MappedAnimation mapped = MappedAnimation.open(path);
+      assertEquals(model.toString(), mapped.toString());
+      assertEquals(model.getLength(), mapped.getLength());
+      assertEquals(describe(model.getCanvas()), describe(mapped.getCanvas()));
+      Frame expected = new Frame();
+      Frame actual = new Frame();
+      FrameCursor cursor = mapped.cursor(-2);
+      for (int t = -2; t <= model.getLength() + 2; t++) {
+        assertEquals(describe(model.getStateAt(t)), describe(mapped.getStateAt(t)));
+        model.getStateAt(t, expected);
+        mapped.getStateAt(t, actual);
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(t, cursor.getTick());
+        cursor.getState(actual);
+        assertEquals(describe(expected), describe(actual));
+        cursor.advance();
+      }
+      for (int start : new int[]{1, model.getLength() / 3, model.getLength() / 2 + 1}) {
+        cursor = mapped.cursor(start);
+        for (int t = start; t <= start + 40; t++) {
+          model.getStateAt(t, expected);
+          cursor.getState(actual);
+          assertEquals("from " + start + " at " + t, describe(expected), describe(actual));
+          cursor.advance();
+        }
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Checks that the sample animations are played from the file as they are from the heap.
+   */
+  @Test
+  public void testSamples() throws IOException {
+    for (String sample : new String[]{"toh-3.txt", "smalldemo.txt", "buildings.txt",
+        "toh-5.txt"}) {
+      AnimationModelColumnar model = (AnimationModelColumnar) AnimationReader.parseFile(
+          Paths.get("./test/samples", sample),
+          new AnimationBuilderModel(new AnimationModelColumnar()));
+      assertSameAnimation(model);
+    }
+  }
+
+  /**
+   * Checks that random animations, with motions of every kind that start in any order, overlap,
+   * span many checkpoints of the index or take no time, are played from the file as they are from
+   * the heap.
+   */
+  @Test
+  public void testRandom() throws IOException {
+    Random r = new Random(11);
+    for (int run = 0; run < 4; run++) {
+      AnimationModelColumnar model = new AnimationModelColumnar();
+      int shapes = 1 + r.nextInt(6);
+      for (int shape = 0; shape < shapes; shape++) {
+        model.addShape("S" + shape, shape % 2 == 0 ? Shapes.RECTANGLE : Shapes.ELLIPSE);
+      }
+      for (int i = 0; i < 300; i++) {
+        int start = r.nextInt(1000);
+        int end = start + (r.nextInt(4) == 0 ? r.nextInt(600) : r.nextInt(20));
+        int[] from = {r.nextInt(100), r.nextInt(100), r.nextInt(100), r.nextInt(100),
+            r.nextInt(256), r.nextInt(256), r.nextInt(256)};
+        int[] to = from.clone();
+        int property = r.nextInt(8);
+        if (property < 7) {
+          to[property] = property < 4 ? r.nextInt(100) : r.nextInt(256);
+        }
+        try {
+          model.addMotion("S" + r.nextInt(shapes), start, end,
+              from[0], from[1], from[2], from[3], from[4], from[5], from[6],
+              to[0], to[1], to[2], to[3], to[4], to[5], to[6]);
+        } catch (IllegalStateException e) {
+          // the motion overlaps another one of the same kind
+        }
+      }
+      assertSameAnimation(model);
+    }
+  }
+
+  /**
+   * Checks that of two motions of a shape that end at the same tick, the one added first is taken
+   * as the latest finished while the shape rests after them, by the frames and by a cursor,
+   * whatever order they start in.
+   */
+  @Test
+  public void testTiedEnds() throws IOException {
+    for (int later : new int[]{2, 6}) {
+      AnimationModelColumnar model = new AnimationModelColumnar();
+      model.addShape("R", Shapes.RECTANGLE);
+      model.addMotion("R", 4, 10, 0, 0, 1, 1, 0, 0, 0, 8, 8, 1, 1, 0, 0, 0);
+      model.addMotion("R", later, 10, 0, 0, 1, 1, 0, 0, 0, 0, 0, 5, 5, 0, 0, 0);
+      model.addMotion("R", 20, 30, 8, 8, 1, 1, 0, 0, 0, 8, 8, 1, 1, 9, 9, 9);
+      Path path = Files.createTempFile("animation", ".eanf");
+      try {
+        MappedAnimation.write(model, path);
+        MappedAnimation mapped = MappedAnimation.open(path);
+        Frame frame = new Frame();
+        mapped.getStateAt(15, frame);
+        assertEquals(1, frame.size());
+        assertEquals(8, frame.getX(0));
+        assertEquals(1, frame.getWidth(0));
+        FrameCursor cursor = mapped.cursor(9);
+        while (cursor.getTick() < 15) {
+          cursor.advance();
+        }
+        cursor.getState(frame);
+        assertEquals(1, frame.size());
+        assertEquals(8, frame.getX(0));
+        assertEquals(1, frame.getWidth(0));
+        assertSameAnimation(model);
+      } finally {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Checks that an animation of many shapes, which appear and disappear at different times, rest
+   * between their motions, or never appear, is played from the file as it is from the heap.
+   */
+  @Test
+  public void testManyShapes() throws IOException {
+    Random r = new Random(5);
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    for (int shape = 0; shape < 300; shape++) {
+      model.addShape("S" + shape, shape % 3 == 0 ? Shapes.ELLIPSE : Shapes.RECTANGLE);
+      if (shape % 7 == 6) {
+        continue;
+      }
+      int start = r.nextInt(800);
+      for (int motion = r.nextInt(3); motion >= 0; motion--) {
+        int end = start + r.nextInt(30);
+        model.addMotion("S" + shape, start, end, shape, 0, 1, 1, 0, 0, 0,
+            shape + r.nextInt(9), end, 1, 1, r.nextInt(256), 0, 0);
+        start = end + r.nextInt(40);
+      }
+    }
+    assertSameAnimation(model);
+  }
+
+  /**
+   * Checks that an animation without a canvas, motions or shapes is played from the file.
+   */
+  @Test
+  public void testEmpty() throws IOException {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    assertSameAnimation(model);
+    model.addShape("\u5f62", Shapes.ELLIPSE);
+    assertSameAnimation(model);
+    Path path = Files.createTempFile("animation", ".eanf");
+    try {
+      MappedAnimation.write(model, path);
+      AnimationModelView mapped = MappedAnimation.open(path);
+      assertEquals(null, mapped.getCanvas());
+      assertEquals(0, mapped.getStateAt(0).size());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Checks that files that are not whole mapped animations are rejected.
+   */
+  @Test
+  public void testCorrupt() throws IOException {
+    Path path = Files.createTempFile("animation", ".eanf");
+    try {
+      AnimationModelColumnar model = (AnimationModelColumnar) AnimationReader.parseFile(
+          Paths.get("./test/samples/toh-3.txt"),
+          new AnimationBuilderModel(new AnimationModelColumnar()));
+      CompiledAnimation.write(model, path);
+      assertFalse(MappedAnimation.isMapped(path));
+      assertFails(path, "This is not a mapped animation");
+
+      MappedAnimation.write(model, path);
+      byte[] bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+      assertFails(path, "The size of the mapped animation does not match it");
+      Files.write(path, Arrays.copyOf(bytes, 10));
+      assertFails(path, "This is not a mapped animation");
+      bytes[7] = 3;
+      Files.write(path, bytes);
+      assertFails(path, "Unsupported version of the mapped animation: 3");
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /*
+  Helper method that checks that opening the given file fails with the given message.
+   */
+  private void assertFails(Path path, String message) throws IOException {
+    try {
+      MappedAnimation.open(path);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,53 @@
+import java.lang.ref.Reference;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.Frame;
+
+/**
+ * Compares the heap used by {@link AnimationModelImpl} and {@link AnimationModelColumnar} holding
+ * the same animation, after the first frame has been computed. Run the main method to print the
+ * results.
+ */
+public class ModelMemoryBenchmark {
+
+  /**
+   * Prints the bytes per motion used by both models for animations of 10k to 200k motions.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    System.out.println("motions, bytes per motion (objects), bytes per motion (columns)");
+    for (int motions : new int[]{10000, 50000, 200000}) {
+      long objects = measure(new AnimationModelImpl(), motions);
+      long columns = measure(new AnimationModelColumnar(), motions);
+      System.out.printf("%d, %d, %d%n", motions, objects / motions, columns / motions);
+    }
+  }
+
+  /*
+  Helper method that returns the number of bytes the given model takes once it holds the given
+  number of motions.
+   */
+  private static long measure(AnimationModel model, int motions) {
+    long before = usedHeap();
+    GetStateAtBenchmark.makeScene(model, motions);
+    ((AnimationModelView) model).getStateAt(0, new Frame());
+    long after = usedHeap();
+    // keeps the model reachable until the heap has been measured
+    Reference.reachabilityFence(model);
+    return after - before;
+  }
+
+  /*
+  Helper method that returns the number of bytes in use on the heap after a garbage collection.
+   */
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,151 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.shape.Shapes;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+import view.PngView;
+import view.ViewFactory;
+
+/**
+ * Test cases for the view of the animation as a sequence of PNG images. Verifying that every tick
+ * is drawn to its own numbered file, and that the frames are the same however many threads render
+ * them.
+ */
+public class PngViewTest {
+
+  /*
+  Helper method that deletes the given directory and everything in it.
+   */
+  private void deleteAll(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Checks that the frames are drawn on a white canvas, with its corner at the top left.
+   */
+  @Test
+  public void testFrames() throws IOException {
+    AnimationModel model = new AnimationModelImpl();
+    model.setCanvas(10, 20, 40, 30);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addShape("C", Shapes.ELLIPSE);
+    model.addMotion("R", 0, 2, 10, 20, 10, 10, 255, 0, 0, 30, 20, 10, 10, 255, 0, 0);
+    model.addMotion("C", 1, 2, 30, 30, 20, 20, 0, 0, 255, 30, 30, 20, 20, 0, 0, 255);
+    Path directory = Files.createTempDirectory("frames");
+    try {
+      new PngView((AnimationModelView) model, directory.resolve("out"), 2).run(
+          new StringBuilder(), 1);
+      try (Stream<Path> files = Files.list(directory.resolve("out"))) {
+        assertEquals(2, files.count());
+      }
+      BufferedImage first = ImageIO.read(directory.resolve("out/frame-00000.png").toFile());
+      assertEquals(40, first.getWidth());
+      assertEquals(30, first.getHeight());
+      assertEquals(0xff0000, first.getRGB(5, 5) & 0xffffff);
+      assertEquals(0xffffff, first.getRGB(15, 5) & 0xffffff);
+      assertEquals(0xffffff, first.getRGB(30, 20) & 0xffffff);
+
+      BufferedImage second = ImageIO.read(directory.resolve("out/frame-00001.png").toFile());
+      assertEquals(0xffffff, second.getRGB(5, 5) & 0xffffff);
+      assertEquals(0xff0000, second.getRGB(15, 5) & 0xffffff);
+      assertEquals(0x0000ff, second.getRGB(30, 20) & 0xffffff);
+      assertEquals(0xffffff, second.getRGB(21, 11) & 0xffffff);
+    } finally {
+      deleteAll(directory);
+    }
+  }
+
+  /**
+   * Checks that a sample animation is drawn to the same images on one thread and on many.
+   */
+  @Test
+  public void testThreads() throws IOException {
+    AnimationModelView model = (AnimationModelView) AnimationReader.parseFile(
+        Paths.get("./test/samples/buildings.txt"),
+        new AnimationBuilderModel(new AnimationModelColumnar()));
+    Path directory = Files.createTempDirectory("frames");
+    try {
+      new PngView(model, directory.resolve("one"), 1).run(new StringBuilder(), 1);
+      new PngView(model, directory.resolve("many"), 4).run(new StringBuilder(), 1);
+      for (int tick = 0; tick < model.getLength(); tick++) {
+        String name = PngView.fileName(tick, model.getLength());
+        assertArrayEquals(name, Files.readAllBytes(directory.resolve("one").resolve(name)),
+            Files.readAllBytes(directory.resolve("many").resolve(name)));
+      }
+      try (Stream<Path> files = Files.list(directory.resolve("many"))) {
+        assertEquals(model.getLength(), files.count());
+      }
+    } finally {
+      deleteAll(directory);
+    }
+  }
+
+  /**
+   * Checks that the names of the files are padded so they sort in the order of the frames.
+   */
+  @Test
+  public void testFileName() {
+    assertEquals("frame-00007.png", PngView.fileName(7, 100));
+    assertEquals("frame-0000007.png", PngView.fileName(7, 1000001));
+    assertTrue(PngView.fileName(99999, 100001).compareTo(PngView.fileName(100000, 100001)) < 0);
+  }
+
+  /**
+   * Checks that the factory needs a directory to make the view.
+   */
+  @Test
+  public void testFactory() throws IOException {
+    try {
+      ViewFactory.make("png", new AnimationModelColumnar());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("The png view needs a directory for its frames", e.getMessage());
+    }
+    Path directory = Files.createTempDirectory("frames");
+    try {
+      AnimationModelColumnar model = new AnimationModelColumnar();
+      model.setCanvas(0, 0, 5, 5);
+      model.addShape("R", Shapes.RECTANGLE);
+      model.addMotion("R", 0, 3, 0, 0, 1, 1, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0);
+      ViewFactory.make("png", model, 0, directory).run(new StringBuilder(), 1);
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(3, files.count());
+      }
+    } finally {
+      deleteAll(directory);
+    }
+  }
+
+  /**
+   * Checks that an animation without a canvas cannot be drawn.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testNoCanvas() throws IOException {
+    Path directory = Files.createTempDirectory("frames");
+    try {
+      new PngView(new AnimationModelColumnar(), directory).run(new StringBuilder(), 1);
+    } finally {
+      deleteAll(directory);
+    }
+  }
+}
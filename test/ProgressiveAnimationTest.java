@@ -0,0 +1,183 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import model.AnimationModelColumnar;
+import model.AnimationModelView;
+import model.Frame;
+import model.FrameCursor;
+import model.shape.Shape;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+import util.ProgressiveAnimation;
+
+/**
+ * Test cases for the animation played while it is read. Verifying that it computes the same frames
+ * as the animation read in full, whether the motions of the file are sorted or not, and that errors
+ * of the reading reach the player.
+ */
+public class ProgressiveAnimationTest {
+
+  /*
+  Helper method that describes the given state, one shape per line.
+   */
+  private String describe(List<Shape> state) {
+    StringBuilder description = new StringBuilder();
+    for (Shape shape : state) {
+      description.append(shape.getKind()).append(shape.getPosition())
+          .append(shape.getDimensions()).append(shape.getColor()).append('\n');
+    }
+    return description.toString();
+  }
+
+  /*
+  Helper method that checks that playing the given file while it is read, or once it has been read
+  if the frames should not be computed before, gives the same frames as reading it in full first.
+   */
+  private void assertSameFrames(Path path, boolean loadFirst) throws IOException {
+    AnimationModelView full = (AnimationModelView) AnimationReader.parseFile(path,
+        new AnimationBuilderModel(new AnimationModelColumnar()));
+    ProgressiveAnimation progressive = ProgressiveAnimation.load(path, 1);
+    if (loadFirst) {
+      assertEquals(full.toString(), progressive.toString());
+    }
+    FrameCursor cursor = progressive.cursor(0);
+    Frame frame = new Frame();
+    // the length is only checked after a frame, as the frame waits for the motions it needs
+    do {
+      assertEquals(describe(full.getStateAt(cursor.getTick())), describe(cursor.getState()));
+      cursor.getState(frame);
+      assertEquals(full.getStateAt(cursor.getTick()).size(), frame.size());
+      cursor.advance();
+    } while (cursor.getTick() < progressive.getLength());
+    assertTrue(progressive.isLoaded());
+    assertEquals(full.getLength(), cursor.getTick());
+    assertEquals(full.getLength(), progressive.getLength());
+    assertEquals(full.getCanvas().getWidth(), progressive.getCanvas().getWidth());
+    assertEquals(full.toString(), progressive.toString());
+    for (int t = 0; t < full.getLength(); t += 7) {
+      assertEquals(describe(full.getStateAt(t)), describe(progressive.getStateAt(t)));
+    }
+  }
+
+  /**
+   * Checks that the sample animations sorted by time are played as when read in full.
+   */
+  @Test
+  public void testSorted() throws IOException {
+    assertSameFrames(Paths.get("./test/samples/toh-3.txt"), false);
+    assertSameFrames(Paths.get("./test/samples/toh-8.txt"), false);
+  }
+
+  /**
+   * Checks that once a motion is read out of order, the frames after the latest start read so far
+   * wait for the whole file, and that the sample animations that are not sorted by time are then
+   * played as when read in full.
+   */
+  @Test
+  public void testUnsorted() throws IOException {
+    Path path = Files.createTempFile("animation", ".txt");
+    try {
+      StringBuilder text = new StringBuilder("canvas 0 0 100 100\nshape R rectangle\n"
+          + "shape C ellipse\n");
+      for (int t = 0; t < 20000; t += 10) {
+        text.append(String.format("motion R %d 0 0 1 1 0 0 0   %d %d 0 1 1 0 0 0%n",
+            t, t + 10, t + 10));
+      }
+      text.append("motion C 0 0 0 1 1 0 0 0   20000 0 0 1 1 0 0 0\n");
+      Files.write(path, text.toString().getBytes(StandardCharsets.US_ASCII));
+      ProgressiveAnimation progressive = ProgressiveAnimation.load(path, 1);
+      assertEquals(2, progressive.getStateAt(19995).size());
+      assertTrue(progressive.isLoaded());
+    } finally {
+      Files.delete(path);
+    }
+    assertSameFrames(Paths.get("./test/samples/smalldemo.txt"), true);
+    assertSameFrames(Paths.get("./test/samples/buildings.txt"), true);
+  }
+
+  /**
+   * Checks that a shape resting between two motions is drawn during the rest, even before its
+   * later motion has been read, and that a shape is no longer drawn once its last motion has ended.
+   */
+  @Test
+  public void testResting() throws IOException {
+    Path path = Files.createTempFile("animation", ".txt");
+    try {
+      StringBuilder text = new StringBuilder("canvas 0 0 100 100\nshape R rectangle\n"
+          + "shape C ellipse\nshape E ellipse\n"
+          + "motion C 0 0 0 1 1 0 0 0   5 5 5 1 1 0 0 0\n"
+          + "motion E 0 0 0 1 1 0 0 0   100 9 9 1 1 0 0 0\n");
+      for (int t = 0; t < 20000; t++) {
+        text.append(String.format("motion R %d 0 0 1 1 0 0 0   %d %d 0 1 1 0 0 0%n",
+            t, t + 1, t + 1));
+        if (t == 15000) {
+          text.append("motion C 15000 5 5 1 1 0 0 0   15010 0 0 1 1 0 0 0\n");
+        }
+      }
+      Files.write(path, text.toString().getBytes(StandardCharsets.US_ASCII));
+      assertSameFrames(path, false);
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Checks that a view writing every frame, asked to play a file while it is read, writes as many
+   * frames as when the file is read in full, as it only knows the length before it starts.
+   */
+  @Test
+  public void testBatchView() throws IOException {
+    Path path = Files.createTempFile("animation", ".txt");
+    Path progressive = Files.createTempFile("progressive", ".rgb");
+    Path full = Files.createTempFile("full", ".rgb");
+    try {
+      StringBuilder text = new StringBuilder("canvas 0 0 4 3\nshape R rectangle\n");
+      for (int t = 0; t < 20000; t += 10) {
+        text.append(String.format("motion R %d 0 0 1 1 0 0 0   %d %d 0 1 1 0 0 0%n",
+            t, t + 10, t % 4));
+      }
+      Files.write(path, text.toString().getBytes(StandardCharsets.US_ASCII));
+      Main.main(new String[]{"-in", path.toString(), "-view", "rawvideo", "-video", "rgb",
+          "-out", progressive.toString(), "-load", "progressive"});
+      Main.main(new String[]{"-in", path.toString(), "-view", "rawvideo", "-video", "rgb",
+          "-out", full.toString(), "-load", "full"});
+      assertEquals(20000 * 4 * 3 * 3, Files.size(full));
+      assertEquals(Files.size(full), Files.size(progressive));
+    } finally {
+      Files.delete(path);
+      Files.delete(progressive);
+      Files.delete(full);
+    }
+  }
+
+  /**
+   * Checks that an error in the file reaches the player waiting for the frames after it.
+   */
+  @Test
+  public void testError() throws IOException {
+    Path path = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(path, ("canvas 0 0 100 100\nshape R rectangle\n"
+          + "motion R 0 1 1 1 1 0 0 0   5 1 1 1 1 0 0 0\n"
+          + "motion R 5 1 1 1 1 0 0 0   9 1 1 1 1 0 0 0\n"
+          + "motion R 9 1 1 1 1 0 0 0 x").getBytes(StandardCharsets.US_ASCII));
+      ProgressiveAnimation progressive = ProgressiveAnimation.load(path, 1);
+      try {
+        progressive.getStateAt(9);
+        fail();
+      } catch (IllegalStateException e) {
+        assertEquals("Motion: expected integer for final time, got: x", e.getMessage());
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
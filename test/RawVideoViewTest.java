@@ -0,0 +1,188 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.shape.Shapes;
+import org.junit.Test;
+import view.RawVideoView;
+import view.RawVideoView.Format;
+import view.ViewFactory;
+
+/**
+ * Test cases for the view of the animation as a stream of uncompressed video frames. Verifying
+ * that every tick is filled into a frame of the size of the canvas, in both forms of the frames.
+ */
+public class RawVideoViewTest {
+
+  /*
+  Helper method that returns an animation of a red rectangle moving right on a canvas whose corner
+  is not at the origin, and a blue circle that appears at the tick 1.
+   */
+  private AnimationModelView animation() {
+    AnimationModel model = new AnimationModelImpl();
+    model.setCanvas(10, 20, 8, 6);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addShape("C", Shapes.ELLIPSE);
+    model.addMotion("R", 0, 2, 10, 20, 2, 3, 255, 0, 0, 14, 20, 2, 3, 255, 0, 0);
+    model.addMotion("C", 1, 2, 14, 22, 4, 4, 0, 0, 255, 14, 22, 4, 4, 0, 0, 255);
+    return (AnimationModelView) model;
+  }
+
+  /*
+  Helper method that writes the frames of the given animation in the given form to bytes.
+   */
+  private byte[] video(AnimationModelView model, Format format, int speed) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new RawVideoView(model, null, format).write(Channels.newChannel(out), speed);
+    return out.toByteArray();
+  }
+
+  /*
+  Helper method that returns the color of the pixel at the given column and row of the given frame
+  of raw RGB pixels, in the 0xRRGGBB form.
+   */
+  private int rgb(byte[] video, int frame, int x, int y) {
+    int i = frame * 8 * 6 * 3 + (y * 8 + x) * 3;
+    return (video[i] & 0xff) << 16 | (video[i + 1] & 0xff) << 8 | (video[i + 2] & 0xff);
+  }
+
+  /**
+   * Checks that the raw RGB frames are the pixels of the canvas, with nothing in between.
+   */
+  @Test
+  public void testRgb() throws IOException {
+    byte[] video = video(animation(), Format.RGB, 1);
+    assertEquals(2 * 8 * 6 * 3, video.length);
+    assertEquals(0xff0000, rgb(video, 0, 0, 0));
+    assertEquals(0xff0000, rgb(video, 0, 1, 2));
+    assertEquals(0xffffff, rgb(video, 0, 2, 0));
+    assertEquals(0xffffff, rgb(video, 0, 0, 3));
+    assertEquals(0xffffff, rgb(video, 0, 5, 3));
+
+    // the rectangle is half way, and the circle is filled where the centers of the pixels are in it
+    assertEquals(0xffffff, rgb(video, 1, 1, 0));
+    assertEquals(0xff0000, rgb(video, 1, 2, 0));
+    assertEquals(0xff0000, rgb(video, 1, 3, 2));
+    assertEquals(0xffffff, rgb(video, 1, 4, 0));
+    assertEquals(0x0000ff, rgb(video, 1, 5, 3));
+    assertEquals(0x0000ff, rgb(video, 1, 4, 3));
+    assertEquals(0x0000ff, rgb(video, 1, 7, 4));
+    assertEquals(0xffffff, rgb(video, 1, 4, 2));
+    assertEquals(0xffffff, rgb(video, 1, 7, 5));
+  }
+
+  /**
+   * Checks that the YUV4MPEG2 stream has its header, and every frame its planes after its own
+   * header.
+   */
+  @Test
+  public void testY4m() throws IOException {
+    byte[] video = video(animation(), Format.Y4M, 25);
+    byte[] header = "YUV4MPEG2 W8 H6 F25:1 Ip A1:1 C444\n".getBytes(StandardCharsets.US_ASCII);
+    byte[] frame = "FRAME\n".getBytes(StandardCharsets.US_ASCII);
+    int size = frame.length + 3 * 8 * 6;
+    assertEquals(header.length + 2 * size, video.length);
+    assertArrayEquals(header, Arrays.copyOf(video, header.length));
+    assertArrayEquals(frame, Arrays.copyOfRange(video, header.length, header.length + 6));
+    assertArrayEquals(frame,
+        Arrays.copyOfRange(video, header.length + size, header.length + size + 6));
+
+    int planes = header.length + frame.length;
+    // the red corner and the white background, in the limited range colors
+    assertEquals(82, video[planes] & 0xff);
+    assertEquals(90, video[planes + 48] & 0xff);
+    assertEquals(240, video[planes + 96] & 0xff);
+    assertEquals(235, video[planes + 2] & 0xff);
+    assertEquals(128, video[planes + 48 + 2] & 0xff);
+    assertEquals(128, video[planes + 96 + 2] & 0xff);
+  }
+
+  /**
+   * Checks that the frames are written in full to a channel that takes only some bytes at a time,
+   * as a pipe does.
+   */
+  @Test
+  public void testPartialWrites() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    WritableByteChannel channel = Channels.newChannel(out);
+    WritableByteChannel slow = new WritableByteChannel() {
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+        ByteBuffer some = src.slice();
+        some.limit(Math.min(some.remaining(), 7));
+        int written = channel.write(some);
+        src.position(src.position() + written);
+        return written;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {
+        // nothing to close
+      }
+    };
+    new RawVideoView(animation(), null, Format.Y4M).write(slow, 25);
+    assertArrayEquals(video(animation(), Format.Y4M, 25), out.toByteArray());
+  }
+
+  /**
+   * Checks that the factory makes a view writing a YUV4MPEG2 stream to the given file by default,
+   * and raw RGB pixels when asked to.
+   */
+  @Test
+  public void testFactory() throws IOException {
+    Path file = Files.createTempFile("animation", ".y4m");
+    try {
+      ViewFactory.make("rawvideo", animation(), 0, file).run(new StringBuilder(), 3);
+      assertArrayEquals(video(animation(), Format.Y4M, 3), Files.readAllBytes(file));
+      ViewFactory.make("rawvideo", animation(), 0, file, "rgb").run(new StringBuilder(), 3);
+      assertArrayEquals(video(animation(), Format.RGB, 3), Files.readAllBytes(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Checks that the factory only makes the forms of video frames there are.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testFactoryUnknownVideo() {
+    ViewFactory.make("rawvideo", animation(), 0, null, "yuv");
+  }
+
+  /**
+   * Checks that an animation without ticks is only the header of the stream.
+   */
+  @Test
+  public void testEmptyAnimation() throws IOException {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    model.setCanvas(0, 0, 2, 2);
+    assertEquals("YUV4MPEG2 W2 H2 F1:1 Ip A1:1 C444\n",
+        new String(video(model, Format.Y4M, 1), StandardCharsets.US_ASCII));
+    assertEquals(0, video(model, Format.RGB, 1).length);
+  }
+
+  /**
+   * Checks that the speed must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoSpeed() throws IOException {
+    video(animation(), Format.RGB, 0);
+  }
+}
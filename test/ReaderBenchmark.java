@@ -0,0 +1,181 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import util.AnimationBuilder;
+import util.AnimationReader;
+
+/**
+ * Measures how fast the animation reader reads the animation text, in megabytes per second, against
+ * the Scanner-based reader it replaced, which is kept here as the baseline, and how fast it reads a
+ * file through a FileReader, through a memory mapping, through a memory mapping on all the
+ * processors, and compressed with gzip. The builder discards everything, so only the reading is
+ * measured. Run the main method to print the results.
+ */
+public class ReaderBenchmark {
+
+  private static final int MOTIONS = 400000;
+  private static final int RUNS = 5;
+
+  /*
+  A builder that only counts the calls it receives.
+   */
+  private static final class CountingBuilder implements AnimationBuilder<Integer> {
+
+    private int calls;
+
+    @Override
+    public Integer build() {
+      return this.calls;
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+      this.calls++;
+    }
+
+    @Override
+    public void declareShape(String name, String type) {
+      this.calls++;
+    }
+
+    @Override
+    public void addMotion(String name,
+        int t1, int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+        int t2, int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
+      this.calls++;
+    }
+  }
+
+  /**
+   * Prints the throughput of both readers over a generated animation.
+   *
+   * @param args ignored
+   * @throws IOException if the temporary animation file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    String text = makeText();
+    double megabytes = text.length() / 1e6;
+    Path file = Files.createTempFile("animation", ".txt");
+    file.toFile().deleteOnExit();
+    Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+    Path gzipped = Files.createTempFile("animation", ".txt.gz");
+    gzipped.toFile().deleteOnExit();
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+      out.write(text.getBytes(StandardCharsets.US_ASCII));
+    }
+    int threads = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%.1f MB of animation text, %.1f MB compressed, %d threads%n", megabytes,
+        Files.size(gzipped) / 1e6, threads);
+    System.out.println("run, scanner MB/s, lexer MB/s, file reader MB/s, mapped file MB/s, "
+        + "parallel mapped file MB/s, gzip file MB/s");
+    for (int run = 0; run < RUNS; run++) {
+      long before = System.nanoTime();
+      int scanned = parseWithScanner(new StringReader(text), new CountingBuilder());
+      long scanner = System.nanoTime() - before;
+
+      before = System.nanoTime();
+      int lexed = AnimationReader.parseFile(new StringReader(text), new CountingBuilder());
+      long lexer = System.nanoTime() - before;
+
+      before = System.nanoTime();
+      int read;
+      try (FileReader reader = new FileReader(file.toFile())) {
+        read = AnimationReader.parseFile(reader, new CountingBuilder());
+      }
+      long fileReader = System.nanoTime() - before;
+
+      before = System.nanoTime();
+      int mapped = AnimationReader.parseFile(file, new CountingBuilder());
+      long mappedFile = System.nanoTime() - before;
+
+      before = System.nanoTime();
+      int parallel = AnimationReader.parseFile(file, new CountingBuilder(), threads);
+      long parallelFile = System.nanoTime() - before;
+
+      before = System.nanoTime();
+      int compressed = AnimationReader.parseFile(gzipped, new CountingBuilder());
+      long gzipFile = System.nanoTime() - before;
+
+      if (scanned != lexed || lexed != read || read != mapped || mapped != parallel
+          || parallel != compressed) {
+        throw new IllegalStateException("The readers disagree on the animation");
+      }
+      System.out.printf("%d, %.1f, %.1f, %.1f, %.1f, %.1f, %.1f%n", run,
+          megabytes / (scanner / 1e9), megabytes / (lexer / 1e9),
+          megabytes / (fileReader / 1e9), megabytes / (mappedFile / 1e9),
+          megabytes / (parallelFile / 1e9), megabytes / (gzipFile / 1e9));
+    }
+  }
+
+  /*
+  Helper method that generates the text of an animation with comments, like the samples.
+   */
+  static String makeText() {
+    Random r = new Random(3);
+    StringBuilder text = new StringBuilder("# generated animation\ncanvas 0 0 800 600\n");
+    for (int s = 0; s < MOTIONS / 100; s++) {
+      text.append("shape S").append(s).append(s % 2 == 0 ? " rectangle\n" : " ellipse\n");
+    }
+    for (int m = 0; m < MOTIONS; m++) {
+      if (m % 100 == 0) {
+        text.append("# motions of S").append(m / 100).append('\n');
+      }
+      text.append("motion S").append(m / 100);
+      int t = (m % 100) * 10;
+      for (int end = 0; end < 2; end++) {
+        text.append(' ').append(t + end * 10);
+        for (int i = 0; i < 4; i++) {
+          text.append(' ').append(r.nextInt(1000));
+        }
+        for (int i = 0; i < 3; i++) {
+          text.append(' ').append(r.nextInt(256));
+        }
+        text.append(end == 0 ? "   " : "\n");
+      }
+    }
+    return text.toString();
+  }
+
+  /*
+  The reader as it was before the hand-written lexer, kept as the baseline.
+   */
+  private static <Doc> Doc parseWithScanner(Readable readable, AnimationBuilder<Doc> builder) {
+    Scanner s = new Scanner(readable);
+    s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+"));
+    while (s.hasNext()) {
+      String word = s.next();
+      switch (word) {
+        case "canvas":
+          builder.setBounds(s.nextInt(), s.nextInt(), s.nextInt(), s.nextInt());
+          break;
+        case "shape":
+          builder.declareShape(s.next(), s.next());
+          break;
+        case "motion":
+          String name = s.next();
+          int[] vals = new int[16];
+          for (int i = 0; i < 16; i++) {
+            if (!s.hasNextInt()) {
+              throw new IllegalStateException("Motion: expected integer, got: " + s.next());
+            }
+            vals[i] = s.nextInt();
+          }
+          builder.addMotion(name,
+              vals[0], vals[1], vals[2], vals[3], vals[4], vals[5], vals[6], vals[7],
+              vals[8], vals[9], vals[10], vals[11], vals[12], vals[13], vals[14], vals[15]);
+          break;
+        default:
+          throw new IllegalStateException("Unexpected keyword: " + word + s.nextLine());
+      }
+    }
+    return builder.build();
+  }
+}
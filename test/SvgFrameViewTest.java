@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.shape.Shapes;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+import view.SvgFrameView;
+import view.ViewFactory;
+
+/**
+ * Test cases for the SVG view of a single frame. Verifying that only the shapes visible at the
+ * tick are written, in their state at the tick, and that a view writing many frames writes each
+ * as a new view would.
+ */
+public class SvgFrameViewTest {
+
+  /*
+  Helper method that writes the frame of the given animation at the given tick with a new view.
+   */
+  private String frame(AnimationModelView model, int tick) {
+    StringBuilder out = new StringBuilder();
+    new SvgFrameView(model, tick).run(out, 1);
+    return out.toString();
+  }
+
+  /**
+   * Checks that the visible shapes are written in their state at the tick.
+   */
+  @Test
+  public void testFrame() {
+    AnimationModel model = new AnimationModelImpl();
+    model.setCanvas(10, 20, 100, 80);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addShape("C", Shapes.ELLIPSE);
+    model.addMotion("R", 0, 10, 0, 0, 10, 10, 0, 0, 0, 10, 0, 20, 10, 0, 0, 100);
+    model.addMotion("C", 4, 6, 1, 2, 5, 6, 255, 255, 255, 1, 2, 5, 6, 255, 255, 255);
+    AnimationModelView view = (AnimationModelView) model;
+
+    String header = "<svg width=\"100\" height=\"80\" viewBox=\"10 20 100 80\" version=\"1.1\" "
+        + "xmlns=\"http://www.w3.org/2000/svg\">\n";
+    assertEquals(header + "<rect x=\"5\" y=\"0\" width=\"15\" height=\"10\" "
+            + "fill=\"rgb(0,0,50)\" />\n"
+            + "<ellipse cx=\"3.5\" cy=\"5\" rx=\"2.5\" ry=\"3\" fill=\"rgb(255,255,255)\" />\n"
+            + "</svg>\n",
+        frame(view, 5));
+    assertEquals(header + "<rect x=\"10\" y=\"0\" width=\"20\" height=\"10\" "
+        + "fill=\"rgb(0,0,100)\" />\n</svg>\n", frame(view, 10));
+    assertEquals(header + "</svg>\n", frame(view, 11));
+    assertEquals(header + "</svg>\n", frame(view, -1));
+  }
+
+  /**
+   * Checks that one view writing the frames of a sample animation at many ticks, in any order,
+   * writes each frame as a new view does.
+   */
+  @Test
+  public void testManyFrames() throws IOException {
+    AnimationModelView model = (AnimationModelView) AnimationReader.parseFile(
+        Paths.get("./test/samples/buildings.txt"),
+        new AnimationBuilderModel(new AnimationModelColumnar()));
+    SvgFrameView view = new SvgFrameView(model, 0);
+    for (int tick = model.getLength(); tick >= 0; tick -= 13) {
+      StringBuilder out = new StringBuilder();
+      view.write(tick, out);
+      assertEquals(frame(model, tick), out.toString());
+    }
+  }
+
+  /**
+   * Checks that the factory makes the view of the frame at the given tick.
+   */
+  @Test
+  public void testFactory() throws IOException {
+    AnimationModelView model = (AnimationModelView) AnimationReader.parseFile(
+        Paths.get("./test/samples/smalldemo.txt"), new AnimationBuilderModel());
+    StringBuilder out = new StringBuilder();
+    ViewFactory.make("svgframe", model, 30).run(out, 1);
+    assertEquals(frame(model, 30), out.toString());
+  }
+
+  /**
+   * Checks that an error of the output is reported.
+   */
+  @Test
+  public void testFailingOutput() {
+    try {
+      new SvgFrameView(new AnimationModelColumnar(), 0).run(new FailingAppendable(), 1);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Error when trying to output the animation.", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,146 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import model.AnimationModel;
+import model.AnimationModelColumnar;
+import model.AnimationModelImpl;
+import model.AnimationModelView;
+import model.MappedAnimation;
+import model.shape.Shapes;
+import org.junit.Test;
+import util.AnimationBuilderModel;
+import util.AnimationReader;
+import util.ProgressiveAnimation;
+import view.SvgView;
+import view.View;
+import view.ViewFactory;
+
+/**
+ * Test cases for the SVG view of the animation. Verifying that the shapes and their motions are
+ * written as animated elements, and that every model is written in the same way.
+ */
+public class SvgViewTest {
+
+  /*
+  Helper method that writes the given animation as an SVG document at the given speed.
+   */
+  private String svg(AnimationModelView model, int speed) {
+    StringBuilder out = new StringBuilder();
+    new SvgView(model).run(out, speed);
+    return out.toString();
+  }
+
+  /**
+   * Checks that a small animation is written with the elements it needs, and nothing else.
+   */
+  @Test
+  public void testSmallAnimation() {
+    AnimationModel model = new AnimationModelImpl();
+    model.setCanvas(0, 0, 100, 80);
+    model.addShape("R", Shapes.RECTANGLE);
+    model.addShape("C&\"C\"", Shapes.ELLIPSE);
+    model.addShape("E", Shapes.RECTANGLE);
+    model.addMotion("R", 1, 3, 10, 20, 30, 40, 255, 0, 0, 10, 20, 30, 40, 255, 0, 0);
+    model.addMotion("R", 3, 5, 10, 20, 30, 40, 255, 0, 0, 15, 20, 31, 40, 0, 0, 255);
+    model.addMotion("C&\"C\"", 2, 2, -3, 0, 5, 6, 0, 0, 0, 1, 0, 5, 6, 0, 0, 0);
+
+    String expected = String.join("\n",
+        "<svg width=\"100\" height=\"80\" viewBox=\"0 0 100 80\" version=\"1.1\" "
+            + "xmlns=\"http://www.w3.org/2000/svg\">",
+        "<rect id=\"R\" x=\"10\" y=\"20\" width=\"30\" height=\"40\" fill=\"rgb(255,0,0)\" "
+            + "visibility=\"hidden\">",
+        "    <set attributeType=\"xml\" begin=\"500ms\" attributeName=\"visibility\" "
+            + "to=\"visible\" fill=\"freeze\" />",
+        "    <animate attributeType=\"xml\" begin=\"1500ms\" dur=\"1000ms\" attributeName=\"x\" "
+            + "from=\"10\" to=\"15\" fill=\"freeze\" />",
+        "    <animate attributeType=\"xml\" begin=\"1500ms\" dur=\"1000ms\" "
+            + "attributeName=\"width\" from=\"30\" to=\"31\" fill=\"freeze\" />",
+        "    <animate attributeType=\"xml\" begin=\"1500ms\" dur=\"1000ms\" "
+            + "attributeName=\"fill\" from=\"rgb(255,0,0)\" to=\"rgb(0,0,255)\" fill=\"freeze\" />",
+        "    <set attributeType=\"xml\" begin=\"3000ms\" attributeName=\"visibility\" "
+            + "to=\"hidden\" fill=\"freeze\" />",
+        "</rect>",
+        "<ellipse id=\"C&amp;&quot;C&quot;\" cx=\"-0.5\" cy=\"3\" rx=\"2.5\" ry=\"3\" "
+            + "fill=\"rgb(0,0,0)\" visibility=\"hidden\">",
+        "    <set attributeType=\"xml\" begin=\"1000ms\" attributeName=\"visibility\" "
+            + "to=\"visible\" fill=\"freeze\" />",
+        "    <set attributeType=\"xml\" begin=\"1000ms\" attributeName=\"cx\" to=\"3.5\" "
+            + "fill=\"freeze\" />",
+        "    <set attributeType=\"xml\" begin=\"1500ms\" attributeName=\"visibility\" "
+            + "to=\"hidden\" fill=\"freeze\" />",
+        "</ellipse>",
+        "</svg>",
+        "");
+    assertEquals(expected, svg((AnimationModelView) model, 2));
+  }
+
+  /**
+   * Checks that an animation without a canvas or shapes is an empty document.
+   */
+  @Test
+  public void testEmptyAnimation() {
+    assertEquals("<svg version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\">\n</svg>\n",
+        svg(new AnimationModelColumnar(), 1));
+  }
+
+  /**
+   * Checks that the sample animations are written in the same way from every model.
+   */
+  @Test
+  public void testEveryModel() throws IOException {
+    for (String sample : new String[]{"smalldemo.txt", "buildings.txt", "toh-5.txt"}) {
+      Path path = Paths.get("./test/samples", sample);
+      AnimationModelView objects = (AnimationModelView) AnimationReader.parseFile(path,
+          new AnimationBuilderModel());
+      AnimationModelColumnar columns = (AnimationModelColumnar) AnimationReader.parseFile(path,
+          new AnimationBuilderModel(new AnimationModelColumnar()));
+      String expected = svg(objects, 20);
+      assertEquals(expected, svg(columns, 20));
+      assertEquals(expected, svg(ProgressiveAnimation.load(path, 1), 20));
+      Path mapped = Files.createTempFile("animation", ".eanf");
+      try {
+        MappedAnimation.write(columns, mapped);
+        assertEquals(expected, svg(MappedAnimation.open(mapped), 20));
+      } finally {
+        Files.delete(mapped);
+      }
+    }
+  }
+
+  /**
+   * Checks that the factory makes the SVG view.
+   */
+  @Test
+  public void testFactory() {
+    AnimationModelColumnar model = new AnimationModelColumnar();
+    View view = ViewFactory.make("svg", model);
+    StringBuilder out = new StringBuilder();
+    view.run(out, 1);
+    assertEquals(svg(model, 1), out.toString());
+  }
+
+  /**
+   * Checks that an error of the output is reported.
+   */
+  @Test
+  public void testFailingOutput() {
+    try {
+      new SvgView(new AnimationModelColumnar()).run(new FailingAppendable(), 1);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Error when trying to output the animation.", e.getMessage());
+    }
+  }
+
+  /**
+   * Checks that the speed must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoSpeed() {
+    svg(new AnimationModelColumnar(), 0);
+  }
+}
@@ -0,0 +1,175 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import model.motion.Motion;
+import model.motion.Motions;
+import model.shape.Shape;
+import model.shape.ShapeFactory;
+import model.shape.Shapes;
+import model.shape.properties.Color;
+import model.shape.properties.Dimensions;
+import model.shape.properties.Position;
+import org.junit.Test;
+
+/**
+ * Test cases for the animated shape that keeps its motions in lists sorted by time. Verifying that
+ * the motion in progress and the motion last finished are found at every timestamp, including the
+ * ones where motions meet and end together.
+ */
+public class AnimatedShapeArrayListTest {
+
+  /*
+  Helper method that returns a rectangle at the given x coordinate, of the given width, in the
+  given shade of red.
+   */
+  private Shape shape(int x, int width, int red) {
+    return ShapeFactory.make(Shapes.RECTANGLE, new Position(x, 0), new Dimensions(width, 1),
+        new Color(red, 0, 0));
+  }
+
+  /*
+  Helper method that adds a motion of the given kind from the given start to the given end to the
+  given shape, and returns it.
+   */
+  private Motion add(AnimatedShapeArrayList shape, Motions kind, int start, int end) {
+    List<Motion> added;
+    switch (kind) {
+      case MOVE:
+        added = shape.addMotion(start, end, shape(0, 1, 0), shape(1, 1, 0));
+        break;
+      case SCALE:
+        added = shape.addMotion(start, end, shape(0, 1, 0), shape(0, 2, 0));
+        break;
+      case COLOR_CHANGE:
+        added = shape.addMotion(start, end, shape(0, 1, 0), shape(0, 1, 1));
+        break;
+      default:
+        added = shape.addMotion(start, end, shape(0, 1, 0), shape(0, 1, 0));
+        break;
+    }
+    assertEquals(1, added.size());
+    assertEquals(kind, added.get(0).getKind());
+    return added.get(0);
+  }
+
+  /**
+   * Checks that the motion in progress is found from its start to its end, both inclusive, and
+   * not before, after, or between two motions.
+   */
+  @Test
+  public void testMotionInProgress() {
+    AnimatedShapeArrayList shape = new AnimatedShapeArrayList("R", Shapes.RECTANGLE);
+    assertNull(shape.getMotionInProgress(Motions.MOVE, 0));
+    Motion first = add(shape, Motions.MOVE, 2, 5);
+    Motion second = add(shape, Motions.MOVE, 8, 10);
+
+    assertNull(shape.getMotionInProgress(Motions.MOVE, 1));
+    assertSame(first, shape.getMotionInProgress(Motions.MOVE, 2));
+    assertSame(first, shape.getMotionInProgress(Motions.MOVE, 4));
+    assertSame(first, shape.getMotionInProgress(Motions.MOVE, 5));
+    assertNull(shape.getMotionInProgress(Motions.MOVE, 6));
+    assertNull(shape.getMotionInProgress(Motions.MOVE, 7));
+    assertSame(second, shape.getMotionInProgress(Motions.MOVE, 8));
+    assertSame(second, shape.getMotionInProgress(Motions.MOVE, 10));
+    assertNull(shape.getMotionInProgress(Motions.MOVE, 11));
+  }
+
+  /**
+   * Checks that when two motions of a kind meet, the one that starts at the timestamp is found
+   * there, even if it takes no time.
+   */
+  @Test
+  public void testMotionInProgressMeeting() {
+    AnimatedShapeArrayList shape = new AnimatedShapeArrayList("R", Shapes.RECTANGLE);
+    Motion first = add(shape, Motions.SCALE, 0, 5);
+    Motion second = add(shape, Motions.SCALE, 5, 10);
+    Motion instant = add(shape, Motions.SCALE, 10, 10);
+
+    assertSame(first, shape.getMotionInProgress(Motions.SCALE, 4));
+    assertSame(second, shape.getMotionInProgress(Motions.SCALE, 5));
+    assertSame(second, shape.getMotionInProgress(Motions.SCALE, 9));
+    assertSame(instant, shape.getMotionInProgress(Motions.SCALE, 10));
+    assertNull(shape.getMotionInProgress(Motions.SCALE, 11));
+  }
+
+  /**
+   * Checks that the motions are found by their time whatever order they were added in, and only
+   * for their own kind.
+   */
+  @Test
+  public void testMotionInProgressOutOfOrder() {
+    AnimatedShapeArrayList shape = new AnimatedShapeArrayList("R", Shapes.RECTANGLE);
+    Motion last = add(shape, Motions.COLOR_CHANGE, 20, 30);
+    Motion first = add(shape, Motions.COLOR_CHANGE, 0, 10);
+    Motion middle = add(shape, Motions.COLOR_CHANGE, 10, 20);
+    Motion move = add(shape, Motions.MOVE, 15, 25);
+
+    assertSame(first, shape.getMotionInProgress(Motions.COLOR_CHANGE, 0));
+    assertSame(middle, shape.getMotionInProgress(Motions.COLOR_CHANGE, 10));
+    assertSame(middle, shape.getMotionInProgress(Motions.COLOR_CHANGE, 15));
+    assertSame(last, shape.getMotionInProgress(Motions.COLOR_CHANGE, 20));
+    assertSame(last, shape.getMotionInProgress(Motions.COLOR_CHANGE, 30));
+    assertSame(move, shape.getMotionInProgress(Motions.MOVE, 15));
+    assertNull(shape.getMotionInProgress(Motions.MOVE, 14));
+    assertNull(shape.getMotionInProgress(Motions.SCALE, 15));
+    assertNull(shape.getMotionInProgress(Motions.FREEZE, 15));
+  }
+
+  /**
+   * Checks that the motion last finished is the one with the latest end that is not after the
+   * timestamp, and that there is none before the first motion ends.
+   */
+  @Test
+  public void testLastFinishedMotion() {
+    AnimatedShapeArrayList shape = new AnimatedShapeArrayList("R", Shapes.RECTANGLE);
+    assertNull(shape.getLastFinishedMotion(0));
+    Motion move = add(shape, Motions.MOVE, 0, 5);
+    Motion color = add(shape, Motions.COLOR_CHANGE, 2, 8);
+    Motion freeze = add(shape, Motions.FREEZE, 12, 15);
+
+    assertNull(shape.getLastFinishedMotion(0));
+    assertNull(shape.getLastFinishedMotion(4));
+    assertSame(move, shape.getLastFinishedMotion(5));
+    assertSame(move, shape.getLastFinishedMotion(7));
+    assertSame(color, shape.getLastFinishedMotion(8));
+    assertSame(color, shape.getLastFinishedMotion(14));
+    assertSame(freeze, shape.getLastFinishedMotion(15));
+    assertSame(freeze, shape.getLastFinishedMotion(Integer.MAX_VALUE));
+  }
+
+  /**
+   * Checks that of the motions that end at the same time, the one added first is the last
+   * finished, whether they were added together or one after the other, and in any order of their
+   * starts.
+   */
+  @Test
+  public void testLastFinishedMotionTies() {
+    AnimatedShapeArrayList shape = new AnimatedShapeArrayList("R", Shapes.RECTANGLE);
+    List<Motion> together = shape.addMotion(0, 4, shape(0, 1, 0), shape(1, 2, 3));
+    assertEquals(3, together.size());
+    assertSame(together.get(0), shape.getLastFinishedMotion(4));
+
+    Motion later = add(shape, Motions.MOVE, 6, 10);
+    add(shape, Motions.SCALE, 4, 10);
+    add(shape, Motions.COLOR_CHANGE, 8, 10);
+    assertSame(together.get(0), shape.getLastFinishedMotion(9));
+    assertSame(later, shape.getLastFinishedMotion(10));
+    assertSame(later, shape.getLastFinishedMotion(11));
+  }
+
+  /**
+   * Checks that a motion of no time is finished at the time it happens at.
+   */
+  @Test
+  public void testLastFinishedMotionInstant() {
+    AnimatedShapeArrayList shape = new AnimatedShapeArrayList("R", Shapes.RECTANGLE);
+    Motion instant = add(shape, Motions.FREEZE, 3, 3);
+    assertNull(shape.getLastFinishedMotion(2));
+    assertSame(instant, shape.getLastFinishedMotion(3));
+    assertSame(instant, shape.getLastFinishedMotion(4));
+  }
+}
@@ -0,0 +1,140 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Test cases for the growing set of intervals the models look up the motions in progress in.
+ * Verifying that a point is found in exactly the closed intervals that contain it, however the
+ * intervals were added and merged.
+ */
+public class IntervalIndexTest {
+
+  /*
+  Helper method that returns the ids the given index finds at the given point, sorted.
+   */
+  private int[] stab(IntervalIndex index, int point) {
+    IntList out = new IntList();
+    index.stab(point, out);
+    int[] ids = new int[out.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = out.get(i);
+    }
+    Arrays.sort(ids);
+    return ids;
+  }
+
+  /**
+   * Checks that an empty index finds nothing, and neither does one only empty batches were added
+   * to.
+   */
+  @Test
+  public void testEmpty() {
+    IntervalIndex index = new IntervalIndex();
+    assertEquals(0, index.size());
+    assertArrayEquals(new int[0], stab(index, 0));
+    index.addAll(new int[0], new int[0], new int[0], 0);
+    index.addAll(new int[]{1}, new int[]{2}, new int[]{3}, 0);
+    assertEquals(0, index.size());
+    assertArrayEquals(new int[0], stab(index, 1));
+  }
+
+  /**
+   * Checks that the intervals added one at a time are found at their ends and at a single point,
+   * and not just outside of them.
+   */
+  @Test
+  public void testAdd() {
+    IntervalIndex index = new IntervalIndex();
+    index.add(0, 10, 0);
+    index.add(10, 20, 1);
+    index.add(5, 5, 2);
+    assertEquals(3, index.size());
+    assertArrayEquals(new int[0], stab(index, -1));
+    assertArrayEquals(new int[]{0}, stab(index, 0));
+    assertArrayEquals(new int[]{0}, stab(index, 4));
+    assertArrayEquals(new int[]{0, 2}, stab(index, 5));
+    assertArrayEquals(new int[]{0, 1}, stab(index, 10));
+    assertArrayEquals(new int[]{1}, stab(index, 20));
+    assertArrayEquals(new int[0], stab(index, 21));
+  }
+
+  /**
+   * Checks that the intervals of batches of different sizes are all found with their own ids.
+   */
+  @Test
+  public void testAddAll() {
+    IntervalIndex index = new IntervalIndex();
+    index.addAll(new int[]{0, 4, 8}, new int[]{3, 7, 11}, new int[]{10, 11, 12}, 3);
+    index.add(2, 9, 13);
+    index.addAll(new int[]{6, 6, 99}, new int[]{6, 8, 99}, new int[]{14, 15, 16}, 2);
+    assertEquals(6, index.size());
+    assertArrayEquals(new int[]{10, 13}, stab(index, 3));
+    assertArrayEquals(new int[]{11, 13, 14, 15}, stab(index, 6));
+    assertArrayEquals(new int[]{12, 13, 15}, stab(index, 8));
+    assertArrayEquals(new int[0], stab(index, 99));
+  }
+
+  /**
+   * Checks that an interval cannot end before it starts, and that the index is the same after
+   * trying to add one.
+   */
+  @Test
+  public void testEndBeforeStart() {
+    IntervalIndex index = new IntervalIndex();
+    index.add(0, 4, 0);
+    try {
+      index.addAll(new int[]{1, 3}, new int[]{2, 2}, new int[]{1, 2}, 2);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("An interval cannot end before it starts", e.getMessage());
+    }
+    assertEquals(1, index.size());
+    assertArrayEquals(new int[]{0}, stab(index, 2));
+  }
+
+  /**
+   * Checks that an index of many random intervals, added one at a time and in batches so the trees
+   * are merged over and over, finds the same intervals at every point as checking every interval
+   * does.
+   */
+  @Test
+  public void testRandom() {
+    Random r = new Random(11);
+    IntervalIndex index = new IntervalIndex();
+    int[] starts = new int[1000];
+    int[] ends = new int[1000];
+    int count = 0;
+    while (count < 900) {
+      int batch = r.nextBoolean() ? 1 : r.nextInt(40);
+      int[] batchStarts = new int[batch];
+      int[] batchEnds = new int[batch];
+      int[] batchIds = new int[batch];
+      for (int i = 0; i < batch; i++) {
+        starts[count] = r.nextInt(300);
+        ends[count] = starts[count] + r.nextInt(30);
+        batchStarts[i] = starts[count];
+        batchEnds[i] = ends[count];
+        batchIds[i] = count;
+        count++;
+      }
+      index.addAll(batchStarts, batchEnds, batchIds, batch);
+      assertEquals(count, index.size());
+
+      int point = r.nextInt(340) - 5;
+      int[] expected = new int[count];
+      int found = 0;
+      for (int i = 0; i < count; i++) {
+        if (starts[i] <= point && point <= ends[i]) {
+          expected[found++] = i;
+        }
+      }
+      assertArrayEquals("at " + point, Arrays.copyOf(expected, found), stab(index, point));
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Test cases for the interval tree the models look up the motions in progress in. Verifying that
+ * a point is found in exactly the closed intervals that contain it, wherever it is in the tree.
+ */
+public class IntervalTreeTest {
+
+  /*
+  Helper method that returns a tree over the given intervals, given as pairs of a start and an end,
+  each with its position as its id.
+   */
+  private IntervalTree tree(int... bounds) {
+    int count = bounds.length / 2;
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int[] ids = new int[count];
+    for (int i = 0; i < count; i++) {
+      starts[i] = bounds[2 * i];
+      ends[i] = bounds[2 * i + 1];
+      ids[i] = i;
+    }
+    return new IntervalTree(starts, ends, ids, count);
+  }
+
+  /*
+  Helper method that returns the ids the given tree finds at the given point, sorted.
+   */
+  private int[] stab(IntervalTree tree, int point) {
+    IntList out = new IntList();
+    tree.stab(point, out);
+    int[] ids = new int[out.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = out.get(i);
+    }
+    Arrays.sort(ids);
+    return ids;
+  }
+
+  /**
+   * Checks that an empty tree finds nothing anywhere.
+   */
+  @Test
+  public void testEmpty() {
+    IntervalTree tree = tree();
+    assertEquals(0, tree.size());
+    assertArrayEquals(new int[0], stab(tree, 0));
+    assertArrayEquals(new int[0], stab(tree, Integer.MIN_VALUE));
+    assertArrayEquals(new int[0], stab(tree, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Checks that an interval of a single point is found only at that point.
+   */
+  @Test
+  public void testPointInterval() {
+    IntervalTree tree = tree(5, 5);
+    assertArrayEquals(new int[]{0}, stab(tree, 5));
+    assertArrayEquals(new int[0], stab(tree, 4));
+    assertArrayEquals(new int[0], stab(tree, 6));
+
+    tree = tree(0, 10, 5, 5, 5, 5, 7, 7);
+    assertArrayEquals(new int[]{0, 1, 2}, stab(tree, 5));
+    assertArrayEquals(new int[]{0}, stab(tree, 6));
+    assertArrayEquals(new int[]{0, 3}, stab(tree, 7));
+  }
+
+  /**
+   * Checks that the intervals are closed, so they are found at both of their ends, and not just
+   * outside of them.
+   */
+  @Test
+  public void testEnds() {
+    IntervalTree tree = tree(0, 10, 10, 20, 20, 30, 3, 4);
+    assertArrayEquals(new int[0], stab(tree, -1));
+    assertArrayEquals(new int[]{0}, stab(tree, 0));
+    assertArrayEquals(new int[]{0, 3}, stab(tree, 3));
+    assertArrayEquals(new int[]{0, 3}, stab(tree, 4));
+    assertArrayEquals(new int[]{0}, stab(tree, 5));
+    assertArrayEquals(new int[]{0, 1}, stab(tree, 10));
+    assertArrayEquals(new int[]{1, 2}, stab(tree, 20));
+    assertArrayEquals(new int[]{2}, stab(tree, 30));
+    assertArrayEquals(new int[0], stab(tree, 31));
+  }
+
+  /**
+   * Checks the points at the center of the root, which is the start of the median interval, and
+   * just either side of it, where the search goes down one subtree or the other.
+   */
+  @Test
+  public void testCenter() {
+    // sorted by start, the median is the interval starting at 6, so the root is centered at 6
+    IntervalTree tree = tree(0, 2, 1, 8, 6, 6, 6, 9, 7, 12);
+    assertArrayEquals(new int[]{1, 2, 3}, stab(tree, 6));
+    assertArrayEquals(new int[]{1}, stab(tree, 5));
+    assertArrayEquals(new int[]{1, 3, 4}, stab(tree, 7));
+    assertArrayEquals(new int[]{0, 1}, stab(tree, 2));
+    assertArrayEquals(new int[]{3, 4}, stab(tree, 9));
+    assertArrayEquals(new int[]{4}, stab(tree, 10));
+  }
+
+  /**
+   * Checks that intervals with the same bounds are all found, with their own ids.
+   */
+  @Test
+  public void testSameIntervals() {
+    IntervalTree tree = tree(1, 3, 1, 3, 1, 3);
+    assertArrayEquals(new int[]{0, 1, 2}, stab(tree, 1));
+    assertArrayEquals(new int[]{0, 1, 2}, stab(tree, 2));
+    assertArrayEquals(new int[]{0, 1, 2}, stab(tree, 3));
+    assertArrayEquals(new int[0], stab(tree, 0));
+  }
+
+  /**
+   * Checks that only the given number of intervals is taken from the arrays, and that the arrays
+   * are copied, so changing them afterwards does not change the tree.
+   */
+  @Test
+  public void testCopiesCount() {
+    int[] starts = {0, 5, 9};
+    int[] ends = {1, 6, 9};
+    int[] ids = {7, 8, 9};
+    IntervalTree tree = new IntervalTree(starts, ends, ids, 2);
+    starts[0] = 100;
+    ends[0] = 100;
+    ids[1] = 0;
+    assertEquals(2, tree.size());
+    assertEquals(0, tree.getStart(0));
+    assertEquals(1, tree.getEnd(0));
+    assertEquals(8, tree.getId(1));
+    assertArrayEquals(new int[]{7}, stab(tree, 0));
+    assertArrayEquals(new int[]{8}, stab(tree, 6));
+    assertArrayEquals(new int[0], stab(tree, 9));
+  }
+
+  /**
+   * Checks that an interval cannot end before it starts.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEndBeforeStart() {
+    tree(0, 4, 3, 2);
+  }
+
+  /**
+   * Checks that a tree over many random intervals finds the same intervals at every point as
+   * checking every interval does.
+   */
+  @Test
+  public void testRandom() {
+    Random r = new Random(7);
+    for (int round = 0; round < 20; round++) {
+      int count = r.nextInt(200);
+      int[] bounds = new int[2 * count];
+      for (int i = 0; i < count; i++) {
+        bounds[2 * i] = r.nextInt(100);
+        bounds[2 * i + 1] = bounds[2 * i] + r.nextInt(20);
+      }
+      IntervalTree tree = tree(bounds);
+      for (int point = -1; point <= 120; point++) {
+        int[] expected = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+          if (bounds[2 * i] <= point && point <= bounds[2 * i + 1]) {
+            expected[found++] = i;
+          }
+        }
+        assertArrayEquals("at " + point, Arrays.copyOf(expected, found), stab(tree, point));
+      }
+    }
+  }
+}
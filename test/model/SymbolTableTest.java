@@ -0,0 +1,130 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Test cases for the table of the names of the shapes of a model. Verifying that every name is
+ * numbered once, densely and in the order the names are added.
+ */
+public class SymbolTableTest {
+
+  /**
+   * Checks that the names are numbered from 0 in the order they are added, and that the numbers
+   * and the names look each other up.
+   */
+  @Test
+  public void testIds() {
+    SymbolTable table = new SymbolTable();
+    assertEquals(0, table.size());
+    assertEquals(0, table.add("R"));
+    assertEquals(1, table.add("C"));
+    assertEquals(2, table.add("A"));
+    assertEquals(3, table.size());
+    assertEquals(0, table.idOf("R"));
+    assertEquals(2, table.idOf("A"));
+    assertEquals(1, table.idOf("C"));
+    assertEquals("R", table.nameOf(0));
+    assertEquals("C", table.nameOf(1));
+    assertEquals("A", table.nameOf(2));
+    assertEquals(List.of("R", "C", "A"), table.names());
+  }
+
+  /**
+   * Checks that a name looked up again, either as the same String or as an equal one, has the
+   * same number.
+   */
+  @Test
+  public void testIdOfAgain() {
+    SymbolTable table = new SymbolTable();
+    String name = "disk1";
+    table.add(name);
+    table.add("disk2");
+    assertEquals(0, table.idOf(name));
+    assertEquals(0, table.idOf(name));
+    assertEquals(0, table.idOf(new String("disk1")));
+    assertEquals(1, table.idOf("disk2"));
+    assertEquals(0, table.idOf(name));
+  }
+
+  /**
+   * Checks that a name that is not in the table has no number, even right after another one was
+   * looked up.
+   */
+  @Test
+  public void testIdOfUnknown() {
+    SymbolTable table = new SymbolTable();
+    assertEquals(-1, table.idOf("R"));
+    assertEquals(-1, table.idOf(null));
+    table.add("R");
+    assertEquals(0, table.idOf("R"));
+    assertEquals(-1, table.idOf("r"));
+    assertEquals(-1, table.idOf(null));
+    assertEquals(-1, table.idOf("C"));
+  }
+
+  /**
+   * Checks that a name cannot be added twice, and that the table is the same after trying.
+   */
+  @Test
+  public void testDuplicateName() {
+    SymbolTable table = new SymbolTable();
+    table.add("R");
+    table.add("C");
+    try {
+      table.add(new String("R"));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("A shape with this name already exists. Can't add twice.", e.getMessage());
+    }
+    assertEquals(2, table.size());
+    assertEquals(0, table.idOf("R"));
+    assertEquals(List.of("R", "C"), table.names());
+    assertEquals(2, table.add("A"));
+  }
+
+  /**
+   * Checks that the numbers in the order of hashing are those of every name once, in the order a
+   * map from the names to their numbers lists them, which is the order the motions starting at the
+   * same time have always been listed in.
+   */
+  @Test
+  public void testHashOrder() {
+    SymbolTable table = new SymbolTable();
+    assertArrayEquals(new int[0], table.hashOrder());
+    Map<String, Integer> expected = new HashMap<>();
+    for (String name : new String[]{"disk3", "disk1", "disk2", "R", "C", "\u5f62", "pole"}) {
+      expected.put(name, table.add(name));
+    }
+    int[] order = table.hashOrder();
+    int i = 0;
+    for (int id : expected.values()) {
+      assertEquals(id, order[i++]);
+    }
+    assertEquals(7, order.length);
+    int[] sorted = order.clone();
+    Arrays.sort(sorted);
+    assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6}, sorted);
+  }
+
+  /**
+   * Checks that the names returned are a copy, which the table does not change with.
+   */
+  @Test
+  public void testNamesIsCopy() {
+    SymbolTable table = new SymbolTable();
+    table.add("R");
+    List<String> names = table.names();
+    names.add("C");
+    table.add("A");
+    assertEquals(List.of("R", "C"), names);
+    assertEquals(List.of("R", "A"), table.names());
+  }
+}